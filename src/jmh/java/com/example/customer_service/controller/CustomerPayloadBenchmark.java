@@ -0,0 +1,117 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.service.CustomerBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Round trip of a single customer and of a page of 1000 over HTTP, including decoding on the client,
+ * for each representation the API negotiates.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerPayloadBenchmark {
+    private static final int TABLE_SIZE = 1_000;
+
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    private String format;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private ObjectMapper mapper;
+    private HttpRequest single;
+    private HttpRequest page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:customer_service_payload",
+                        "spring.cloud.discovery.enabled=false",
+                        "eureka.client.enabled=false",
+                        "customer-service.rate-limit.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        context.getBean(CustomerBatchService.class).createCustomers(seed().iterator(), BatchMode.CHUNKED);
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/customers";
+
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        String accept = switch (format) {
+            case "cbor" -> {
+                builder.factory(new CBORFactory());
+                yield MediaType.APPLICATION_CBOR_VALUE;
+            }
+            case "smile" -> {
+                builder.factory(new SmileFactory());
+                yield "application/x-jackson-smile";
+            }
+            default -> MediaType.APPLICATION_JSON_VALUE;
+        };
+        mapper = builder.build();
+        String acceptEncoding = format.equals("json-gzip") ? "gzip" : "identity";
+        client = HttpClient.newHttpClient();
+        single = HttpRequest.newBuilder(URI.create(baseUrl + "/1"))
+                .header("Accept", accept).header("Accept-Encoding", acceptEncoding).build();
+        page = HttpRequest.newBuilder(URI.create(baseUrl + "?limit=" + TABLE_SIZE))
+                .header("Accept", accept).header("Accept-Encoding", acceptEncoding).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        client.close();
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerDto single() throws IOException, InterruptedException {
+        return mapper.readValue(body(single), CustomerDto.class);
+    }
+
+    @Benchmark
+    public CustomerPageDto page() throws IOException, InterruptedException {
+        return mapper.readValue(body(page), CustomerPageDto.class);
+    }
+
+    private InputStream body(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        InputStream body = new ByteArrayInputStream(response.body());
+        return response.headers().firstValue("Content-Encoding").filter("gzip"::equals).isPresent()
+                ? new GZIPInputStream(body) : body;
+    }
+
+    private static List<CreateCustomerDto> seed() {
+        List<CreateCustomerDto> customers = new ArrayList<>(TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            customers.add(new CreateCustomerDto("Payload Customer " + i, "payload-" + i + "@example.com", "555-0100"));
+        }
+        return customers;
+    }
+}
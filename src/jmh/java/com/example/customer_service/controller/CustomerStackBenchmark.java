@@ -0,0 +1,102 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.service.CustomerBatchService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Same burst as {@link CustomerApiLoadBenchmark}, but compares the servlet stack (Tomcat and JPA) with the
+ * reactive profile (Netty and R2DBC) at higher concurrency. Run with {@code -prof gc} to see the allocation
+ * per request alongside the latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerStackBenchmark {
+    private static final int TABLE_SIZE = 10_000;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"1000", "5000"})
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:customer_service_stack",
+                        "spring.cloud.discovery.enabled=false",
+                        "eureka.client.enabled=false",
+                        "customer-service.rate-limit.enabled=false",
+                        "logging.level.root=WARN");
+        if (stack.equals("reactive")) {
+            builder.profiles("reactive");
+        }
+        context = builder.run();
+        context.getBean(CustomerBatchService.class).createCustomers(seed().iterator(), BatchMode.CHUNKED);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/customers";
+        clientExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        client = HttpClient.newBuilder()
+                .executor(clientExecutor)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        clientExecutor.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long after = ThreadLocalRandom.current().nextLong(TABLE_SIZE);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "?limit=20&after=" + after)).GET().build();
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        int ok = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() == 200) {
+                ok++;
+            }
+        }
+        return ok;
+    }
+
+    private static List<CreateCustomerDto> seed() {
+        List<CreateCustomerDto> customers = new ArrayList<>(TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            customers.add(new CreateCustomerDto("Stack Customer " + i, "stack-" + i + "@example.com", "555-0100"));
+        }
+        return customers;
+    }
+}
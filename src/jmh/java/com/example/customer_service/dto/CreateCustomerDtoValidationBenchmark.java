@@ -0,0 +1,46 @@
+package com.example.customer_service.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CreateCustomerDtoValidationBenchmark {
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CreateCustomerDto valid;
+    private CreateCustomerDto invalid;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        valid = new CreateCustomerDto("John Doe", "john.doe@example.com", "1234567890");
+        invalid = new CreateCustomerDto(" ", "not-an-email", null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateCustomerDto>> validateValid() {
+        return validator.validate(valid);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateCustomerDto>> validateInvalid() {
+        return validator.validate(invalid);
+    }
+}
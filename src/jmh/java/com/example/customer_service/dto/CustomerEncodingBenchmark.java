@@ -0,0 +1,90 @@
+package com.example.customer_service.dto;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode cost of the customer representations the API can negotiate: plain JSON, JSON as
+ * gzipped by the servlet container, CBOR and Smile. The payload size of each combination is printed
+ * when its trial starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerEncodingBenchmark {
+    @Param({"json", "json-gzip", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "1000"})
+    private int size;
+
+    private ObjectMapper mapper;
+    private boolean gzip;
+    private JavaType type;
+    private Object payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory());
+            case "smile" -> builder.factory(new SmileFactory());
+            default -> {
+            }
+        }
+        mapper = builder.build();
+        gzip = format.equals("json-gzip");
+        List<CustomerDto> customers = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            customers.add(new CustomerDto(i, "Customer " + i, "customer" + i + "@example.com", "555-01" + i, 0L));
+        }
+        if (size == 1) {
+            payload = customers.getFirst();
+            type = mapper.constructType(CustomerDto.class);
+        } else {
+            payload = new CustomerPageDto(customers, (long) size);
+            type = mapper.constructType(CustomerPageDto.class);
+        }
+        encoded = encode();
+        System.out.printf("%n%s, %d customer(s): %d bytes%n", format, size, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (!gzip) {
+            return mapper.writeValueAsBytes(payload);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(out, payload);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        if (!gzip) {
+            return mapper.readValue(encoded, type);
+        }
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(encoded))) {
+            return mapper.readValue(in, type);
+        }
+    }
+}
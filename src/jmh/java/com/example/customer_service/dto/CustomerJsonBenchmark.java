@@ -0,0 +1,69 @@
+package com.example.customer_service.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CustomerDtoSerializer} with Jackson's default record serializer. Run with
+ * {@code -Djmh.args="CustomerJson -prof gc"} to see the allocation rate next to the timings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerJsonBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper reflectiveMapper;
+    private CustomerDto customer;
+    private List<CustomerDto> customers;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        reflectiveMapper = Jackson2ObjectMapperBuilder.json()
+                .mixIn(CustomerDto.class, DefaultSerialization.class)
+                .build();
+        customer = new CustomerDto(1L, "Customer 1", "customer1@example.com", "5551", 0L);
+        customers = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            customers.add(new CustomerDto(i, "Customer " + i, "customer" + i + "@example.com", "555" + i, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeSingle() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(customers);
+    }
+
+    @Benchmark
+    public byte[] serializeSingleReflective() throws JsonProcessingException {
+        return reflectiveMapper.writeValueAsBytes(customer);
+    }
+
+    @Benchmark
+    public byte[] serializeListReflective() throws JsonProcessingException {
+        return reflectiveMapper.writeValueAsBytes(customers);
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface DefaultSerialization {
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.customer_service.exception;
+
+import com.example.customer_service.dto.ApiErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of answering a lookup of an unknown id: raising the exception, rendering it in
+ * {@link GlobalException} and writing the body. {@code stackTraceBaseline} raises an ordinary runtime
+ * exception from the same depth for comparison. Run with {@code -prof gc} for allocation per 404.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotFoundPathBenchmark {
+    // roughly the frames between the servlet container and the service
+    private static final int CALL_DEPTH = 120;
+
+    private GlobalException globalException;
+    private ObjectMapper objectMapper;
+    private long id;
+
+    @Setup
+    public void setUp() {
+        globalException = new GlobalException(new ErrorMetrics(new SimpleMeterRegistry()));
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public byte[] notFoundResponse() throws Exception {
+        try {
+            throwAt(CALL_DEPTH, ++id, true);
+            return null;
+        } catch (NotFoundException ex) {
+            ResponseEntity<ApiErrorResponse> response = globalException.handleNotFoundException(ex);
+            return objectMapper.writeValueAsBytes(response.getBody());
+        }
+    }
+
+    @Benchmark
+    public RuntimeException stackTraceBaseline() {
+        try {
+            throwAt(CALL_DEPTH, ++id, false);
+            return null;
+        } catch (RuntimeException ex) {
+            return ex;
+        }
+    }
+
+    private static void throwAt(int depth, long id, boolean stackless) {
+        if (depth > 0) {
+            throwAt(depth - 1, id, stackless);
+            return;
+        }
+        String message = "Customer not found with id: " + id;
+        throw stackless ? new NotFoundException(message) : new RuntimeException(message);
+    }
+}
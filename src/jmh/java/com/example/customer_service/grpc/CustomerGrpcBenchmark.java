@@ -0,0 +1,125 @@
+package com.example.customer_service.grpc;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.grpc.proto.CustomerServiceGrpc;
+import com.example.customer_service.grpc.proto.GetCustomerRequest;
+import com.example.customer_service.service.CustomerBatchService;
+import com.example.customer_service.service.CustomerService;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service-to-service {@code GET /customers/{id}} over REST (HTTP/1.1 and JSON) against the gRPC
+ * {@code GetCustomer} call, with the customers already cached so the transport dominates. The sampled
+ * latency gives p50 and p99; the CPU time of the process per request is printed after every iteration
+ * and covers client and server, which share the JVM.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerGrpcBenchmark {
+    private static final int TABLE_SIZE = 10_000;
+
+    @Param({"rest", "grpc"})
+    private String transport;
+
+    private final LongAdder requests = new LongAdder();
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private ManagedChannel channel;
+    private CustomerServiceGrpc.CustomerServiceBlockingStub stub;
+    private String baseUrl;
+    private long firstId;
+    private long cpuNanos;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "customer-service.grpc.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:customer_service_grpc",
+                        "spring.cloud.discovery.enabled=false",
+                        "eureka.client.enabled=false",
+                        "customer-service.rate-limit.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        context.getBean(CustomerBatchService.class).createCustomers(seed().iterator(), BatchMode.CHUNKED);
+        CustomerService customerService = context.getBean(CustomerService.class);
+        firstId = customerService.getCustomers(0L, 1).items().get(0).id();
+        for (long id = firstId; id < firstId + TABLE_SIZE; id++) {
+            customerService.getCustomerById(id);
+        }
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/customers/";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        channel = NettyChannelBuilder.forAddress("localhost", context.getBean(CustomerGrpcServer.class).getPort())
+                .usePlaintext()
+                .build();
+        stub = CustomerServiceGrpc.newBlockingStub(channel);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        channel.shutdownNow();
+        httpClient.close();
+        context.close();
+    }
+
+    @Setup(Level.Iteration)
+    public void startCpuClock() {
+        requests.reset();
+        cpuNanos = processCpuNanos();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printCpuPerRequest() {
+        long count = requests.sum();
+        if (count > 0) {
+            System.out.printf("%n%s: %.1f us CPU per request over %d requests%n", transport,
+                    (processCpuNanos() - cpuNanos) / 1_000.0 / count, count);
+        }
+    }
+
+    @Benchmark
+    public Object getCustomer() throws Exception {
+        long id = firstId + ThreadLocalRandom.current().nextLong(TABLE_SIZE);
+        requests.increment();
+        if (transport.equals("grpc")) {
+            return stub.getCustomer(GetCustomerRequest.newBuilder().setId(id).build());
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + id)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+
+    private static List<CreateCustomerDto> seed() {
+        List<CreateCustomerDto> customers = new ArrayList<>(TABLE_SIZE);
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            customers.add(new CreateCustomerDto("Grpc Customer " + i, "grpc-" + i + "@example.com", "555-0100"));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.customer_service.search;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a ranked fuzzy name search against an index of generated first and last name
+ * combinations, for an exact name, a misspelled one and a partial one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NameTrigramIndexBenchmark {
+    private static final String[] FIRST_NAMES = {"James", "Mary", "Robert", "Patricia", "John", "Jennifer",
+            "Michael", "Linda", "David", "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica",
+            "Thomas", "Sarah", "Charles", "Karen", "Christopher", "Lisa", "Daniel", "Nancy", "Matthew", "Betty"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris"};
+
+    @Param({"100000", "1000000"})
+    private int size;
+
+    @Param({"Jennifer Rodriguez 4711", "Jenifer Rodriguess 4711", "rodrig 4711"})
+    private String query;
+
+    private NameTrigramIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new NameTrigramIndex();
+        for (int id = 0; id < size; id++) {
+            index.put(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + random.nextInt(10_000));
+        }
+    }
+
+    @Benchmark
+    public List<NameTrigramIndex.Match> search() {
+        return index.search(query, 20, 0.3);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.respository.CustomerRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the whole customer table once through the DTO projection used by the list endpoints and once
+ * by loading managed entities and mapping them, as the list path did before. Run with
+ * {@code -Djmh.args="CustomerList -prof gc"} to compare allocation rate and GC counts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerListBenchmark {
+    @Param({"1000", "50000"})
+    private int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private CustomerRepository customerRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:customer_service_list_benchmark",
+                        "spring.cloud.discovery.enabled=false",
+                        "eureka.client.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        customerService = context.getBean(CustomerService.class);
+        customerRepository = context.getBean(CustomerRepository.class);
+        List<CreateCustomerDto> seed = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            CreateCustomerDto dto = new CreateCustomerDto();
+            dto.setName("List Customer " + i);
+            dto.setEmail("list-" + i + "@example.com");
+            dto.setPhone("555-0100");
+            seed.add(dto);
+        }
+        context.getBean(CustomerBatchService.class).createCustomers(seed.iterator(), BatchMode.CHUNKED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<CustomerDto> projected() {
+        return customerService.getAllCustomers();
+    }
+
+    @Benchmark
+    public List<CustomerDto> managedEntities() {
+        return CustomerService.toDto(customerRepository.findAll());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.model.Customer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerMappingBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    private Customer customer;
+    private List<Customer> customers;
+
+    @Setup
+    public void setUp() {
+        customer = customer(1);
+        customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            customers.add(customer(i));
+        }
+    }
+
+    @Benchmark
+    public CustomerDto toDtoSingle() {
+        return CustomerService.toDto(customer);
+    }
+
+    @Benchmark
+    public List<CustomerDto> toDtoList() {
+        return CustomerService.toDto(customers);
+    }
+
+    private static Customer customer(long id) {
+        return Customer.builder()
+                .id(id)
+                .name("Customer " + id)
+                .email("customer" + id + "@example.com")
+                .phone("555" + id)
+                .version(0L)
+                .build();
+    }
+}
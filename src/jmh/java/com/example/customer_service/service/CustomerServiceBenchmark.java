@@ -0,0 +1,123 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.CustomerServiceApplication;
+import com.example.customer_service.dto.BatchItemResultDto;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service-level benchmarks against an embedded H2 database. The table size parameter shows whether
+ * lookups stay flat as the table grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerServiceBenchmark {
+    @Param({"1000", "100000"})
+    private int tableSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private Cache customerCache;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:customer_service_benchmark",
+                        "spring.cloud.discovery.enabled=false",
+                        "eureka.client.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        customerService = context.getBean(CustomerService.class);
+        customerCache = context.getBean(CacheManager.class).getCache(CustomerService.CUSTOMER_CACHE);
+        ids = context.getBean(CustomerBatchService.class)
+                .createCustomers(seed(tableSize), BatchMode.CHUNKED)
+                .items().stream()
+                .mapToLong(BatchItemResultDto::id)
+                .toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerDto saveCustomer() {
+        long n = sequence.incrementAndGet();
+        return customerService.saveCustomer(newCustomer("Saved " + n, "saved-" + n + "@example.com"));
+    }
+
+    @Benchmark
+    public CustomerDto getCustomerByIdCached() {
+        return customerService.getCustomerById(randomId());
+    }
+
+    @Benchmark
+    public CustomerDto getCustomerByIdUncached() {
+        long id = randomId();
+        customerCache.evict(id);
+        return customerService.getCustomerById(id);
+    }
+
+    @Benchmark
+    public CustomerPageDto searchByEmail() {
+        int n = ThreadLocalRandom.current().nextInt(tableSize);
+        return customerService.searchCustomers("seed-" + n + "@example.com", null, null, null, 10);
+    }
+
+    @Benchmark
+    public CustomerPageDto searchByNamePrefix() {
+        int n = ThreadLocalRandom.current().nextInt(tableSize);
+        return customerService.searchCustomers(null, null, "seed customer " + n, null, 10);
+    }
+
+    private long randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static Iterator<CreateCustomerDto> seed(int size) {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public CreateCustomerDto next() {
+                int n = next++;
+                return newCustomer("Seed Customer " + n, "seed-" + n + "@example.com");
+            }
+        };
+    }
+
+    private static CreateCustomerDto newCustomer(String name, String email) {
+        CreateCustomerDto dto = new CreateCustomerDto();
+        dto.setName(name);
+        dto.setEmail(email);
+        dto.setPhone("555-0100");
+        return dto;
+    }
+}
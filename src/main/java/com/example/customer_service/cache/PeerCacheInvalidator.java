@@ -0,0 +1,200 @@
+package com.example.customer_service.cache;
+
+import com.example.customer_service.dto.CustomerInvalidationDto;
+import com.example.customer_service.dto.CustomerInvalidationsDto;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.service.CustomerChangedEvent;
+import com.example.customer_service.service.CustomerService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the customer caches of all instances coherent. Committed updates and deletes are applied to the
+ * local cache right away and queued for the peers registered under the same service id with the
+ * discovery client. The queue keeps only the newest version per customer and is sent to every peer in
+ * batches once per flush interval. Peers apply them through {@link VersionedCustomerCache}, so batches may
+ * arrive late or out of order. Delivery is best effort: a peer that misses a batch serves the old entry
+ * until it expires.
+ * <p>
+ * The endpoint peers post to sits on the public port, so every batch carries a secret shared by all
+ * instances and batches without it are refused. Without a configured secret nothing is sent or accepted.
+ */
+@Component
+public class PeerCacheInvalidator {
+    public static final String PATH = "/internal/cache/invalidations";
+    public static final String SECRET_HEADER = "X-Cache-Coherence-Secret";
+
+    private final Logger logger = LoggerFactory.getLogger(PeerCacheInvalidator.class);
+    private final CacheManager cacheManager;
+    private final ObjectProvider<DiscoveryClient> discoveryClient;
+    private final RestClient restClient;
+    private final Map<Long, Long> pending = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    // tells this instance's own batches apart when the registry lists it among the peers
+    private final String origin = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final String serviceId;
+    private final byte[] secret;
+    private final int maxBatchSize;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter received;
+
+    public PeerCacheInvalidator(CacheManager cacheManager, ObjectProvider<DiscoveryClient> discoveryClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${customer-service.cache.coherence.enabled:true}") boolean enabled,
+                                @Value("${customer-service.cache.coherence.service-id:${spring.application.name}}") String serviceId,
+                                @Value("${customer-service.cache.coherence.secret:}") String secret,
+                                @Value("${customer-service.cache.coherence.max-batch-size:1000}") int maxBatchSize,
+                                @Value("${customer-service.cache.coherence.timeout:1s}") Duration timeout) {
+        this.cacheManager = cacheManager;
+        this.discoveryClient = discoveryClient;
+        this.enabled = enabled && !secret.isBlank();
+        this.serviceId = serviceId;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        if (enabled && secret.isBlank()) {
+            logger.warn("No customer-service.cache.coherence.secret is configured, peer cache invalidations are disabled");
+        }
+        this.maxBatchSize = maxBatchSize;
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+        this.sent = Counter.builder("customer.cache.invalidations")
+                .description("Customer cache invalidations exchanged with peers")
+                .tag("result", "sent")
+                .register(meterRegistry);
+        this.failed = Counter.builder("customer.cache.invalidations")
+                .description("Customer cache invalidations exchanged with peers")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.received = Counter.builder("customer.cache.invalidations")
+                .description("Customer cache invalidations exchanged with peers")
+                .tag("result", "received")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        long version;
+        if (event.type() == CustomerChangeType.DELETED) {
+            version = VersionedCustomerCache.DELETED;
+        } else if (event.type() == CustomerChangeType.UPDATED && event.snapshot().version() != null) {
+            version = event.snapshot().version();
+        } else {
+            return;
+        }
+        apply(event.customerId(), version);
+        if (this.enabled) {
+            this.pending.merge(event.customerId(), version, Math::max);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${customer-service.cache.coherence.flush-interval:20ms}")
+    public void flush() {
+        if (this.pending.isEmpty()) {
+            return;
+        }
+        List<CustomerInvalidationDto> items = new ArrayList<>(this.pending.size());
+        for (Long id : this.pending.keySet()) {
+            Long version = this.pending.remove(id);
+            if (version != null) {
+                items.add(new CustomerInvalidationDto(id, version == VersionedCustomerCache.DELETED ? null : version));
+            }
+        }
+        List<ServiceInstance> peers = peers();
+        for (int from = 0; from < items.size(); from += this.maxBatchSize) {
+            CustomerInvalidationsDto batch = new CustomerInvalidationsDto(this.origin,
+                    List.copyOf(items.subList(from, Math.min(from + this.maxBatchSize, items.size()))));
+            for (ServiceInstance peer : peers) {
+                this.senders.execute(() -> send(peer, batch));
+            }
+        }
+    }
+
+    public boolean isTrusted(String secret) {
+        // constant time, so the secret cannot be guessed byte by byte
+        return this.enabled && secret != null && MessageDigest.isEqual(this.secret, secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void receive(CustomerInvalidationsDto batch) {
+        if (this.origin.equals(batch.origin()) || batch.items() == null) {
+            return;
+        }
+        for (CustomerInvalidationDto item : batch.items()) {
+            apply(item.id(), item.version() == null ? VersionedCustomerCache.DELETED : item.version());
+        }
+        this.received.increment(batch.items().size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.senders.shutdownNow();
+    }
+
+    private void apply(long id, long version) {
+        Cache cache = this.cacheManager.getCache(CustomerService.CUSTOMER_CACHE);
+        if (cache instanceof VersionedCustomerCache versioned) {
+            versioned.invalidate(id, version);
+        } else if (cache != null) {
+            cache.evict(id);
+        }
+    }
+
+    private List<ServiceInstance> peers() {
+        DiscoveryClient client = this.discoveryClient.getIfAvailable();
+        if (client == null) {
+            return List.of();
+        }
+        try {
+            return client.getInstances(this.serviceId);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not list the peers of {}, skipping cache invalidations", this.serviceId, ex);
+            return List.of();
+        }
+    }
+
+    private void send(ServiceInstance peer, CustomerInvalidationsDto batch) {
+        try {
+            this.restClient.post()
+                    .uri(peer.getUri().resolve(PATH))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(SECRET_HEADER, new String(this.secret, StandardCharsets.UTF_8))
+                    .body(batch)
+                    .retrieve()
+                    .toBodilessEntity();
+            this.sent.increment(batch.items().size());
+        } catch (RestClientException ex) {
+            this.failed.increment(batch.items().size());
+            logger.debug("Sending {} cache invalidations to {} failed", batch.items().size(), peer.getUri(), ex);
+        }
+    }
+}
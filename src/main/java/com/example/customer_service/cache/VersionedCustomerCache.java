@@ -0,0 +1,79 @@
+package com.example.customer_service.cache;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Customer cache that remembers the newest version each recent invalidation announced. Entries older
+ * than that version are evicted and never stored again, so an invalidation arriving late cannot evict a
+ * newer entry, and a read that fetched the old row while the invalidation was applied cannot put it back.
+ */
+public class VersionedCustomerCache extends CaffeineCache {
+    /** Version floor of a deleted customer: no entry for its id is cached any more. */
+    public static final long DELETED = Long.MAX_VALUE;
+
+    private final Cache<Object, Long> floors;
+
+    public VersionedCustomerCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+                                  Cache<Object, Long> floors) {
+        super(name, cache, allowNullValues);
+        this.floors = floors;
+    }
+
+    /**
+     * Raises the version floor of the customer and evicts its entry if it is older.
+     */
+    public void invalidate(Object key, long version) {
+        this.floors.asMap().merge(key, version, Math::max);
+        Object cached = getNativeCache().getIfPresent(key);
+        if (cached != null && isStale(key, cached)) {
+            getNativeCache().asMap().remove(key, cached);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (isStale(key, value)) {
+            return;
+        }
+        super.put(key, value);
+        removeIfStale(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (isStale(key, value)) {
+            return get(key);
+        }
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            removeIfStale(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        T value = super.get(key, valueLoader);
+        removeIfStale(key, value);
+        return value;
+    }
+
+    // the floor may have been raised between the check and the write
+    private void removeIfStale(Object key, Object value) {
+        if (isStale(key, value)) {
+            getNativeCache().asMap().remove(key, toStoreValue(value));
+        }
+    }
+
+    private boolean isStale(Object key, Object value) {
+        Long floor = this.floors.getIfPresent(key);
+        if (floor == null) {
+            return false;
+        }
+        return !(value instanceof CustomerDto customer) || customer.version() == null || customer.version() < floor;
+    }
+}
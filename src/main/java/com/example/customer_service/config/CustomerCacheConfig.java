@@ -0,0 +1,51 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.cache.VersionedCustomerCache;
+import com.example.customer_service.service.CustomerService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+/**
+ * Replaces the auto-configured Caffeine cache manager, which offers no way to decorate a cache, so that
+ * the customer cache can resolve invalidations by version. The other caches and the
+ * {@code spring.cache} settings behave as before.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(CacheProperties.class)
+public class CustomerCacheConfig {
+
+    @Bean
+    CaffeineCacheManager cacheManager(CacheProperties cacheProperties,
+                                      @Value("${customer-service.cache.coherence.version-retention:5m}") Duration versionRetention,
+                                      @Value("${customer-service.cache.coherence.max-versions:100000}") long maxVersions) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                if (!CustomerService.CUSTOMER_CACHE.equals(name)) {
+                    return super.adaptCaffeineCache(name, cache);
+                }
+                return new VersionedCustomerCache(name, cache, isAllowNullValues(), Caffeine.newBuilder()
+                        .maximumSize(maxVersions)
+                        .expireAfterWrite(versionRetention)
+                        .build());
+            }
+        };
+        String spec = cacheProperties.getCaffeine().getSpec();
+        if (StringUtils.hasText(spec)) {
+            cacheManager.setCacheSpecification(spec);
+        }
+        if (!cacheProperties.getCacheNames().isEmpty()) {
+            cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        }
+        return cacheManager;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.datasource.ConcurrencyLimitedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer-service.db.max-concurrency")
+public class DatabaseConcurrencyConfig {
+
+    @Bean
+    static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            @Value("${customer-service.db.max-concurrency}") int maxConcurrency,
+            @Value("${customer-service.db.acquire-timeout:2s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // only the pools: the replica router and the lazy proxy hand out pool connections, wrapping them
+                // as well would take a permit per layer for a single connection
+                if (bean instanceof HikariDataSource pool) {
+                    return new ConcurrencyLimitedDataSource(pool, maxConcurrency, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.exception.ErrorMetrics;
+import com.example.customer_service.grpc.CustomerGrpcInterceptor;
+import com.example.customer_service.grpc.CustomerGrpcServer;
+import com.example.customer_service.grpc.CustomerGrpcService;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer-service.grpc.enabled", havingValue = "true")
+public class GrpcConfig {
+
+    @Bean
+    CustomerGrpcService customerGrpcService(CustomerService customerService, CustomerIdFilter customerIdFilter,
+                                            IdempotencyStore idempotencyStore, Validator validator) {
+        return new CustomerGrpcService(customerService, customerIdFilter, idempotencyStore, validator);
+    }
+
+    @Bean
+    CustomerGrpcServer customerGrpcServer(CustomerGrpcService customerGrpcService, MeterRegistry meterRegistry,
+                                          ErrorMetrics errorMetrics,
+                                          @Value("${customer-service.grpc.port:9090}") int port,
+                                          @Value("${customer-service.grpc.threads:32}") int threads,
+                                          @Value("${customer-service.grpc.shutdown-grace-period:10s}") Duration shutdownGracePeriod) {
+        // calls block on JDBC, so they run on a bounded pool of their own instead of the transport's event loop
+        ExecutorService executor = ExecutorServiceMetrics.monitor(meterRegistry,
+                Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("grpc-customer-", 0).factory()),
+                "grpc-customer");
+        return new CustomerGrpcServer(port, executor, shutdownGracePeriod, customerGrpcService,
+                new CustomerGrpcInterceptor(errorMetrics));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.customer_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                          MeterRegistry meterRegistry) {
+        return new TimedMappingJackson2HttpMessageConverter(objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.ratelimit.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer-service.rate-limit.enabled", havingValue = "true")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "customer-service.rate-limit.shedding.enabled", havingValue = "true", matchIfMissing = true)
+    AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        RateLimitProperties.Shedding shedding = properties.shedding();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(shedding.initialLimit(), shedding.minLimit(),
+                shedding.maxLimit(), shedding.window(), shedding.tolerance());
+        Gauge.builder("customer.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit of the customer API")
+                .register(meterRegistry);
+        Gauge.builder("customer.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    @Bean
+    RateLimitInterceptor rateLimitInterceptor(RateLimitProperties properties,
+                                              ObjectProvider<AdaptiveConcurrencyLimiter> concurrencyLimiter,
+                                              MeterRegistry meterRegistry) {
+        return new RateLimitInterceptor(properties, concurrencyLimiter.getIfAvailable(), meterRegistry);
+    }
+
+    @Bean
+    WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/customers", "/customers/**");
+            }
+        };
+    }
+}
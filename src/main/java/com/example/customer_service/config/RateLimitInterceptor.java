@@ -0,0 +1,120 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.exception.ServiceUnavailableException;
+import com.example.customer_service.exception.TooManyRequestsException;
+import com.example.customer_service.ratelimit.AdaptiveConcurrencyLimiter;
+import com.example.customer_service.ratelimit.CallerRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the caller's rate limit for the matched endpoint and then the global adaptive concurrency
+ * limit. Rejections are thrown so {@code GlobalException} renders them like every other API error.
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+    private static final String ADMITTED_AT = RateLimitInterceptor.class.getName() + ".admittedAt";
+
+    private final String callerHeader;
+    private final List<Route> routes;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    // stackless and immutable, so one instance serves every shed request
+    private final ServiceUnavailableException overloaded;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Optional<Route>> resolved = new ConcurrentHashMap<>();
+
+    public RateLimitInterceptor(RateLimitProperties properties, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                MeterRegistry meterRegistry) {
+        this.callerHeader = properties.callerHeader();
+        this.routes = properties.policies().stream()
+                .map(policy -> new Route(policy, new CallerRateLimiter(policy.name(), policy.capacity(), policy.refillPerSecond()),
+                        "Rate limit '" + policy.name() + "' exceeded"))
+                .toList();
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.overloaded = new ServiceUnavailableException("Service is overloaded, retry later", properties.shedding().retryAfter());
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // an async re-dispatch was admitted by its original request
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Route route = pattern == null ? null : resolved
+                .computeIfAbsent(request.getMethod() + " " + pattern, key -> resolve(request.getMethod(), pattern))
+                .orElse(null);
+        if (route != null) {
+            long waitNanos = route.limiter().tryAcquire(caller(request));
+            if (waitNanos > 0) {
+                reject("rate-limit", route.limiter().name());
+                throw new TooManyRequestsException(route.rejection(), Duration.ofNanos(waitNanos));
+            }
+        }
+        if (concurrencyLimiter != null) {
+            if (!concurrencyLimiter.tryAcquire()) {
+                reject("overload", route == null ? "none" : route.limiter().name());
+                throw overloaded;
+            }
+            request.setAttribute(ADMITTED_AT, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // streaming responses hold no request thread and would only distort the latency signal
+        if (request.getAttribute(ADMITTED_AT) != null) {
+            request.removeAttribute(ADMITTED_AT);
+            concurrencyLimiter.release();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_AT) instanceof Long admittedAt) {
+            request.removeAttribute(ADMITTED_AT);
+            concurrencyLimiter.release(System.nanoTime() - admittedAt);
+        }
+    }
+
+    private Optional<Route> resolve(String method, String pattern) {
+        return routes.stream()
+                .filter(route -> route.matches(method, pattern))
+                .findFirst();
+    }
+
+    private String caller(HttpServletRequest request) {
+        String caller = request.getHeader(callerHeader);
+        return caller == null || caller.isBlank() ? "anonymous:" + request.getRemoteAddr() : caller;
+    }
+
+    private void reject(String reason, String policy) {
+        meterRegistry.counter("customer.requests.rejected", "reason", reason, "policy", policy).increment();
+    }
+
+    private record Route(RateLimitProperties.Policy policy, CallerRateLimiter limiter, String rejection) {
+        boolean matches(String method, String pattern) {
+            if (!policy.methods().isEmpty() && !policy.methods().contains(method)) {
+                return false;
+            }
+            for (String candidate : policy.patterns()) {
+                if (candidate.equals(pattern)
+                        || candidate.endsWith("/**") && pattern.startsWith(candidate.substring(0, candidate.length() - 2))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
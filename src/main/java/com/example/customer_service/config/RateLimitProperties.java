@@ -0,0 +1,41 @@
+package com.example.customer_service.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Per-caller rate limit policies and adaptive load shedding for the customer API. A policy applies to
+ * requests whose handler mapping pattern, as declared on the controller, equals one of its patterns
+ * (or starts with the prefix of a pattern ending in {@code /**}) and whose method is listed, or any
+ * method when none is. The first matching policy wins.
+ */
+@ConfigurationProperties("customer-service.rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("X-Username") String callerHeader,
+        @DefaultValue List<Policy> policies,
+        @DefaultValue Shedding shedding
+) {
+    public record Policy(
+            String name,
+            @DefaultValue Set<String> methods,
+            List<String> patterns,
+            int capacity,
+            double refillPerSecond
+    ) {
+    }
+
+    public record Shedding(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("200") int initialLimit,
+            @DefaultValue("20") int minLimit,
+            @DefaultValue("2000") int maxLimit,
+            @DefaultValue("1s") Duration window,
+            @DefaultValue("2.0") double tolerance,
+            @DefaultValue("1s") Duration retryAfter
+    ) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.respository.ReactiveCustomerRepository;
+import com.example.customer_service.service.CustomerBatchService;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerNameSearchService;
+import com.example.customer_service.service.CustomerService;
+import com.example.customer_service.service.ReactiveCustomerService;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked for WebFlux too
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // not a ConnectionFactory bean: one of those would make Boot back off the JDBC DataSource JPA needs
+    @Bean(destroyMethod = "close")
+    ReactiveCustomerRepository reactiveCustomerRepository(DataSourceProperties dataSourceProperties,
+                                                          @Value("${customer-service.reactive.pool.initial-size:8}") int initialSize,
+                                                          @Value("${customer-service.reactive.pool.max-size:32}") int maxSize) {
+        ConnectionFactoryOptions options = r2dbcOptions(dataSourceProperties.determineUrl()).mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+                .build();
+        return new ReactiveCustomerRepository(new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build()));
+    }
+
+    // derived from the JDBC url, so R2DBC reads always go to the database JPA writes to
+    static ConnectionFactoryOptions r2dbcOptions(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:")) {
+            throw new IllegalStateException("Cannot derive an R2DBC url from spring.datasource.url: " + jdbcUrl);
+        }
+        String url = jdbcUrl.substring("jdbc:".length());
+        if (url.startsWith("h2:")) {
+            // r2dbc-h2 takes the H2 url as is, settings included
+            return ConnectionFactoryOptions.builder()
+                    .option(ConnectionFactoryOptions.DRIVER, "h2")
+                    .option(Option.valueOf("url"), url.substring("h2:".length()))
+                    .build();
+        }
+        return ConnectionFactoryOptions.parse("r2dbc:" + url);
+    }
+
+    @Bean
+    ReactiveCustomerService reactiveCustomerService(ReactiveCustomerRepository reactiveCustomerRepository,
+                                                    CustomerService customerService,
+                                                    CustomerBatchService customerBatchService,
+                                                    CustomerNameSearchService customerNameSearchService,
+                                                    CustomerIdFilter customerIdFilter,
+                                                    IdempotencyStore idempotencyStore) {
+        return new ReactiveCustomerService(reactiveCustomerRepository, customerService, customerBatchService,
+                customerNameSearchService, customerIdFilter, idempotencyStore);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.datasource.ReadReplicaDataSource;
+import com.example.customer_service.datasource.ReadYourWritesTracker;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer-service.datasource.replica-urls")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    ReadYourWritesTracker readYourWritesTracker(
+            @Value("${customer-service.datasource.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesTracker(window);
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(ReadYourWritesTracker readYourWritesTracker) {
+        return new ReadYourWritesFilter(readYourWritesTracker);
+    }
+
+    @Bean
+    ReadReplicaDataSource replicaDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                            DataSourceProperties properties,
+                                            ReadYourWritesTracker readYourWritesTracker,
+                                            @Value("${customer-service.datasource.replica-urls}") String[] replicaUrls,
+                                            @Value("${customer-service.datasource.replica-pool-size:10}") int poolSize,
+                                            @Value("${customer-service.datasource.replica-connection-timeout:2s}") Duration connectionTimeout,
+                                            @Value("${customer-service.datasource.health-check-interval:5s}") Duration healthCheckInterval) {
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.length);
+        for (int i = 0; i < replicaUrls.length; i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls[i].trim())
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadReplicaDataSource(primaryDataSource, replicas, readYourWritesTracker::isPinnedToPrimary,
+                healthCheckInterval);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                          @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        // read-only transactions mark their lazy connection read-only before it is fetched, which routes it to a replica
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.datasource.ReadYourWritesTracker;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    static final String CLIENT_HEADER = "X-Username";
+    private static final Set<String> SAFE_METHODS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = request.getHeader(CLIENT_HEADER);
+        if (client == null || client.isBlank()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean mutation = !SAFE_METHODS.contains(request.getMethod());
+        this.readYourWritesTracker.bind(client);
+        // record before and after so a follow-up read racing the response still lands on the primary
+        if (mutation) {
+            this.readYourWritesTracker.recordWrite();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (mutation) {
+                this.readYourWritesTracker.recordWrite();
+            }
+            this.readYourWritesTracker.clear();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.customer_service.config;
+
+import com.example.customer_service.respository.CustomerRepository;
+import com.example.customer_service.service.CustomerChangeService;
+import com.example.customer_service.service.CustomerLoader;
+import com.example.customer_service.sharding.CustomerIdGenerator;
+import com.example.customer_service.sharding.ShardMap;
+import com.example.customer_service.sharding.ShardMapRegistry;
+import com.example.customer_service.sharding.ShardRebalancer;
+import com.example.customer_service.sharding.ShardedCustomerService;
+import com.example.customer_service.sharding.ShardedCustomerStore;
+import com.example.customer_service.sharding.ShardsEndpoint;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "customer-service.sharding.shard-urls")
+public class ShardingConfig {
+
+    @Bean(destroyMethod = "deregister")
+    @DependsOnDatabaseInitialization
+    ShardMapRegistry shardMapRegistry(DataSource dataSource,
+                                      @Value("${customer-service.sharding.node-id:#{null}}") Integer nodeId,
+                                      @Value("${customer-service.sharding.node-timeout:15s}") Duration nodeTimeout) {
+        // ids embed the node id, so two instances sharing one would issue the same ids
+        if (nodeId == null) {
+            throw new IllegalStateException("customer-service.sharding.node-id must be set to an id unique to this instance");
+        }
+        return new ShardMapRegistry(new NamedParameterJdbcTemplate(dataSource), nodeId, nodeTimeout);
+    }
+
+    @Bean(destroyMethod = "close")
+    ShardedCustomerStore shardedCustomerStore(DataSourceProperties properties, ShardMapRegistry shardMapRegistry,
+                                              @Value("${customer-service.sharding.shard-urls}") String[] shardUrls,
+                                              @Value("${customer-service.sharding.strategy:HASH}") ShardMap.Strategy strategy,
+                                              @Value("${customer-service.sharding.range-boundaries:}") Long[] rangeBoundaries,
+                                              @Value("${customer-service.sharding.pool-size:10}") int poolSize) {
+        List<DataSource> shards = new ArrayList<>(shardUrls.length);
+        for (int i = 0; i < shardUrls.length; i++) {
+            HikariDataSource shard = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(shardUrls[i].trim())
+                    .build();
+            shard.setPoolName("shard-" + i);
+            shard.setMaximumPoolSize(poolSize);
+            Flyway.configure().dataSource(shard).load().migrate();
+            shards.add(shard);
+        }
+        ShardMap shardMap = shardMapRegistry.load(strategy == ShardMap.Strategy.HASH
+                ? ShardMap.hash(shards.size())
+                : ShardMap.range(shards.size(), Arrays.asList(rangeBoundaries)));
+        ShardedCustomerStore store = new ShardedCustomerStore(shards, shardMap, new CustomerIdGenerator(shardMapRegistry.nodeId()));
+        shardMapRegistry.register(shardMap.version());
+        return store;
+    }
+
+    @Bean
+    ShardRebalancer shardRebalancer(ShardedCustomerStore shardedCustomerStore, ShardMapRegistry shardMapRegistry) {
+        return new ShardRebalancer(shardedCustomerStore, shardMapRegistry);
+    }
+
+    @Bean
+    ShardsEndpoint shardsEndpoint(ShardedCustomerStore shardedCustomerStore, ShardRebalancer shardRebalancer) {
+        return new ShardsEndpoint(shardedCustomerStore, shardRebalancer);
+    }
+
+    @Bean
+    @Primary
+    ShardedCustomerService shardedCustomerService(CustomerRepository customerRepository,
+                                                  CustomerChangeService customerChangeService,
+                                                  CustomerLoader customerLoader,
+                                                  ShardedCustomerStore shardedCustomerStore) {
+        return new ShardedCustomerService(customerRepository, customerChangeService, customerLoader,
+                shardedCustomerStore);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.customer_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times JSON response serialization separately from the service and repository timers. The timers are
+ * tagged by the declared body type, a collection by its element type, rather than by the runtime class,
+ * which for a list is whatever implementation the service happened to return.
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final MeterRegistry meterRegistry;
+    // resolving the timer from the registry builds its id and tags on every call
+    private final Map<Type, Timer> timers = new ConcurrentHashMap<>();
+
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        super(objectMapper);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            Type declared = type == null || type == Object.class ? object.getClass() : type;
+            sample.stop(this.timers.computeIfAbsent(declared, key -> Timer.builder("customer.serialization")
+                    .description("Time spent writing JSON response bodies")
+                    .tag("type", typeTag(ResolvableType.forType(key)))
+                    .register(this.meterRegistry)));
+        }
+    }
+
+    private static String typeTag(ResolvableType type) {
+        if (type.isArray()) {
+            return typeTag(type.getComponentType()) + "[]";
+        }
+        if (Collection.class.isAssignableFrom(type.toClass())) {
+            return typeTag(type.asCollection().getGeneric(0)) + "[]";
+        }
+        return type.toClass().getSimpleName();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.cache.PeerCacheInvalidator;
+import com.example.customer_service.dto.CustomerInvalidationsDto;
+import com.example.customer_service.exception.ForbiddenException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// peer-to-peer only and never blocks, so it serves both the servlet and the reactive stack
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(PeerCacheInvalidator.PATH)
+public class CustomerCacheController {
+    private final PeerCacheInvalidator peerCacheInvalidator;
+
+    @PostMapping
+    public ResponseEntity<Void> invalidate(@RequestBody CustomerInvalidationsDto invalidations,
+                                           @RequestHeader(value = PeerCacheInvalidator.SECRET_HEADER, required = false) String secret) {
+        if (!peerCacheInvalidator.isTrusted(secret)) {
+            throw new ForbiddenException("Cache invalidations are only accepted from peers");
+        }
+        peerCacheInvalidator.receive(invalidations);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.dto.CustomerChangesDto;
+import com.example.customer_service.service.CustomerChangeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/customers/changes")
+public class CustomerChangeController {
+    private final CustomerChangeService customerChangeService;
+
+    @GetMapping
+    public ResponseEntity<CustomerChangesDto> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                         @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(customerChangeService.getChanges(since, limit));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : since != null ? since : 0L;
+        return customerChangeService.subscribe(from);
+    }
+}
@@ -1,37 +1,116 @@
 package com.example.customer_service.controller;
 
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.BatchResultDto;
 import com.example.customer_service.dto.CreateCustomerDto;
 import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerLookupRequestDto;
+import com.example.customer_service.dto.CustomerNameSearchDto;
+import com.example.customer_service.dto.CustomerPageDto;
 import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.exception.PreconditionFailedException;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.service.CustomerBatchService;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerNameSearchService;
 import com.example.customer_service.service.CustomerService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.List;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class CustomerController {
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final Logger logger = LoggerFactory.getLogger(CustomerController.class);
     private final CustomerService customerService;
+    private final CustomerBatchService customerBatchService;
+    private final CustomerNameSearchService customerNameSearchService;
+    private final CustomerIdFilter customerIdFilter;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyStore idempotencyStore;
 
+    // an Idempotency-Key is scoped to X-Username and only remembered on this node, see IdempotencyStore
     @PostMapping
-    public ResponseEntity<Void> saveCustomer(@Valid @RequestBody CreateCustomerDto createCustomerDto) {
-        CustomerDto createdCustomer = customerService.saveCustomer(createCustomerDto);
-        URI location = URI.create("/customers/" + createdCustomer.id());
-        return ResponseEntity.created(location).build();
+    public ResponseEntity<Void> saveCustomer(@Valid @RequestBody CreateCustomerDto createCustomerDto,
+                                             @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                             @RequestHeader(value = "X-Username", required = false) String username) {
+        if (idempotencyKey == null) {
+            CustomerDto createdCustomer = customerService.saveCustomer(createCustomerDto);
+            return ResponseEntity.created(URI.create("/customers/" + createdCustomer.id())).build();
+        }
+        IdempotencyStore.Outcome<CustomerDto> outcome = idempotencyStore.execute(IdempotencyStore.scopedKey(username, idempotencyKey),
+                createCustomerDto, () -> customerService.saveCustomer(createCustomerDto));
+        return ResponseEntity.created(URI.create("/customers/" + outcome.result().id()))
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()))
+                .build();
+    }
+
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> saveCustomers(InputStream body,
+                                                        @RequestParam(defaultValue = "CHUNKED") BatchMode mode) throws IOException {
+        try (MappingIterator<CreateCustomerDto> items = objectMapper.readerFor(CreateCustomerDto.class).readValues(body)) {
+            return ResponseEntity.ok(customerBatchService.createCustomers(items, mode));
+        }
+    }
+
+    @PutMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> updateCustomers(InputStream body,
+                                                          @RequestParam(defaultValue = "CHUNKED") BatchMode mode) throws IOException {
+        try (MappingIterator<UpdateCustomerDto> items = objectMapper.readerFor(UpdateCustomerDto.class).readValues(body)) {
+            return ResponseEntity.ok(customerBatchService.updateCustomers(items, mode));
+        }
+    }
+
+    @DeleteMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BatchResultDto> deleteCustomers(InputStream body,
+                                                          @RequestParam(defaultValue = "CHUNKED") BatchMode mode) throws IOException {
+        try (MappingIterator<Long> ids = objectMapper.readerFor(Long.class).readValues(body)) {
+            return ResponseEntity.ok(customerBatchService.deleteCustomers(ids, mode));
+        }
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<CustomerDto> updateCustomer(@Valid @RequestBody UpdateCustomerDto updateCustomerDto) {
-        CustomerDto updatedCustomer = customerService.updateCustomer(updateCustomerDto);
-        return ResponseEntity.ok(updatedCustomer);
+    public ResponseEntity<CustomerDto> updateCustomer(@Valid @RequestBody UpdateCustomerDto updateCustomerDto,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            CustomerDto updatedCustomer = customerService.updateCustomer(updateCustomerDto);
+            return withETag(updatedCustomer);
+        }
+        updateCustomerDto.setVersion(parseIfMatch(ifMatch, updateCustomerDto.getId()));
+        try {
+            CustomerDto updatedCustomer = customerService.updateCustomer(updateCustomerDto);
+            return withETag(updatedCustomer);
+        } catch (ConflictException ex) {
+            throw new PreconditionFailedException(ex.getMessage(), ex);
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -42,14 +121,133 @@ public class CustomerController {
 
     @GetMapping("/{id}")
     public ResponseEntity<CustomerDto> getCustomerById(@PathVariable Long id) {
+        if (!customerIdFilter.mightExist(id)) {
+            throw NotFoundException.customer(id);
+        }
         CustomerDto customer = customerService.getCustomerById(id);
-        return ResponseEntity.ok(customer);
+        // a matching If-None-Match turns this into a 304 without writing the body
+        return withETag(customer);
     }
 
     @GetMapping
-    public ResponseEntity<List<CustomerDto>> getAllCustomers(@RequestHeader(value = "X-Username", required = false) String username) {
+    public ResponseEntity<List<CustomerDto>> getAllCustomers(@RequestHeader(value = "X-Username", required = false) String username,
+                                                             WebRequest webRequest) {
+        logger.info("username {}", username);
+        return customerService.withCustomersETag(stamp -> {
+            String eTag = collectionETag(stamp);
+            if (isNotModified(webRequest, eTag)) {
+                return null;
+            }
+            List<CustomerDto> customers = customerService.getAllCustomers();
+            return ResponseEntity.ok().eTag(eTag).body(customers);
+        });
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<CustomerPageDto> getCustomersPage(@RequestHeader(value = "X-Username", required = false) String username,
+                                                            @RequestParam int limit,
+                                                            @RequestParam(required = false) Long after,
+                                                            WebRequest webRequest) {
         logger.info("username {}", username);
-        List<CustomerDto> customers = customerService.getAllCustomers();
-        return ResponseEntity.ok(customers);
+        return customerService.withCustomersETag(stamp -> {
+            String eTag = collectionETag(stamp);
+            if (isNotModified(webRequest, eTag)) {
+                return null;
+            }
+            CustomerPageDto page = customerService.getCustomers(after, limit);
+            return ResponseEntity.ok().eTag(eTag).body(page);
+        });
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<CustomerLookupDto> getCustomersByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(customerService.lookupCustomers(ids));
+    }
+
+    @PostMapping("/lookup")
+    public ResponseEntity<CustomerLookupDto> lookupCustomers(@Valid @RequestBody CustomerLookupRequestDto request) {
+        return ResponseEntity.ok(customerService.lookupCustomers(request.getIds()));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CustomerPageDto> searchCustomers(@RequestParam(required = false) String email,
+                                                           @RequestParam(required = false) String phone,
+                                                           @RequestParam(required = false) String name,
+                                                           @RequestParam(required = false) Long after,
+                                                           @RequestParam(defaultValue = "50") int limit) {
+        CustomerPageDto page = customerService.searchCustomers(email, phone, name, after, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/search/names")
+    public ResponseEntity<CustomerNameSearchDto> searchNames(@RequestParam(required = false) String name,
+                                                             @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(customerNameSearchService.searchNames(name, limit));
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllCustomers(@RequestHeader(value = "X-Username", required = false) String username,
+                                                                    @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        logger.info("username {}", username);
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        StreamingResponseBody body = outputStream -> writeCustomers(outputStream, ndjson);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    private ResponseEntity<CustomerDto> withETag(CustomerDto customer) {
+        if (customer.version() == null) {
+            return ResponseEntity.ok(customer);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(customer.version())).body(customer);
+    }
+
+    // weak, so the servlet container may still gzip the body; a strong validator would have to differ per encoding
+    private static String collectionETag(String stamp) {
+        return stamp == null ? null : "W/\"" + stamp + "\"";
+    }
+
+    private boolean isNotModified(WebRequest webRequest, String eTag) {
+        return eTag != null && webRequest.checkNotModified(eTag);
+    }
+
+    static Long parseIfMatch(String ifMatch, Long id) {
+        String eTag = ifMatch.trim();
+        if (eTag.equals("*")) {
+            return null;
+        }
+        try {
+            if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+                return Long.parseLong(eTag.substring(1, eTag.length() - 1));
+            }
+        } catch (NumberFormatException ignored) {
+            // fall through, an ETag we never issued cannot match
+        }
+        throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current version of customer " + id);
+    }
+
+    private void writeCustomers(OutputStream outputStream, boolean ndjson) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(CustomerDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(null);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            customerService.streamAllCustomers(customer -> {
+                try {
+                    writer.writeValue(generator, customer);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
     }
 }
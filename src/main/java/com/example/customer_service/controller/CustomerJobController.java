@@ -0,0 +1,65 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.dto.CustomerJobDto;
+import com.example.customer_service.job.CustomerJobService;
+import com.example.customer_service.model.CustomerJobFormat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/customers/jobs")
+public class CustomerJobController {
+    private final CustomerJobService customerJobService;
+
+    @PostMapping(path = "/imports", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<CustomerJobDto> startImport(InputStream body,
+                                                      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        CustomerJobFormat format = CustomerJobFormat.CSV.mediaType().isCompatibleWith(contentType)
+                ? CustomerJobFormat.CSV : CustomerJobFormat.NDJSON;
+        return accepted(customerJobService.startImport(format, body));
+    }
+
+    @PostMapping("/exports")
+    public ResponseEntity<CustomerJobDto> startExport(@RequestParam(defaultValue = "NDJSON") CustomerJobFormat format) throws IOException {
+        return accepted(customerJobService.startExport(format));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CustomerJobDto> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(customerJobService.getJob(id));
+    }
+
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> getExportFile(@PathVariable Long id) {
+        return download(customerJobService.getExportFile(id));
+    }
+
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<Resource> getErrorReport(@PathVariable Long id) {
+        return download(customerJobService.getErrorReport(id));
+    }
+
+    private ResponseEntity<CustomerJobDto> accepted(CustomerJobDto job) {
+        return ResponseEntity.accepted().location(URI.create("/customers/jobs/" + job.id())).body(job);
+    }
+
+    private ResponseEntity<Resource> download(CustomerJobService.JobFile file) {
+        return ResponseEntity.ok()
+                .contentType(file.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(file.name()).build().toString())
+                .body(new FileSystemResource(file.path()));
+    }
+}
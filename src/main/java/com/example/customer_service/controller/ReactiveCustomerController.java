@@ -0,0 +1,158 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.BatchResultDto;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerLookupRequestDto;
+import com.example.customer_service.dto.CustomerNameSearchDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.PreconditionFailedException;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.service.ReactiveCustomerService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * The {@link CustomerController} endpoints on WebFlux, active when the application runs as a reactive
+ * web application (the {@code reactive} profile).
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/customers")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCustomerController {
+    private final ReactiveCustomerService customerService;
+
+    @PostMapping
+    public Mono<ResponseEntity<Void>> saveCustomer(@Valid @RequestBody CreateCustomerDto createCustomerDto,
+                                                   @RequestHeader(value = CustomerController.IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+                                                   @RequestHeader(value = "X-Username", required = false) String username) {
+        String key = idempotencyKey == null ? null : IdempotencyStore.scopedKey(username, idempotencyKey);
+        return customerService.saveCustomer(createCustomerDto, key).map(outcome -> {
+            ResponseEntity.HeadersBuilder<?> created = ResponseEntity.created(URI.create("/customers/" + outcome.result().id()));
+            if (idempotencyKey != null) {
+                created.header(CustomerController.IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()));
+            }
+            return created.build();
+        });
+    }
+
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BatchResultDto>> saveCustomers(@RequestBody Flux<CreateCustomerDto> body,
+                                                              @RequestParam(defaultValue = "CHUNKED") BatchMode mode) {
+        return customerService.createCustomers(body, mode).map(ResponseEntity::ok);
+    }
+
+    @PutMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BatchResultDto>> updateCustomers(@RequestBody Flux<UpdateCustomerDto> body,
+                                                                @RequestParam(defaultValue = "CHUNKED") BatchMode mode) {
+        return customerService.updateCustomers(body, mode).map(ResponseEntity::ok);
+    }
+
+    @DeleteMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Mono<ResponseEntity<BatchResultDto>> deleteCustomers(@RequestBody Flux<Long> body,
+                                                                @RequestParam(defaultValue = "CHUNKED") BatchMode mode) {
+        return customerService.deleteCustomers(body, mode).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<CustomerDto>> updateCustomer(@Valid @RequestBody UpdateCustomerDto updateCustomerDto,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            return customerService.updateCustomer(updateCustomerDto).map(this::withETag);
+        }
+        return Mono.fromCallable(() -> CustomerController.parseIfMatch(ifMatch, updateCustomerDto.getId()))
+                .flatMap(version -> {
+                    updateCustomerDto.setVersion(version);
+                    return customerService.updateCustomer(updateCustomerDto);
+                })
+                .onErrorMap(ConflictException.class, ex -> new PreconditionFailedException(ex.getMessage(), ex))
+                .map(this::withETag);
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteCustomer(@PathVariable Long id) {
+        return customerService.deleteCustomer(id).then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CustomerDto>> getCustomerById(@PathVariable Long id) {
+        // a matching If-None-Match turns this into a 304 without writing the body
+        return customerService.getCustomerById(id).map(this::withETag);
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<Flux<CustomerDto>>> getAllCustomers() {
+        // the body is only subscribed to, and the table only read, when the ETag did not match
+        return collectionETag().map(eTag -> ResponseEntity.ok().eTag(eTag).body(customerService.streamAllCustomers()));
+    }
+
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<CustomerPageDto>> getCustomersPage(@RequestParam int limit,
+                                                                  @RequestParam(required = false) Long after,
+                                                                  ServerWebExchange exchange) {
+        return collectionETag().flatMap(eTag -> exchange.checkNotModified(eTag)
+                ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<CustomerPageDto>build())
+                : customerService.getCustomers(after, limit).map(page -> ResponseEntity.ok().eTag(eTag).body(page)));
+    }
+
+    @GetMapping(params = "ids")
+    public Mono<ResponseEntity<CustomerLookupDto>> getCustomersByIds(@RequestParam List<Long> ids) {
+        return customerService.lookupCustomers(ids).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/lookup")
+    public Mono<ResponseEntity<CustomerLookupDto>> lookupCustomers(@Valid @RequestBody CustomerLookupRequestDto request) {
+        return customerService.lookupCustomers(request.getIds()).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<CustomerPageDto>> searchCustomers(@RequestParam(required = false) String email,
+                                                                 @RequestParam(required = false) String phone,
+                                                                 @RequestParam(required = false) String name,
+                                                                 @RequestParam(required = false) Long after,
+                                                                 @RequestParam(defaultValue = "50") int limit) {
+        return customerService.searchCustomers(email, phone, name, after, limit).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/search/names")
+    public Mono<ResponseEntity<CustomerNameSearchDto>> searchNames(@RequestParam(required = false) String name,
+                                                                   @RequestParam(defaultValue = "20") int limit) {
+        return customerService.searchNames(name, limit).map(ResponseEntity::ok);
+    }
+
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<Flux<CustomerDto>> streamAllCustomers(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        boolean ndjson = accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .body(customerService.streamAllCustomers());
+    }
+
+    private ResponseEntity<CustomerDto> withETag(CustomerDto customer) {
+        if (customer.version() == null) {
+            return ResponseEntity.ok(customer);
+        }
+        return ResponseEntity.ok().eTag(String.valueOf(customer.version())).body(customer);
+    }
+
+    private Mono<String> collectionETag() {
+        return customerService.getCustomersETag().map(eTag -> "W/\"" + eTag + "\"");
+    }
+}
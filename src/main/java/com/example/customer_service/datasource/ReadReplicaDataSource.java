@@ -0,0 +1,125 @@
+package com.example.customer_service.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Hands out read-only connections from a set of replicas in round-robin order. Replicas that fail a
+ * connection attempt or the periodic validity check are skipped until they pass again, and reads fall
+ * back to the primary when none is healthy or when the caller is pinned to it for read-your-writes.
+ */
+public class ReadReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(ReadReplicaDataSource.class);
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final BooleanSupplier pinnedToPrimary;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService healthChecks;
+
+    public ReadReplicaDataSource(DataSource primary, List<DataSource> replicas, BooleanSupplier pinnedToPrimary,
+                                 Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size())
+                .mapToObj(index -> new Replica(replicas.get(index), index))
+                .toList();
+        this.pinnedToPrimary = pinnedToPrimary;
+        if (healthCheckInterval == null || healthCheckInterval.isZero()) {
+            this.healthChecks = null;
+        } else {
+            this.healthChecks = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("replica-health-check").daemon().factory());
+            this.healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!this.replicas.isEmpty() && !this.pinnedToPrimary.getAsBoolean()) {
+            int start = Math.floorMod(this.next.getAndIncrement(), this.replicas.size());
+            for (int i = 0; i < this.replicas.size(); i++) {
+                Replica replica = this.replicas.get((start + i) % this.replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException ex) {
+                    markUnhealthy(replica, ex);
+                }
+            }
+        }
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Replica routing uses the credentials of the configured pools");
+    }
+
+    public void checkHealth() {
+        for (Replica replica : this.replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    if (!replica.healthy) {
+                        logger.info("Read replica {} is healthy again", replica.index);
+                    }
+                    replica.healthy = true;
+                } else {
+                    markUnhealthy(replica, null);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                markUnhealthy(replica, ex);
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        return (int) this.replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (this.healthChecks != null) {
+            this.healthChecks.shutdownNow();
+        }
+        for (Replica replica : this.replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private void markUnhealthy(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            logger.warn("Read replica {} is unavailable, routing reads elsewhere", replica.index, cause);
+        }
+        replica.healthy = false;
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private final int index;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource, int index) {
+            this.dataSource = dataSource;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.customer_service.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * Remembers which clients mutated data recently so their reads can be pinned to the primary until
+ * the replicas have had time to catch up. The client is bound to the current thread per request.
+ */
+public class ReadYourWritesTracker {
+    private final ThreadLocal<String> currentClient = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration window) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    public void bind(String client) {
+        this.currentClient.set(client);
+    }
+
+    public void clear() {
+        this.currentClient.remove();
+    }
+
+    public void recordWrite() {
+        String client = this.currentClient.get();
+        if (client != null) {
+            this.recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    public boolean isPinnedToPrimary() {
+        String client = this.currentClient.get();
+        return client != null && this.recentWriters.getIfPresent(client) != null;
+    }
+}
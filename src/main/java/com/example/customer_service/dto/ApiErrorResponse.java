@@ -1,5 +1,6 @@
 package com.example.customer_service.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -9,6 +10,7 @@ import java.util.Map;
 
 @Builder
 @Getter
+@JsonSerialize(using = ApiErrorResponseSerializer.class)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ApiErrorResponse {
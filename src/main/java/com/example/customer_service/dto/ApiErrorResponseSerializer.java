@@ -0,0 +1,56 @@
+package com.example.customer_service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Writes {@link ApiErrorResponse} with pre-encoded property names, like {@link CustomerDtoSerializer}
+ * does for customers; error bodies are the most frequent response under bot traffic. The output is
+ * identical to the default one.
+ */
+public class ApiErrorResponseSerializer extends StdSerializer<ApiErrorResponse> {
+    private static final SerializableString MESSAGE = new SerializedString("message");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString ERRORS = new SerializedString("errors");
+
+    public ApiErrorResponseSerializer() {
+        super(ApiErrorResponse.class);
+    }
+
+    @Override
+    public void serialize(ApiErrorResponse error, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(error);
+        writeString(generator, MESSAGE, error.getMessage());
+        generator.writeFieldName(STATUS);
+        generator.writeNumber(error.getStatus());
+        writeString(generator, TIMESTAMP, error.getTimestamp());
+        generator.writeFieldName(ERRORS);
+        if (error.getErrors() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeStartObject();
+            for (Map.Entry<String, String> fieldError : error.getErrors().entrySet()) {
+                generator.writeFieldName(fieldError.getKey());
+                generator.writeString(fieldError.getValue());
+            }
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString field, String value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
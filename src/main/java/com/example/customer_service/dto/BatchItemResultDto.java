@@ -0,0 +1,9 @@
+package com.example.customer_service.dto;
+
+public record BatchItemResultDto(
+        int index,
+        Long id,
+        boolean success,
+        String error
+) {
+}
@@ -0,0 +1,6 @@
+package com.example.customer_service.dto;
+
+public enum BatchMode {
+    ATOMIC,
+    CHUNKED
+}
@@ -0,0 +1,10 @@
+package com.example.customer_service.dto;
+
+import java.util.List;
+
+public record BatchResultDto(
+        int succeeded,
+        int failed,
+        List<BatchItemResultDto> items
+) {
+}
@@ -9,6 +9,7 @@ import lombok.*;
 @Setter
 @Getter
 @Builder
+@EqualsAndHashCode
 public class CreateCustomerDto {
     @NotBlank
     String name;
@@ -0,0 +1,14 @@
+package com.example.customer_service.dto;
+
+import com.example.customer_service.model.CustomerChangeType;
+
+import java.time.Instant;
+
+public record CustomerChangeDto(
+        long offset,
+        Long customerId,
+        CustomerChangeType type,
+        CustomerDto customer,
+        Instant occurredAt
+) {
+}
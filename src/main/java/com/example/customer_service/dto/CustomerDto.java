@@ -1,9 +1,16 @@
 package com.example.customer_service.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+@JsonSerialize(using = CustomerDtoSerializer.class)
 public record CustomerDto(
         Long id,
         String name,
         String email,
-        String phone
+        String phone,
+        Long version
 ) {
+    public CustomerDto(Long id, String name, String email, String phone) {
+        this(id, name, email, phone, null);
+    }
 }
@@ -0,0 +1,55 @@
+package com.example.customer_service.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes {@link CustomerDto} field by field with pre-encoded property names, skipping the
+ * bean-property lookup and per-field reflective accessor calls of the default record serializer.
+ * The output is identical to the default one.
+ */
+public class CustomerDtoSerializer extends StdSerializer<CustomerDto> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString PHONE = new SerializedString("phone");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    public CustomerDtoSerializer() {
+        super(CustomerDto.class);
+    }
+
+    @Override
+    public void serialize(CustomerDto customer, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(customer);
+        writeNumber(generator, ID, customer.id());
+        writeString(generator, NAME, customer.name());
+        writeString(generator, EMAIL, customer.email());
+        writeString(generator, PHONE, customer.phone());
+        writeNumber(generator, VERSION, customer.version());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializableString field, Long value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString field, String value) throws IOException {
+        generator.writeFieldName(field);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.customer_service.dto;
+
+public record CustomerImportErrorDto(
+        long row,
+        String error
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.customer_service.dto;
+
+/**
+ * A customer changed on another instance: {@code version} is its new version, {@code null} once deleted.
+ */
+public record CustomerInvalidationDto(
+        long id,
+        Long version
+) {
+}
@@ -0,0 +1,22 @@
+package com.example.customer_service.dto;
+
+import com.example.customer_service.model.CustomerJobFormat;
+import com.example.customer_service.model.CustomerJobStatus;
+import com.example.customer_service.model.CustomerJobType;
+
+import java.time.Instant;
+
+public record CustomerJobDto(
+        Long id,
+        CustomerJobType type,
+        CustomerJobFormat format,
+        CustomerJobStatus status,
+        long processed,
+        long succeeded,
+        long failed,
+        double progress,
+        String message,
+        Instant createdAt,
+        Instant updatedAt
+) {
+}
@@ -0,0 +1,19 @@
+package com.example.customer_service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Setter
+@Getter
+@Builder
+public class CustomerLookupRequestDto {
+    @NotEmpty
+    @Size(max = 1000)
+    List<@NotNull Long> ids;
+}
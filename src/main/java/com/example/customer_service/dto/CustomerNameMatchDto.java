@@ -0,0 +1,7 @@
+package com.example.customer_service.dto;
+
+public record CustomerNameMatchDto(
+        CustomerDto customer,
+        double score
+) {
+}
@@ -0,0 +1,8 @@
+package com.example.customer_service.dto;
+
+import java.util.List;
+
+public record CustomerNameSearchDto(
+        List<CustomerNameMatchDto> items
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.customer_service.dto;
+
+import java.util.List;
+
+public record CustomerPageDto(
+        List<CustomerDto> items,
+        Long nextCursor
+) {
+}
@@ -13,4 +13,6 @@ import lombok.Setter;
 public class UpdateCustomerDto extends CreateCustomerDto {
     @NotNull
     Long id;
+
+    Long version;
 }
@@ -0,0 +1,11 @@
+package com.example.customer_service.exception;
+
+public class BadRequestException extends ExpectedException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.customer_service.exception;
+
+public class ConflictException extends ExpectedException {
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public ConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
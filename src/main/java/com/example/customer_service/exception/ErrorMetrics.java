@@ -0,0 +1,26 @@
+package com.example.customer_service.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts failed requests in {@code customer.errors}, tagged by {@link ExpectedException#declaredType}, for
+ * both the HTTP and the gRPC error handling so the two report the same series.
+ */
+@Component
+@RequiredArgsConstructor
+public class ErrorMetrics {
+    private final MeterRegistry meterRegistry;
+    // resolving the counter from the registry builds its id and tags on every call
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+    public void count(Throwable ex) {
+        this.counters.computeIfAbsent(ExpectedException.declaredType(ex),
+                type -> this.meterRegistry.counter("customer.errors", "exception", type.getSimpleName())).increment();
+    }
+}
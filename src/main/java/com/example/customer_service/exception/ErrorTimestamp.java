@@ -0,0 +1,31 @@
+package com.example.customer_service.exception;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * The current local time as {@link LocalDateTime#toString()}, formatted at most once per millisecond
+ * however many error responses are built within it.
+ */
+final class ErrorTimestamp {
+    private final Clock clock;
+    private volatile Formatted latest = new Formatted(Long.MIN_VALUE, "");
+
+    ErrorTimestamp(Clock clock) {
+        this.clock = clock;
+    }
+
+    String now() {
+        long millis = clock.millis();
+        Formatted formatted = latest;
+        if (formatted.millis() != millis) {
+            formatted = new Formatted(millis, LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), clock.getZone()).toString());
+            latest = formatted;
+        }
+        return formatted.value();
+    }
+
+    private record Formatted(long millis, String value) {
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.customer_service.exception;
+
+/**
+ * Base for the outcomes a client can provoke at will, such as asking for an unknown id. They are only ever
+ * turned into an error response and never logged, so they skip filling in a stack trace; under bot traffic
+ * that walk is most of the cost of a 404.
+ */
+public abstract class ExpectedException extends RuntimeException {
+    protected ExpectedException(String message) {
+        super(message, null, false, false);
+    }
+
+    protected ExpectedException(String message, Throwable cause) {
+        super(message, cause, false, false);
+    }
+
+    /**
+     * The type an error is handled and counted as: the service exception it specializes, so that subclasses
+     * such as the lazily-messaged customer lookup are tagged like their parent, or its own type otherwise.
+     */
+    public static Class<?> declaredType(Throwable ex) {
+        Class<?> type = ex.getClass();
+        while (ExpectedException.class.isAssignableFrom(type.getSuperclass())
+                && type.getSuperclass() != ExpectedException.class) {
+            type = type.getSuperclass();
+        }
+        return type;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.customer_service.exception;
+
+public class ForbiddenException extends ExpectedException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
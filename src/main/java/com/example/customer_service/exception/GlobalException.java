@@ -1,38 +1,164 @@
 package com.example.customer_service.exception;
 
 import com.example.customer_service.dto.ApiErrorResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 
+import java.sql.SQLTransientConnectionException;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalException {
+    private static final String EMAIL_UNIQUE_INDEX = "ux_customers_email_normalized";
+    private static final Duration DATABASE_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Logger logger = LoggerFactory.getLogger(GlobalException.class);
+    private final ErrorMetrics errorMetrics;
+    private final ErrorTimestamp timestamp = new ErrorTimestamp(Clock.systemDefaultZone());
+
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<ApiErrorResponse> handleNotFoundException(NotFoundException ex) {
-        ApiErrorResponse errorResponse = ApiErrorResponse.builder()
-                .message(ex.getMessage())
-                .status(HttpStatus.NOT_FOUND.value())
-                .timestamp(java.time.LocalDateTime.now().toString())
-                .build();
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.NOT_FOUND, ex.getMessage());
         return ResponseEntity.status(404).body(errorResponse);
     }
 
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<ApiErrorResponse> handleValidation(MethodArgumentNotValidException ex) {
-        Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getFieldErrors()
-                .forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ApiErrorResponse> handleBadRequestException(BadRequestException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.BAD_REQUEST, ex.getMessage());
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
+
+    @ExceptionHandler(ForbiddenException.class)
+    public ResponseEntity<ApiErrorResponse> handleForbiddenException(ForbiddenException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.FORBIDDEN, ex.getMessage());
+        return ResponseEntity.status(403).body(errorResponse);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ApiErrorResponse> handleConflictException(ConflictException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.CONFLICT, ex.getMessage());
+        return ResponseEntity.status(409).body(errorResponse);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.CONFLICT, violates(ex, EMAIL_UNIQUE_INDEX)
+                ? "A customer with this email already exists"
+                : "The request conflicts with existing data");
+        return ResponseEntity.status(409).body(errorResponse);
+    }
+
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<ApiErrorResponse> handleGoneException(GoneException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.GONE, ex.getMessage());
+        return ResponseEntity.status(410).body(errorResponse);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+        return ResponseEntity.status(412).body(errorResponse);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        return ResponseEntity.status(429).header(HttpHeaders.RETRY_AFTER, retryAfter(ex.getRetryAfter())).body(errorResponse);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, retryAfter(ex.getRetryAfter())).body(errorResponse);
+    }
+
+    // no connection within the pool or concurrency limit timeout; like load shedding, the client may retry shortly
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ApiErrorResponse> handleDatabaseUnavailable(Exception ex) {
+        countError(ex);
+        if (!(NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLTransientConnectionException)) {
+            logger.error("Database unavailable", ex);
+        }
+        ApiErrorResponse errorResponse = error(HttpStatus.SERVICE_UNAVAILABLE, "The database is unavailable, retry later");
+        return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, retryAfter(DATABASE_RETRY_AFTER)).body(errorResponse);
+    }
+
+    @ExceptionHandler(NotImplementedException.class)
+    public ResponseEntity<ApiErrorResponse> handleNotImplementedException(NotImplementedException ex) {
+        countError(ex);
+        ApiErrorResponse errorResponse = error(HttpStatus.NOT_IMPLEMENTED, ex.getMessage());
+        return ResponseEntity.status(501).body(errorResponse);
+    }
+
+    @ExceptionHandler({MethodArgumentNotValidException.class, WebExchangeBindException.class})
+    public ResponseEntity<ApiErrorResponse> handleValidation(Exception ex) {
+        countError(ex);
+        BindingResult bindingResult = ex instanceof WebExchangeBindException bind
+                ? bind.getBindingResult() : ((MethodArgumentNotValidException) ex).getBindingResult();
+        List<FieldError> fieldErrors = bindingResult.getFieldErrors();
+        Map<String, String> errors = HashMap.newHashMap(fieldErrors.size());
+        for (FieldError error : fieldErrors) {
+            errors.put(error.getField(), error.getDefaultMessage());
+        }
         ApiErrorResponse apiError = ApiErrorResponse.builder()
                 .status(HttpStatus.BAD_REQUEST.value())
                 .message("Validation failed")
-                .timestamp(java.time.LocalDateTime.now().toString())
+                .timestamp(timestamp.now())
                 .errors(errors)
                 .build();
         return ResponseEntity.badRequest().body(apiError);
     }
+
+    // the driver message names the violated index on every database we run on; never echo it, it contains the row
+    private static boolean violates(DataIntegrityViolationException ex, String index) {
+        String message = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(index);
+    }
+
+    // Retry-After takes whole seconds, round up so a client retrying on time is admitted
+    private static String retryAfter(Duration retryAfter) {
+        long millis = retryAfter.toMillis();
+        return String.valueOf(Math.max(1, (millis + 999) / 1000));
+    }
+
+    private ApiErrorResponse error(HttpStatus status, String message) {
+        return ApiErrorResponse.builder()
+                .message(message)
+                .status(status.value())
+                .timestamp(timestamp.now())
+                .build();
+    }
+
+    private void countError(Exception ex) {
+        this.errorMetrics.count(ex);
+    }
 }
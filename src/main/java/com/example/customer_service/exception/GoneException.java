@@ -0,0 +1,7 @@
+package com.example.customer_service.exception;
+
+public class GoneException extends ExpectedException {
+    public GoneException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.example.customer_service.exception;
 
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends ExpectedException {
     public NotFoundException(String message) {
         super(message);
     }
@@ -8,4 +8,25 @@ public class NotFoundException extends RuntimeException {
     public NotFoundException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * For lookups that are turned away cheaply: the message is only built if the error is rendered.
+     */
+    public static NotFoundException customer(long id) {
+        return new CustomerNotFound(id);
+    }
+
+    private static final class CustomerNotFound extends NotFoundException {
+        private final long id;
+
+        private CustomerNotFound(long id) {
+            super(null);
+            this.id = id;
+        }
+
+        @Override
+        public String getMessage() {
+            return "Customer not found with id: " + this.id;
+        }
+    }
 }
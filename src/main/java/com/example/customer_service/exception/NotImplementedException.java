@@ -0,0 +1,7 @@
+package com.example.customer_service.exception;
+
+public class NotImplementedException extends ExpectedException {
+    public NotImplementedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.customer_service.exception;
+
+public class PreconditionFailedException extends ExpectedException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+
+    public PreconditionFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
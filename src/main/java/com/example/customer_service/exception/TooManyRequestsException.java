@@ -0,0 +1,16 @@
+package com.example.customer_service.exception;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends ExpectedException {
+    private final Duration retryAfter;
+
+    public TooManyRequestsException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.customer_service.grpc;
+
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.ErrorMetrics;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.exception.PreconditionFailedException;
+import com.example.customer_service.exception.ServiceUnavailableException;
+import com.example.customer_service.exception.TooManyRequestsException;
+import io.grpc.Context;
+import io.grpc.Contexts;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The gRPC counterpart of {@code GlobalException}: closes calls failing with one of the service
+ * exceptions with the matching status, and exposes the {@code x-username} header to the service.
+ */
+@RequiredArgsConstructor
+public class CustomerGrpcInterceptor implements ServerInterceptor {
+    static final Context.Key<String> CALLER = Context.key("caller");
+    private static final Metadata.Key<String> USERNAME = Metadata.Key.of("x-username", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final Logger logger = LoggerFactory.getLogger(CustomerGrpcInterceptor.class);
+    private final ErrorMetrics errorMetrics;
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        Context context = Context.current().withValue(CALLER, headers.get(USERNAME));
+        ServerCall.Listener<ReqT> listener = Contexts.interceptCall(context, call, headers, next);
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onHalfClose() {
+                try {
+                    super.onHalfClose();
+                } catch (RuntimeException ex) {
+                    close(call, ex);
+                }
+            }
+
+            // streaming responses are written from the ready callbacks
+            @Override
+            public void onReady() {
+                try {
+                    super.onReady();
+                } catch (RuntimeException ex) {
+                    close(call, ex);
+                }
+            }
+        };
+    }
+
+    private void close(ServerCall<?, ?> call, RuntimeException ex) {
+        errorMetrics.count(ex);
+        Status status = toStatus(ex);
+        if (status.getCode() == Status.Code.INTERNAL) {
+            logger.error("gRPC call {} failed", call.getMethodDescriptor().getFullMethodName(), ex);
+        }
+        call.close(status, new Metadata());
+    }
+
+    static Status toStatus(RuntimeException ex) {
+        Status status = switch (ex) {
+            case NotFoundException notFound -> Status.NOT_FOUND;
+            case BadRequestException badRequest -> Status.INVALID_ARGUMENT;
+            case PreconditionFailedException preconditionFailed -> Status.FAILED_PRECONDITION;
+            case ConflictException conflict -> Status.ALREADY_EXISTS;
+            case TooManyRequestsException tooManyRequests -> Status.RESOURCE_EXHAUSTED;
+            case ServiceUnavailableException unavailable -> Status.UNAVAILABLE;
+            default -> Status.INTERNAL.withDescription("Internal server error");
+        };
+        return status.getDescription() == null ? status.withDescription(ex.getMessage()) : status;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.customer_service.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the gRPC server on its own port, with calls handled on its own executor rather than the web
+ * server's, and drains in-flight calls on shutdown.
+ */
+public class CustomerGrpcServer implements SmartLifecycle {
+    private final Logger logger = LoggerFactory.getLogger(CustomerGrpcServer.class);
+    private final Server server;
+    private final ExecutorService executor;
+    private final Duration shutdownGracePeriod;
+    private volatile boolean running;
+
+    public CustomerGrpcServer(int port, ExecutorService executor, Duration shutdownGracePeriod,
+                              BindableService service, ServerInterceptor... interceptors) {
+        this.executor = executor;
+        this.shutdownGracePeriod = shutdownGracePeriod;
+        this.server = NettyServerBuilder.forPort(port)
+                .executor(executor)
+                .addService(ServerInterceptors.intercept(service, interceptors))
+                .build();
+    }
+
+    public int getPort() {
+        return server.getPort();
+    }
+
+    @Override
+    public void start() {
+        try {
+            server.start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not start the gRPC server", ex);
+        }
+        running = true;
+        logger.info("gRPC server started on port {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        server.shutdown();
+        try {
+            if (!server.awaitTermination(shutdownGracePeriod.toMillis(), TimeUnit.MILLISECONDS)) {
+                server.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            running = false;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.customer_service.grpc;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.exception.PreconditionFailedException;
+import com.example.customer_service.grpc.proto.CreateCustomerRequest;
+import com.example.customer_service.grpc.proto.CreateCustomerResponse;
+import com.example.customer_service.grpc.proto.Customer;
+import com.example.customer_service.grpc.proto.CustomerServiceGrpc;
+import com.example.customer_service.grpc.proto.DeleteCustomerRequest;
+import com.example.customer_service.grpc.proto.DeleteCustomerResponse;
+import com.example.customer_service.grpc.proto.GetCustomerRequest;
+import com.example.customer_service.grpc.proto.ListCustomersRequest;
+import com.example.customer_service.grpc.proto.LookupCustomersRequest;
+import com.example.customer_service.grpc.proto.LookupCustomersResponse;
+import com.example.customer_service.grpc.proto.UpdateCustomerRequest;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerService;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code CustomerController} operations over gRPC. Failures are thrown as the usual service
+ * exceptions and turned into statuses by {@link CustomerGrpcInterceptor}.
+ */
+@RequiredArgsConstructor
+public class CustomerGrpcService extends CustomerServiceGrpc.CustomerServiceImplBase {
+    private final CustomerService customerService;
+    private final CustomerIdFilter customerIdFilter;
+    private final IdempotencyStore idempotencyStore;
+    private final Validator validator;
+
+    @Override
+    public void getCustomer(GetCustomerRequest request, StreamObserver<Customer> responseObserver) {
+        if (!customerIdFilter.mightExist(request.getId())) {
+            throw NotFoundException.customer(request.getId());
+        }
+        complete(responseObserver, CustomerProtoMapper.toProto(customerService.getCustomerById(request.getId())));
+    }
+
+    @Override
+    public void lookupCustomers(LookupCustomersRequest request, StreamObserver<LookupCustomersResponse> responseObserver) {
+        complete(responseObserver, CustomerProtoMapper.toProto(customerService.lookupCustomers(request.getIdsList())));
+    }
+
+    @Override
+    public void createCustomer(CreateCustomerRequest request, StreamObserver<CreateCustomerResponse> responseObserver) {
+        CreateCustomerDto dto = validate(CustomerProtoMapper.toDto(request));
+        CustomerDto created;
+        boolean replayed = false;
+        if (request.hasIdempotencyKey()) {
+            IdempotencyStore.Outcome<CustomerDto> outcome = idempotencyStore.execute(
+                    IdempotencyStore.scopedKey(CustomerGrpcInterceptor.CALLER.get(), request.getIdempotencyKey()), dto,
+                    () -> customerService.saveCustomer(dto));
+            created = outcome.result();
+            replayed = outcome.replayed();
+        } else {
+            created = customerService.saveCustomer(dto);
+        }
+        complete(responseObserver, CreateCustomerResponse.newBuilder()
+                .setCustomer(CustomerProtoMapper.toProto(created))
+                .setReplayed(replayed)
+                .build());
+    }
+
+    @Override
+    public void updateCustomer(UpdateCustomerRequest request, StreamObserver<Customer> responseObserver) {
+        UpdateCustomerDto dto = validate(CustomerProtoMapper.toDto(request));
+        CustomerDto updated;
+        try {
+            updated = customerService.updateCustomer(dto);
+        } catch (ConflictException ex) {
+            if (dto.getVersion() == null) {
+                throw ex;
+            }
+            throw new PreconditionFailedException(ex.getMessage(), ex);
+        }
+        complete(responseObserver, CustomerProtoMapper.toProto(updated));
+    }
+
+    @Override
+    public void deleteCustomer(DeleteCustomerRequest request, StreamObserver<DeleteCustomerResponse> responseObserver) {
+        customerService.deleteCustomer(request.getId());
+        complete(responseObserver, DeleteCustomerResponse.getDefaultInstance());
+    }
+
+    @Override
+    public void listCustomers(ListCustomersRequest request, StreamObserver<Customer> responseObserver) {
+        ServerCallStreamObserver<Customer> call = (ServerCallStreamObserver<Customer>) responseObserver;
+        // a cancelled call just stops asking for pages
+        call.setOnCancelHandler(() -> {
+        });
+        call.setOnReadyHandler(new CustomerPager(call, request.getAfterId()));
+    }
+
+    private <T> T validate(T dto) {
+        Set<ConstraintViolation<T>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return dto;
+    }
+
+    private static <T> void complete(StreamObserver<T> responseObserver, T response) {
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+
+    /**
+     * Writes pages of customers while the client keeps up, so a slow reader holds one page in memory
+     * rather than the whole table.
+     */
+    private class CustomerPager implements Runnable {
+        private final ServerCallStreamObserver<Customer> call;
+        private Long after;
+        private Iterator<CustomerDto> page;
+        private boolean completed;
+
+        CustomerPager(ServerCallStreamObserver<Customer> call, long after) {
+            this.call = call;
+            this.after = after;
+        }
+
+        @Override
+        public void run() {
+            while (!completed && !call.isCancelled() && call.isReady()) {
+                if (page == null || !page.hasNext()) {
+                    if (after == null) {
+                        completed = true;
+                        call.onCompleted();
+                        return;
+                    }
+                    CustomerPageDto next = customerService.getCustomers(after, CustomerService.MAX_PAGE_SIZE);
+                    page = next.items().iterator();
+                    after = next.nextCursor();
+                    continue;
+                }
+                call.onNext(CustomerProtoMapper.toProto(page.next()));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.customer_service.grpc;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.grpc.proto.CreateCustomerRequest;
+import com.example.customer_service.grpc.proto.Customer;
+import com.example.customer_service.grpc.proto.LookupCustomersResponse;
+import com.example.customer_service.grpc.proto.UpdateCustomerRequest;
+
+/**
+ * Converts between the protobuf messages and the DTOs the REST API uses, so both run through the same
+ * service methods and validation. Unset proto3 strings arrive as {@code ""}; the service already treats
+ * blank fields of an update as unchanged.
+ */
+final class CustomerProtoMapper {
+
+    private CustomerProtoMapper() {
+    }
+
+    static Customer toProto(CustomerDto customer) {
+        Customer.Builder builder = Customer.newBuilder()
+                .setId(customer.id())
+                .setName(customer.name() == null ? "" : customer.name())
+                .setEmail(customer.email() == null ? "" : customer.email());
+        if (customer.phone() != null) {
+            builder.setPhone(customer.phone());
+        }
+        if (customer.version() != null) {
+            builder.setVersion(customer.version());
+        }
+        return builder.build();
+    }
+
+    static LookupCustomersResponse toProto(CustomerLookupDto lookup) {
+        LookupCustomersResponse.Builder builder = LookupCustomersResponse.newBuilder().addAllMissing(lookup.missing());
+        lookup.items().forEach(customer -> builder.addItems(toProto(customer)));
+        return builder.build();
+    }
+
+    static CreateCustomerDto toDto(CreateCustomerRequest request) {
+        return new CreateCustomerDto(request.getName(), request.getEmail(), request.hasPhone() ? request.getPhone() : null);
+    }
+
+    static UpdateCustomerDto toDto(UpdateCustomerRequest request) {
+        UpdateCustomerDto dto = new UpdateCustomerDto(request.getId(), request.hasVersion() ? request.getVersion() : null);
+        dto.setName(request.getName());
+        dto.setEmail(request.getEmail());
+        dto.setPhone(request.hasPhone() ? request.getPhone() : null);
+        return dto;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.customer_service.idempotency;
+
+import com.example.customer_service.exception.BadRequestException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of recent requests by idempotency key, so a client retrying a write gets the
+ * original result instead of writing again. A retry arriving while the first attempt is still running
+ * waits for it; a failed attempt is forgotten so it can be retried.
+ * <p>
+ * Keys are only remembered on the node that served the request, so a retry routed to another instance
+ * writes again. Clients needing exactly-once creates across instances must retry against the same node.
+ */
+@Component
+public class IdempotencyStore {
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${customer-service.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${customer-service.idempotency.ttl:24h}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Scopes a client-chosen key to its caller, so one caller's key never replays another caller's result.
+     */
+    public static String scopedKey(String caller, String key) {
+        if (caller == null || caller.isBlank()) {
+            throw new BadRequestException("Idempotency-Key requires a caller identity");
+        }
+        return caller + ":" + key;
+    }
+
+    /**
+     * Runs {@code action} once per key, comparing {@code request} with the one the key was first used for.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Outcome<T> execute(String key, Object request, Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        Entry entry = new Entry(request, new CompletableFuture<>());
+        Entry existing = this.entries.asMap().putIfAbsent(key, entry);
+        if (existing != null) {
+            if (!existing.request().equals(request)) {
+                throw new BadRequestException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            try {
+                return new Outcome<>((T) existing.result().join(), true);
+            } catch (CompletionException ex) {
+                throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+            }
+        }
+        try {
+            T result = action.get();
+            entry.result().complete(result);
+            return new Outcome<>(result, false);
+        } catch (RuntimeException ex) {
+            this.entries.asMap().remove(key, entry);
+            entry.result().completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    public record Outcome<T>(T result, boolean replayed) {
+    }
+
+    private record Entry(Object request, CompletableFuture<Object> result) {
+    }
+}
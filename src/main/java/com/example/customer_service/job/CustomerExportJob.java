@@ -0,0 +1,112 @@
+package com.example.customer_service.job;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.model.CustomerJob;
+import com.example.customer_service.model.CustomerJobFormat;
+import com.example.customer_service.model.CustomerJobProgress;
+import com.example.customer_service.respository.CustomerJobRepository;
+import com.example.customer_service.respository.CustomerRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports the customer table in id order from a single streaming cursor. Rows go through a fixed-size
+ * channel buffer and every chunk is forced to disk before its checkpoint records the file length and
+ * the last exported id, so a resumed export truncates the file to that length and continues after
+ * that id.
+ */
+@Component
+@RequiredArgsConstructor
+class CustomerExportJob {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CustomerRepository customerRepository;
+    private final CustomerJobRepository customerJobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${customer-service.jobs.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    void run(CustomerJob job, String owner, Path target) throws IOException {
+        TransactionTemplate checkpoints = new TransactionTemplate(transactionManager);
+        checkpoints.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        if (job.getTotalRows() == null) {
+            long total = this.customerRepository.count();
+            checkpoints.executeWithoutResult(status ->
+                    this.customerJobRepository.updateTotalRows(job.getId(), owner, total, Instant.now()));
+        }
+        TransactionTemplate cursor = new TransactionTemplate(transactionManager);
+        cursor.setReadOnly(true);
+        CustomerJobProgress start = job.getProgress();
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             Writer writer = new OutputStreamWriter(new ChannelOutputStream(out, BUFFER_SIZE), StandardCharsets.UTF_8);
+             JsonGenerator generator = this.objectMapper.createGenerator(writer)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            out.truncate(start.position());
+            out.position(start.position());
+            boolean csv = job.getFormat() == CustomerJobFormat.CSV;
+            if (csv && start.position() == 0) {
+                CsvFormat.write(writer, "id", "name", "email", "phone", "version");
+            }
+            cursor.executeWithoutResult(status -> {
+                try (Stream<CustomerDto> rows = this.customerRepository.streamDtosByIdGreaterThan(start.lastId())) {
+                    Iterator<CustomerDto> iterator = rows.iterator();
+                    long lastId = start.lastId();
+                    long written = start.processedRows();
+                    int pending = 0;
+                    while (iterator.hasNext()) {
+                        CustomerDto customer = iterator.next();
+                        if (csv) {
+                            CsvFormat.write(writer, String.valueOf(customer.id()), customer.name(), customer.email(),
+                                    customer.phone(), customer.version() == null ? null : String.valueOf(customer.version()));
+                        } else {
+                            generator.writeObject(customer);
+                            generator.writeRaw('\n');
+                        }
+                        lastId = customer.id();
+                        written++;
+                        if (++pending == chunkSize) {
+                            checkpoint(job.getId(), owner, out, writer, generator, lastId, written, checkpoints);
+                            pending = 0;
+                        }
+                    }
+                    checkpoint(job.getId(), owner, out, writer, generator, lastId, written, checkpoints);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+    }
+
+    private void checkpoint(Long jobId, String owner, FileChannel out, Writer writer, JsonGenerator generator,
+                            long lastId, long written, TransactionTemplate checkpoints) throws IOException {
+        generator.flush();
+        writer.flush();
+        out.force(false);
+        CustomerJobProgress progress = new CustomerJobProgress(out.position(), 0, lastId, written, written, 0);
+        Integer updated = checkpoints.execute(status ->
+                this.customerJobRepository.checkpoint(jobId, owner, progress, Instant.now()));
+        if (updated == null || updated == 0) {
+            throw new LeaseLostException(jobId);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.customer_service.job;
+
+import com.example.customer_service.dto.BatchItemResultDto;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerImportErrorDto;
+import com.example.customer_service.model.CustomerJob;
+import com.example.customer_service.model.CustomerJobFormat;
+import com.example.customer_service.model.CustomerJobProgress;
+import com.example.customer_service.respository.CustomerJobRepository;
+import com.example.customer_service.service.CustomerBatchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Imports a CSV or NDJSON file chunk by chunk. A chunk's inserts, its error report lines and the
+ * checkpoint commit together, so a resumed import neither skips nor repeats rows. When a chunk fails
+ * as a whole, typically on a duplicate email, it is retried row by row to find the offending rows.
+ */
+@Component
+@RequiredArgsConstructor
+class CustomerImportJob {
+    private static final List<String> COLUMNS = List.of("name", "email", "phone");
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final CustomerBatchService customerBatchService;
+    private final CustomerJobRepository customerJobRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${customer-service.jobs.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    void run(CustomerJob job, String owner, Path source, Path errorReport) throws IOException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CustomerJobProgress progress = job.getProgress();
+        boolean csv = job.getFormat() == CustomerJobFormat.CSV;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel errors = FileChannel.open(errorReport, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // drop error lines written by a chunk that never committed
+            errors.truncate(progress.errorsSize());
+            errors.position(progress.errorsSize());
+            RecordReader records = new RecordReader(in, 0, csv);
+            int[] columns = csv ? readHeader(records) : null;
+            if (progress.position() > records.position()) {
+                records = new RecordReader(in, progress.position(), csv);
+            }
+            long row = progress.processedRows();
+            while (true) {
+                List<Row> chunk = new ArrayList<>(chunkSize);
+                String record;
+                while (chunk.size() < chunkSize && (record = records.next()) != null) {
+                    if (!record.isBlank()) {
+                        chunk.add(parse(row++, record, records.position(), columns));
+                    }
+                }
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                progress = writeChunk(job.getId(), owner, chunk, progress, errors, transaction);
+            }
+        }
+    }
+
+    private CustomerJobProgress writeChunk(Long jobId, String owner, List<Row> chunk, CustomerJobProgress progress,
+                                           FileChannel errors, TransactionTemplate transaction) throws IOException {
+        try {
+            return transaction.execute(status -> commit(jobId, owner, chunk, progress, errors));
+        } catch (LeaseLostException | UncheckedIOException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            errors.truncate(progress.errorsSize());
+        }
+        CustomerJobProgress current = progress;
+        for (Row row : chunk) {
+            CustomerJobProgress before = current;
+            try {
+                current = transaction.execute(status -> commit(jobId, owner, List.of(row), before, errors));
+            } catch (LeaseLostException | UncheckedIOException ex) {
+                throw ex;
+            } catch (RuntimeException ex) {
+                errors.truncate(before.errorsSize());
+                Row failed = new Row(row.index(), row.end(), null, errorMessage(ex));
+                current = transaction.execute(status -> commit(jobId, owner, List.of(failed), before, errors));
+            }
+        }
+        return current;
+    }
+
+    private CustomerJobProgress commit(Long jobId, String owner, List<Row> rows, CustomerJobProgress progress,
+                                       FileChannel errors) {
+        List<CustomerImportErrorDto> failures = new ArrayList<>();
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.error() == null) {
+                valid.add(row);
+            } else {
+                failures.add(new CustomerImportErrorDto(row.index(), row.error()));
+            }
+        }
+        if (!valid.isEmpty()) {
+            List<BatchItemResultDto> results = this.customerBatchService.insertCustomers(
+                    valid.stream().map(Row::customer).toList());
+            for (BatchItemResultDto result : results) {
+                if (!result.success()) {
+                    failures.add(new CustomerImportErrorDto(valid.get(result.index()).index(), result.error()));
+                }
+            }
+        }
+        CustomerJobProgress next = new CustomerJobProgress(
+                rows.get(rows.size() - 1).end(),
+                append(errors, failures),
+                0,
+                progress.processedRows() + rows.size(),
+                progress.succeededRows() + rows.size() - failures.size(),
+                progress.failedRows() + failures.size());
+        if (this.customerJobRepository.checkpoint(jobId, owner, next, Instant.now()) == 0) {
+            throw new LeaseLostException(jobId);
+        }
+        return next;
+    }
+
+    private long append(FileChannel errors, List<CustomerImportErrorDto> failures) {
+        try {
+            failures.sort((a, b) -> Long.compare(a.row(), b.row()));
+            for (CustomerImportErrorDto failure : failures) {
+                ByteBuffer[] line = {ByteBuffer.wrap(this.objectMapper.writeValueAsBytes(failure)), ByteBuffer.wrap(NEWLINE)};
+                while (line[1].hasRemaining()) {
+                    errors.write(line);
+                }
+            }
+            if (!failures.isEmpty()) {
+                errors.force(false);
+            }
+            return errors.position();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Row parse(long index, String record, long end, int[] columns) {
+        if (columns == null) {
+            try {
+                return new Row(index, end, this.objectMapper.readValue(record, CreateCustomerDto.class), null);
+            } catch (JsonProcessingException ex) {
+                return new Row(index, end, null, "malformed JSON: " + ex.getOriginalMessage());
+            }
+        }
+        List<String> fields;
+        try {
+            fields = CsvFormat.parse(record);
+        } catch (IllegalArgumentException ex) {
+            return new Row(index, end, null, "malformed CSV: " + ex.getMessage());
+        }
+        if (fields.size() != columns.length) {
+            return new Row(index, end, null,
+                    "malformed CSV: expected " + columns.length + " fields but found " + fields.size());
+        }
+        String[] values = new String[COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] >= 0 && !fields.get(i).isEmpty()) {
+                values[columns[i]] = fields.get(i);
+            }
+        }
+        return new Row(index, end, new CreateCustomerDto(values[0], values[1], values[2]), null);
+    }
+
+    /**
+     * Maps each CSV column to its position in {@link #COLUMNS}, or -1 for columns that are ignored.
+     */
+    private static int[] readHeader(RecordReader records) throws IOException {
+        String header;
+        do {
+            header = records.next();
+        } while (header != null && header.isBlank());
+        if (header == null) {
+            return new int[0];
+        }
+        List<String> names = CsvFormat.parse(header);
+        int[] columns = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            columns[i] = COLUMNS.indexOf(names.get(i).strip().toLowerCase(Locale.ROOT));
+        }
+        for (String required : List.of("name", "email")) {
+            boolean present = false;
+            for (int column : columns) {
+                present |= column == COLUMNS.indexOf(required);
+            }
+            if (!present) {
+                throw new IllegalArgumentException("CSV header must contain a '" + required + "' column");
+            }
+        }
+        return columns;
+    }
+
+    private static String errorMessage(RuntimeException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private record Row(long index, long end, CreateCustomerDto customer, String error) {
+    }
+}
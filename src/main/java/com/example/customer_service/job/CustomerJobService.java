@@ -0,0 +1,238 @@
+package com.example.customer_service.job;
+
+import com.example.customer_service.dto.CustomerJobDto;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.exception.NotImplementedException;
+import com.example.customer_service.model.CustomerJob;
+import com.example.customer_service.model.CustomerJobFormat;
+import com.example.customer_service.model.CustomerJobProgress;
+import com.example.customer_service.model.CustomerJobStatus;
+import com.example.customer_service.model.CustomerJobType;
+import com.example.customer_service.respository.CustomerJobRepository;
+import com.example.customer_service.sharding.ShardedCustomerStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bulk import and export jobs in the background. A run claims its job with a lease that every
+ * checkpoint renews, so a job whose lease has expired, because its instance crashed or was stopped,
+ * is picked up again by the next poll and continues from its last checkpoint.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerJobService {
+    private final Logger logger = LoggerFactory.getLogger(CustomerJobService.class);
+    private final CustomerJobRepository customerJobRepository;
+    private final CustomerImportJob customerImportJob;
+    private final CustomerExportJob customerExportJob;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectProvider<ShardedCustomerStore> shardedCustomerStore;
+
+    private final ExecutorService runner = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown;
+
+    @Value("${customer-service.jobs.dir:${java.io.tmpdir}/customer-service-jobs}")
+    private Path dir;
+
+    @Value("${customer-service.jobs.lease:1m}")
+    private Duration lease = Duration.ofMinutes(1);
+
+    public CustomerJobDto startImport(CustomerJobFormat format, InputStream body) throws IOException {
+        requireUnsharded();
+        Files.createDirectories(dir);
+        Path upload = Files.createTempFile(dir, "upload-", ".tmp");
+        try {
+            long size = Files.copy(body, upload, StandardCopyOption.REPLACE_EXISTING);
+            // the job only becomes claimable once its file is in place
+            CustomerJob job = new TransactionTemplate(transactionManager).execute(status -> {
+                CustomerJob saved = this.customerJobRepository.saveAndFlush(newJob(CustomerJobType.IMPORT, format, size));
+                try {
+                    Files.move(upload, dataFile(saved), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return saved;
+            });
+            submit(job.getId());
+            return toDto(job);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public CustomerJobDto startExport(CustomerJobFormat format) throws IOException {
+        requireUnsharded();
+        Files.createDirectories(dir);
+        CustomerJob job = this.customerJobRepository.save(newJob(CustomerJobType.EXPORT, format, null));
+        submit(job.getId());
+        return toDto(job);
+    }
+
+    // jobs read and write the primary database through JPA, sharded customers live elsewhere
+    private void requireUnsharded() {
+        if (this.shardedCustomerStore.getIfAvailable() != null) {
+            throw new NotImplementedException("Import and export jobs are not supported while customers are sharded");
+        }
+    }
+
+    public CustomerJobDto getJob(Long id) {
+        return toDto(findJob(id));
+    }
+
+    public JobFile getExportFile(Long id) {
+        CustomerJob job = findJob(id);
+        if (job.getType() != CustomerJobType.EXPORT) {
+            throw new NotFoundException("Customer job " + id + " is not an export");
+        }
+        if (job.getStatus() != CustomerJobStatus.COMPLETED) {
+            throw new ConflictException("Customer job " + id + " is " + job.getStatus());
+        }
+        return new JobFile(dataFile(job), job.getFormat().mediaType(), "customers-" + id + "." + job.getFormat().extension());
+    }
+
+    public JobFile getErrorReport(Long id) {
+        CustomerJob job = findJob(id);
+        if (job.getType() != CustomerJobType.IMPORT) {
+            throw new NotFoundException("Customer job " + id + " is not an import");
+        }
+        Path report = errorReport(job);
+        if (!Files.exists(report)) {
+            throw new ConflictException("Customer job " + id + " has not started yet");
+        }
+        return new JobFile(report, MediaType.APPLICATION_NDJSON, "customers-" + id + "-errors.ndjson");
+    }
+
+    @Scheduled(fixedDelayString = "${customer-service.jobs.poll-interval:10s}")
+    public void resumeJobs() {
+        this.customerJobRepository.findClaimable(Instant.now().minus(lease)).forEach(this::submit);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        runner.shutdownNow();
+        runner.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void submit(Long id) {
+        if (!shuttingDown && running.add(id)) {
+            runner.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    running.remove(id);
+                }
+            });
+        }
+    }
+
+    private void run(Long id) {
+        String owner = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        Integer claimed = new TransactionTemplate(transactionManager).execute(status ->
+                this.customerJobRepository.claim(id, owner, now, now.minus(lease)));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        CustomerJob job = findJob(id);
+        logger.info("Running customer {} job {} from row {}", job.getType(), id, job.getProgress().processedRows());
+        try {
+            if (job.getType() == CustomerJobType.IMPORT) {
+                this.customerImportJob.run(job, owner, dataFile(job), errorReport(job));
+            } else {
+                this.customerExportJob.run(job, owner, dataFile(job));
+            }
+            finish(id, owner, CustomerJobStatus.COMPLETED, null);
+        } catch (LeaseLostException ex) {
+            logger.warn(ex.getMessage());
+        } catch (Exception ex) {
+            if (shuttingDown) {
+                logger.info("Customer job {} stopped by shutdown, it resumes from its last checkpoint", id);
+                return;
+            }
+            logger.error("Customer job {} failed", id, ex);
+            Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+            finish(id, owner, CustomerJobStatus.FAILED,
+                    cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        }
+    }
+
+    private void finish(Long id, String owner, CustomerJobStatus status, String message) {
+        String truncated = message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+        new TransactionTemplate(transactionManager).executeWithoutResult(transaction ->
+                this.customerJobRepository.finish(id, owner, status, truncated, Instant.now()));
+    }
+
+    private CustomerJob findJob(Long id) {
+        return this.customerJobRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Customer job not found with id: " + id));
+    }
+
+    Path dataFile(CustomerJob job) {
+        return dir.resolve("job-" + job.getId() + "." + job.getFormat().extension());
+    }
+
+    Path errorReport(CustomerJob job) {
+        return dir.resolve("job-" + job.getId() + "-errors.ndjson");
+    }
+
+    private static CustomerJob newJob(CustomerJobType type, CustomerJobFormat format, Long sourceSize) {
+        Instant now = Instant.now();
+        return CustomerJob.builder()
+                .type(type)
+                .format(format)
+                .status(CustomerJobStatus.PENDING)
+                .sourceSize(sourceSize)
+                .progress(CustomerJobProgress.NONE)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private static CustomerJobDto toDto(CustomerJob job) {
+        CustomerJobProgress progress = job.getProgress();
+        double fraction;
+        if (job.getStatus() == CustomerJobStatus.COMPLETED) {
+            fraction = 1.0;
+        } else if (job.getType() == CustomerJobType.IMPORT) {
+            fraction = job.getSourceSize() != null && job.getSourceSize() > 0
+                    ? (double) progress.position() / job.getSourceSize() : 0.0;
+        } else {
+            fraction = job.getTotalRows() != null && job.getTotalRows() > 0
+                    ? Math.min(1.0, (double) progress.processedRows() / job.getTotalRows()) : 0.0;
+        }
+        return new CustomerJobDto(job.getId(), job.getType(), job.getFormat(), job.getStatus(),
+                progress.processedRows(), progress.succeededRows(), progress.failedRows(), fraction,
+                job.getMessage(), job.getCreatedAt(), job.getUpdatedAt());
+    }
+
+    public record JobFile(Path path, MediaType mediaType, String name) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.customer_service.job;
+
+/**
+ * Thrown when a checkpoint finds that another run has claimed the job, which rolls back the chunk
+ * that was about to be committed.
+ */
+class LeaseLostException extends RuntimeException {
+    LeaseLostException(Long jobId) {
+        super("Lost the lease on customer job " + jobId);
+    }
+}
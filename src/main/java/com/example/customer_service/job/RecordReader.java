@@ -0,0 +1,68 @@
+package com.example.customer_service.job;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads newline-terminated records from a file channel and tracks the byte offset just past the last
+ * record returned, which is what import checkpoints store. In quoted mode a newline inside a
+ * double-quoted CSV field does not end the record.
+ */
+final class RecordReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final boolean quoted;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private long position;
+
+    RecordReader(FileChannel channel, long position, boolean quoted) throws IOException {
+        this.channel = channel;
+        this.quoted = quoted;
+        this.position = position;
+        channel.position(position);
+        buffer.flip();
+    }
+
+    /**
+     * Returns the next record without its line terminator, or {@code null} at the end of the file.
+     */
+    String next() throws IOException {
+        record.reset();
+        boolean inQuotes = false;
+        boolean read = false;
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                buffer.clear();
+                int n = channel.read(buffer);
+                buffer.flip();
+                if (n < 0) {
+                    return read ? decode() : null;
+                }
+            }
+            byte b = buffer.get();
+            position++;
+            read = true;
+            if (b == '\n' && !inQuotes) {
+                return decode();
+            }
+            if (quoted && b == '"') {
+                inQuotes = !inQuotes;
+            }
+            record.write(b);
+        }
+    }
+
+    long position() {
+        return position;
+    }
+
+    private String decode() {
+        String value = record.toString(StandardCharsets.UTF_8);
+        return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.customer_service.lookup;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over {@code long} keys. Bits are set with compare-and-set, so concurrent adds never lose
+ * each other's bits and lookups take no lock. {@link #mightContain} never returns {@code false} for a
+ * key that was added.
+ */
+public class LongBloomFilter {
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    public LongBloomFilter(long expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long keys = Math.max(expectedKeys, 1);
+        long bits = (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) >>> 6));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / keys * LN2));
+    }
+
+    /**
+     * Adds the key and returns whether any bit changed, that is whether the key was certainly new.
+     */
+    public boolean add(long key) {
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            changed |= setBit(Math.floorMod(hash1 + i * hash2, bitCount));
+        }
+        return changed;
+    }
+
+    public boolean mightContain(long key) {
+        long hash1 = mix(key);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        while (true) {
+            long word = words.get(index);
+            if ((word & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(index, word, word | mask)) {
+                return true;
+            }
+        }
+    }
+
+    // MurmurHash3 finalizer: sequential ids spread over the whole bit array
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
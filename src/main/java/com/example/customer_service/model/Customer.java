@@ -2,9 +2,19 @@ package com.example.customer_service.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CurrentTimestamp;
+import org.hibernate.annotations.SourceType;
+
+import java.time.Instant;
+import java.util.Locale;
 
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        @Index(name = "ux_customers_email_normalized", columnList = "email_normalized", unique = true),
+        @Index(name = "ix_customers_phone_normalized", columnList = "phone_normalized"),
+        @Index(name = "ix_customers_name_lower", columnList = "name_lower"),
+        @Index(name = "ix_customers_last_modified", columnList = "last_modified")
+})
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
@@ -12,9 +22,60 @@ import lombok.*;
 @Setter
 public class Customer {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String email;
     private String phone;
+    @Version
+    private Long version;
+
+    // stamped by the database, so the collection ETag does not depend on the clocks of the instances
+    @Setter(AccessLevel.NONE)
+    @CurrentTimestamp(source = SourceType.DB)
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "name_lower")
+    private String nameLower;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_normalized")
+    private String emailNormalized;
+
+    @Setter(AccessLevel.NONE)
+    @Column(name = "phone_normalized")
+    private String phoneNormalized;
+
+    @PrePersist
+    @PreUpdate
+    void beforeWrite() {
+        this.nameLower = normalizeName(this.name);
+        this.emailNormalized = normalizeEmail(this.email);
+        this.phoneNormalized = normalizePhone(this.phone);
+    }
+
+    public static String normalizeName(String name) {
+        return name == null ? null : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (Character.isDigit(c) || (c == '+' && digits.isEmpty())) {
+                digits.append(c);
+            }
+        }
+        return digits.isEmpty() ? null : digits.toString();
+    }
 }
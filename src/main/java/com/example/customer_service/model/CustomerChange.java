@@ -0,0 +1,41 @@
+package com.example.customer_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "customer_changes", indexes = {
+        @Index(name = "ux_customer_changes_offset", columnList = "change_offset", unique = true),
+        @Index(name = "ix_customer_changes_customer_id", columnList = "customer_id"),
+        @Index(name = "ix_customer_changes_occurred_at", columnList = "occurred_at")
+})
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+public class CustomerChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_changes_seq")
+    @SequenceGenerator(name = "customer_changes_seq", sequenceName = "customer_changes_seq", allocationSize = 50)
+    private Long id;
+
+    // assigned by the relay after commit, so offsets are visible to consumers in order
+    @Column(name = "change_offset")
+    private Long changeOffset;
+
+    @Column(name = "customer_id", nullable = false)
+    private Long customerId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CustomerChangeType type;
+
+    @Column(length = 4000)
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+}
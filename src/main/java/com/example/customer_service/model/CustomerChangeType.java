@@ -0,0 +1,7 @@
+package com.example.customer_service.model;
+
+public enum CustomerChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,54 @@
+package com.example.customer_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "customer_jobs", indexes = @Index(name = "ix_customer_jobs_status", columnList = "status"))
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+@Setter
+public class CustomerJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_jobs_seq")
+    @SequenceGenerator(name = "customer_jobs_seq", sequenceName = "customer_jobs_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CustomerJobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CustomerJobFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CustomerJobStatus status;
+
+    @Column(name = "source_size")
+    private Long sourceSize;
+
+    @Column(name = "total_rows")
+    private Long totalRows;
+
+    // random token of the run that currently holds the lease
+    @Column(length = 36)
+    private String owner;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Embedded
+    private CustomerJobProgress progress;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
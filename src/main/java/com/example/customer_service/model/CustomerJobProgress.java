@@ -0,0 +1,21 @@
+package com.example.customer_service.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Checkpoint of a bulk job. Imports store the byte offset of the next unread record in
+ * {@code position}; exports store the length of the file written so far and the last exported id.
+ * {@code errorsSize} is the committed length of the error report, anything past it is discarded on resume.
+ */
+@Embeddable
+public record CustomerJobProgress(
+        @Column(name = "position", nullable = false) long position,
+        @Column(name = "errors_size", nullable = false) long errorsSize,
+        @Column(name = "last_id", nullable = false) long lastId,
+        @Column(name = "processed_rows", nullable = false) long processedRows,
+        @Column(name = "succeeded_rows", nullable = false) long succeededRows,
+        @Column(name = "failed_rows", nullable = false) long failedRows
+) {
+    public static final CustomerJobProgress NONE = new CustomerJobProgress(0, 0, 0, 0, 0, 0);
+}
@@ -0,0 +1,8 @@
+package com.example.customer_service.model;
+
+public enum CustomerJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
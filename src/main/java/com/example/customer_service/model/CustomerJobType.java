@@ -0,0 +1,6 @@
+package com.example.customer_service.model;
+
+public enum CustomerJobType {
+    IMPORT,
+    EXPORT
+}
@@ -0,0 +1,113 @@
+package com.example.customer_service.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrency limit that follows latency, like a gradient limiter: while the average latency of a
+ * window stays within {@code tolerance} times the best latency seen, the limit probes upwards whenever
+ * it was actually reached; once queueing pushes latency past that, the limit shrinks in proportion, so
+ * excess requests are turned away before latency collapses. Admission is a CAS on the in-flight count
+ * and the limit is recomputed once per window by the request that closes it.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final int MIN_SAMPLES = 10;
+    private static final double SMOOTHING = 0.2;
+    // lets the baseline follow a lasting shift in latency, about 1% of the gap per window
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final double tolerance;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile double limit;
+    private volatile double baselineNanos = Double.NaN;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration window, double tolerance) {
+        this(initialLimit, minLimit, maxLimit, window, tolerance, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration window, double tolerance,
+                               LongSupplier clock) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = window.toNanos();
+        this.tolerance = tolerance;
+        this.clock = clock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.windowStart = new AtomicLong(clock.getAsLong());
+    }
+
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        peakInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    /**
+     * Releases a permit and feeds the request latency into the current window.
+     */
+    public void release(long latency) {
+        inFlight.decrementAndGet();
+        latencyNanos.add(latency);
+        samples.increment();
+        long now = clock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            updateLimit();
+        }
+    }
+
+    /**
+     * Releases a permit without a latency sample, for requests handed off to asynchronous processing.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit() {
+        long count = samples.sumThenReset();
+        long total = latencyNanos.sumThenReset();
+        int peak = peakInFlight.getAndSet(inFlight.get());
+        if (count < MIN_SAMPLES) {
+            return;
+        }
+        double average = (double) total / count;
+        double baseline = baselineNanos;
+        baseline = Double.isNaN(baseline) || average < baseline
+                ? average : baseline + (average - baseline) * BASELINE_DRIFT;
+        baselineNanos = baseline;
+
+        double current = limit;
+        double gradient = Math.clamp(tolerance * baseline / average, 0.5, 1.0);
+        double target = current * gradient;
+        if (peak >= (int) current) {
+            target += Math.sqrt(current);
+        }
+        limit = Math.clamp(current + (target - current) * SMOOTHING, minLimit, maxLimit);
+    }
+}
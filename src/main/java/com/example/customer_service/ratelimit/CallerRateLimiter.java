@@ -0,0 +1,39 @@
+package com.example.customer_service.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * One token bucket per caller. Buckets expire once they would have refilled anyway, which keeps the
+ * map bounded by the callers active within one refill period without ever resetting a drained bucket.
+ */
+public class CallerRateLimiter {
+    private final String name;
+    private final int capacity;
+    private final double refillPerSecond;
+    private final Cache<String, TokenBucket> buckets;
+
+    public CallerRateLimiter(String name, int capacity, double refillPerSecond) {
+        this.name = name;
+        this.capacity = capacity;
+        this.refillPerSecond = refillPerSecond;
+        long refillNanos = new TokenBucket(capacity, refillPerSecond).refillNanos();
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofNanos(refillNanos).plusSeconds(1))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Takes a token from the caller's bucket and returns 0, or returns the nanoseconds until one is available.
+     */
+    public long tryAcquire(String caller) {
+        return this.buckets.get(caller, key -> new TokenBucket(capacity, refillPerSecond)).tryAcquire();
+    }
+
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.customer_service.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket in its GCRA form: the whole state is the theoretical arrival time of the next request,
+ * held in one {@link AtomicLong} and advanced with a CAS, so acquiring a token never takes a lock.
+ */
+public final class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        this(capacity, refillPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(int capacity, double refillPerSecond, LongSupplier clock) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be at least 1 and refill rate positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = this.emissionIntervalNanos * capacity;
+        this.clock = clock;
+        this.theoreticalArrival = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Takes a token and returns 0, or returns the nanoseconds until a token will be available.
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = clock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + emissionIntervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Time an idle bucket needs to refill completely; after that it is indistinguishable from a new one.
+     */
+    public long refillNanos() {
+        return burstNanos;
+    }
+}
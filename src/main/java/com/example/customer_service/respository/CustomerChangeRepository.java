@@ -0,0 +1,54 @@
+package com.example.customer_service.respository;
+
+import com.example.customer_service.model.CustomerChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CustomerChangeRepository extends JpaRepository<CustomerChange, Long> {
+    List<CustomerChange> findByChangeOffsetGreaterThanOrderByChangeOffsetAsc(Long offset, Limit limit);
+
+    List<CustomerChange> findByChangeOffsetIsNullOrderByIdAsc(Limit limit);
+
+    @Query("select coalesce(max(c.changeOffset), 0) from CustomerChange c")
+    long findMaxOffset();
+
+    @Query(value = "select last_offset from customer_change_relay where id = 1 for update", nativeQuery = true)
+    long lockRelayOffset();
+
+    @Query(value = "select last_offset from customer_change_relay where id = 1", nativeQuery = true)
+    long findRelayOffset();
+
+    @Modifying
+    @Query(value = "update customer_change_relay set last_offset = :offset where id = 1", nativeQuery = true)
+    int updateRelayOffset(long offset);
+
+    @Query(value = "select compacted_through from customer_change_relay where id = 1", nativeQuery = true)
+    long findCompactedThrough();
+
+    @Modifying
+    @Query(value = "update customer_change_relay set compacted_through = greatest(compacted_through, :offset) where id = 1",
+            nativeQuery = true)
+    int raiseCompactedThrough(long offset);
+
+    @Query("select coalesce(max(c.changeOffset), 0) from CustomerChange c where c.occurredAt < :cutoff and c.changeOffset is not null")
+    long findMaxOffsetOlderThan(Instant cutoff);
+
+    @Modifying
+    @Query("delete from CustomerChange c where c.occurredAt < :cutoff and c.changeOffset is not null")
+    int deleteOlderThan(Instant cutoff);
+
+    @Modifying
+    @Query("""
+            delete from CustomerChange c
+            where c.occurredAt < :cutoff
+              and c.changeOffset < (select max(l.changeOffset) from CustomerChange l where l.customerId = c.customerId)
+            """)
+    int deleteSupersededOlderThan(Instant cutoff);
+}
@@ -0,0 +1,48 @@
+package com.example.customer_service.respository;
+
+import com.example.customer_service.model.CustomerJob;
+import com.example.customer_service.model.CustomerJobProgress;
+import com.example.customer_service.model.CustomerJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CustomerJobRepository extends JpaRepository<CustomerJob, Long> {
+    @Query("""
+            select j.id from CustomerJob j
+            where j.status = com.example.customer_service.model.CustomerJobStatus.PENDING
+               or (j.status = com.example.customer_service.model.CustomerJobStatus.RUNNING and j.updatedAt < :staleBefore)
+            order by j.id
+            """)
+    List<Long> findClaimable(Instant staleBefore);
+
+    @Modifying
+    @Query("""
+            update CustomerJob j
+            set j.status = com.example.customer_service.model.CustomerJobStatus.RUNNING, j.owner = :owner, j.updatedAt = :now
+            where j.id = :id
+              and (j.status = com.example.customer_service.model.CustomerJobStatus.PENDING
+                   or (j.status = com.example.customer_service.model.CustomerJobStatus.RUNNING and j.updatedAt < :staleBefore))
+            """)
+    int claim(Long id, String owner, Instant now, Instant staleBefore);
+
+    @Modifying
+    @Query("update CustomerJob j set j.progress = :progress, j.updatedAt = :now where j.id = :id and j.owner = :owner")
+    int checkpoint(Long id, String owner, CustomerJobProgress progress, Instant now);
+
+    @Modifying
+    @Query("update CustomerJob j set j.totalRows = :totalRows, j.updatedAt = :now where j.id = :id and j.owner = :owner")
+    int updateTotalRows(Long id, String owner, long totalRows, Instant now);
+
+    @Modifying
+    @Query("""
+            update CustomerJob j set j.status = :status, j.message = :message, j.owner = null, j.updatedAt = :now
+            where j.id = :id and j.owner = :owner
+            """)
+    int finish(Long id, String owner, CustomerJobStatus status, String message, Instant now);
+}
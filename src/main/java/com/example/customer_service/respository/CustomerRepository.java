@@ -1,9 +1,56 @@
 package com.example.customer_service.respository;
 
+import com.example.customer_service.dto.CustomerDto;
 import com.example.customer_service.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Long> {
+public interface CustomerRepository extends JpaRepository<Customer, Long>, JpaSpecificationExecutor<Customer>,
+        CustomerRepositoryCustom {
+    String DTO_SELECT = "select new com.example.customer_service.dto.CustomerDto(c.id, c.name, c.email, c.phone, c.version) from Customer c";
+
+    @Query(DTO_SELECT + " order by c.id")
+    List<CustomerDto> findAllDtos();
+
+    @Query(DTO_SELECT + " where c.id > :after order by c.id")
+    List<CustomerDto> findDtosByIdGreaterThan(Long after, Limit limit);
+
+    @Query(DTO_SELECT + " where c.id in :ids")
+    List<CustomerDto> findDtosByIdIn(Collection<Long> ids);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Customer> findAllByOrderByLastModifiedDesc(Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(DTO_SELECT + " order by c.id")
+    Stream<CustomerDto> streamAllDtosOrderById();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(DTO_SELECT + " where c.id > :after order by c.id")
+    Stream<CustomerDto> streamDtosByIdGreaterThan(Long after);
+
+    @Query("select c.id from Customer c where c.id in :ids")
+    List<Long> findExistingIds(Collection<Long> ids);
+
+    @Query("select new com.example.customer_service.respository.CustomerTableStamp(count(c), max(c.lastModified)) from Customer c")
+    CustomerTableStamp findTableStamp();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Customer c where c.id = :id")
+    int deleteRowById(Long id);
 }
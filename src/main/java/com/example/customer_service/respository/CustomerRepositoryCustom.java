@@ -0,0 +1,5 @@
+package com.example.customer_service.respository;
+
+public interface CustomerRepositoryCustom {
+    int updateNonBlankFields(Long id, Long expectedVersion, String name, String email, String phone);
+}
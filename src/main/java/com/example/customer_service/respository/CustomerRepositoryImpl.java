@@ -0,0 +1,55 @@
+package com.example.customer_service.respository;
+
+import com.example.customer_service.model.Customer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+
+import java.time.Instant;
+
+@RequiredArgsConstructor
+public class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateNonBlankFields(Long id, Long expectedVersion, String name, String email, String phone) {
+        HibernateCriteriaBuilder cb = this.entityManager.unwrap(Session.class).getCriteriaBuilder();
+        CriteriaUpdate<Customer> update = cb.createCriteriaUpdate(Customer.class);
+        Root<Customer> root = update.from(Customer.class);
+        if (setIfNotBlank(update, root, "name", name)) {
+            update.set(root.<String>get("nameLower"), Customer.normalizeName(name));
+        }
+        if (setIfNotBlank(update, root, "email", email)) {
+            update.set(root.<String>get("emailNormalized"), Customer.normalizeEmail(email));
+        }
+        if (setIfNotBlank(update, root, "phone", phone)) {
+            update.set(root.<String>get("phoneNormalized"), Customer.normalizePhone(phone));
+        }
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), 1L));
+        update.set(root.<Instant>get("lastModified"), cb.currentInstant());
+
+        Predicate where = cb.equal(root.get("id"), id);
+        if (expectedVersion != null) {
+            where = cb.and(where, cb.equal(root.get("version"), expectedVersion));
+        }
+        update.where(where);
+
+        this.entityManager.flush();
+        int updated = this.entityManager.createQuery(update).executeUpdate();
+        // the bulk update bypasses the persistence context, so drop any stale copies
+        this.entityManager.clear();
+        return updated;
+    }
+
+    private boolean setIfNotBlank(CriteriaUpdate<Customer> update, Root<Customer> root, String attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return false;
+        }
+        update.set(root.<String>get(attribute), value);
+        return true;
+    }
+}
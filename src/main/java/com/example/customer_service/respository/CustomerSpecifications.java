@@ -0,0 +1,31 @@
+package com.example.customer_service.respository;
+
+import com.example.customer_service.model.Customer;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class CustomerSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private CustomerSpecifications() {
+    }
+
+    public static Specification<Customer> idGreaterThan(Long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), id);
+    }
+
+    public static Specification<Customer> emailNormalizedEquals(String emailNormalized) {
+        return (root, query, cb) -> cb.equal(root.get("emailNormalized"), emailNormalized);
+    }
+
+    public static Specification<Customer> phoneNormalizedEquals(String phoneNormalized) {
+        return (root, query, cb) -> cb.equal(root.get("phoneNormalized"), phoneNormalized);
+    }
+
+    public static Specification<Customer> nameLowerStartsWith(String prefix) {
+        return (root, query, cb) -> cb.like(root.get("nameLower"), escapeLike(prefix) + "%", LIKE_ESCAPE);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.customer_service.respository;
+
+import java.time.Instant;
+
+public record CustomerTableStamp(
+        long count,
+        Instant lastModified
+) {
+}
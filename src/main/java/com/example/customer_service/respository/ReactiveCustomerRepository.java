@@ -0,0 +1,79 @@
+package com.example.customer_service.respository;
+
+import com.example.customer_service.dto.CustomerDto;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * Customer reads over R2DBC for the reactive stack. Rows are mapped straight into {@link CustomerDto},
+ * and {@link #streamAll()} emits them as the subscriber requests them instead of materializing the table.
+ */
+public class ReactiveCustomerRepository implements AutoCloseable {
+    private static final String DTO_SELECT = "select id, name, email, phone, version from customers";
+
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveCustomerRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = DatabaseClient.create(connectionFactory);
+    }
+
+    public Mono<CustomerDto> findById(long id) {
+        return this.databaseClient.sql(DTO_SELECT + " where id = :id")
+                .bind("id", id)
+                .map(ReactiveCustomerRepository::toDto)
+                .one();
+    }
+
+    public Flux<CustomerDto> findAllById(Collection<Long> ids) {
+        return this.databaseClient.sql(DTO_SELECT + " where id in (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveCustomerRepository::toDto)
+                .all();
+    }
+
+    public Flux<CustomerDto> findByIdGreaterThan(long after, int limit) {
+        return this.databaseClient.sql(DTO_SELECT + " where id > :after order by id limit :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveCustomerRepository::toDto)
+                .all();
+    }
+
+    public Flux<CustomerDto> streamAll() {
+        return this.databaseClient.sql(DTO_SELECT + " order by id")
+                .map(ReactiveCustomerRepository::toDto)
+                .all();
+    }
+
+    public Mono<CustomerTableStamp> findTableStamp() {
+        return this.databaseClient.sql("select count(*) as row_count, max(last_modified) as last_modified from customers")
+                .map(row -> {
+                    OffsetDateTime lastModified = row.get("last_modified", OffsetDateTime.class);
+                    Instant instant = lastModified == null ? null : lastModified.toInstant();
+                    return new CustomerTableStamp(row.get("row_count", Long.class), instant);
+                })
+                .one();
+    }
+
+    @Override
+    public void close() {
+        if (this.connectionFactory instanceof Disposable pool) {
+            pool.dispose();
+        }
+    }
+
+    private static CustomerDto toDto(Readable row) {
+        return new CustomerDto(row.get("id", Long.class), row.get("name", String.class), row.get("email", String.class),
+                row.get("phone", String.class), row.get("version", Long.class));
+    }
+}
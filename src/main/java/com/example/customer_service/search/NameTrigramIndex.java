@@ -0,0 +1,337 @@
+package com.example.customer_service.search;
+
+import com.example.customer_service.model.Customer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over customer names for ranked, typo-tolerant search.
+ * <p>
+ * Every indexed name gets a document ordinal, and each trigram keeps a sorted {@code int[]} posting
+ * list of ordinals. A re-indexed or removed name only tombstones its old ordinal, so posting lists
+ * only ever grow at the end; tombstones are dropped in one pass once they outnumber the live names.
+ * A query that must share {@code m} of its {@code n} trigrams with a name only counts over its
+ * {@code n - m + 1} shortest posting lists and probes the longer, common ones by binary search.
+ */
+public class NameTrigramIndex {
+    /** Best match first: most of the query found, then closest in length, then lowest id. */
+    public static final Comparator<Match> RANKING = Comparator.comparingDouble(Match::score).reversed()
+            .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+            .thenComparingLong(Match::id);
+
+    private static final long[] NO_TRIGRAMS = new long[0];
+    private static final int INITIAL_CAPACITY = 1024;
+    // at most two trigrams per character, so per-name counts fit in an unsigned byte
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    // per-ordinal count arrays reused across queries; collect leaves every entry it touched at zero. Pooled
+    // rather than per thread, as searches may run on virtual threads, and capped so a burst is not retained
+    private final BlockingQueue<byte[]> scratch = new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+    private IdOrdinals ordinals = new IdOrdinals(INITIAL_CAPACITY);
+    private long[] ids = new long[INITIAL_CAPACITY];
+    // distinct trigrams of the name at each ordinal; 0 marks a tombstone
+    private int[] trigramCounts = new int[INITIAL_CAPACITY];
+    private int nextOrdinal;
+    private int live;
+
+    /**
+     * A name matching a query. {@code score} is the share of the query's trigrams found in the name,
+     * {@code similarity} the Jaccard similarity of both trigram sets.
+     */
+    public record Match(long id, double score, double similarity) {
+    }
+
+    public void put(long id, String name) {
+        long[] trigrams = trigrams(name);
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+            if (trigrams.length > 0) {
+                int ordinal = nextOrdinal++;
+                if (ordinal == ids.length) {
+                    ids = Arrays.copyOf(ids, ordinal * 2);
+                    trigramCounts = Arrays.copyOf(trigramCounts, ordinal * 2);
+                }
+                ids[ordinal] = id;
+                trigramCounts[ordinal] = trigrams.length;
+                for (long trigram : trigrams) {
+                    postings.computeIfAbsent(trigram, key -> new Postings()).add(ordinal);
+                }
+                ordinals.put(id, ordinal);
+                live++;
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            tombstone(id);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} names sharing at least {@code minScore} of the query's trigrams,
+     * ordered by {@link #RANKING}.
+     */
+    public List<Match> search(String query, int limit, double minScore) {
+        long[] trigrams = trigrams(query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+        if (trigrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int minShared = Math.max(1, (int) Math.ceil(minScore * trigrams.length));
+        PriorityQueue<Match> top;
+        lock.readLock().lock();
+        try {
+            Postings[] lists = new Postings[trigrams.length];
+            for (int i = 0; i < trigrams.length; i++) {
+                lists[i] = postings.getOrDefault(trigrams[i], Postings.EMPTY);
+            }
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            top = collect(lists, minShared, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Match> matches = new ArrayList<>(top);
+        matches.sort(RANKING);
+        return matches;
+    }
+
+    // lists are sorted by size; every name sharing minShared trigrams is in one of the first n - minShared + 1
+    private PriorityQueue<Match> collect(Postings[] lists, int minShared, int limit) {
+        PriorityQueue<Match> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        int merged = lists.length - minShared + 1;
+        byte[] counts = scratch.poll();
+        if (counts == null || counts.length < nextOrdinal) {
+            counts = new byte[ids.length];
+        }
+        for (int i = 0; i < merged; i++) {
+            for (int p = 0; p < lists[i].size; p++) {
+                counts[lists[i].ordinals[p]]++;
+            }
+        }
+        // rarest lists first, so the best candidates fill the top early and raise the bar for the rest
+        int needed = minShared;
+        for (int i = 0; i < merged; i++) {
+            for (int p = 0; p < lists[i].size; p++) {
+                int ordinal = lists[i].ordinals[p];
+                int shared = counts[ordinal] & 0xFF;
+                counts[ordinal] = 0;
+                if (shared == 0 || trigramCounts[ordinal] == 0) {
+                    continue;
+                }
+                for (int j = merged; j < lists.length && shared + lists.length - j >= needed; j++) {
+                    if (lists[j].contains(ordinal)) {
+                        shared++;
+                    }
+                }
+                if (shared >= needed) {
+                    top.add(new Match(ids[ordinal], (double) shared / lists.length,
+                            (double) shared / (lists.length + trigramCounts[ordinal] - shared)));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                    if (top.size() == limit) {
+                        needed = Math.max(needed, (int) Math.round(top.peek().score() * lists.length));
+                    }
+                }
+            }
+        }
+        scratch.offer(counts);
+        return top;
+    }
+
+    /**
+     * Distinct trigrams of the normalized name, each word padded like {@code "  word "} so that word
+     * starts weigh more than word ends and single letters still index.
+     */
+    static long[] trigrams(String name) {
+        String normalized = Customer.normalizeName(name);
+        if (normalized == null || normalized.isEmpty()) {
+            return NO_TRIGRAMS;
+        }
+        long[] trigrams = new long[normalized.length() * 2];
+        int count = 0;
+        char first = ' ';
+        char second = ' ';
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                trigrams[count++] = trigram(first, second, c);
+                first = second;
+                second = c;
+            } else if (second != ' ') {
+                trigrams[count++] = trigram(first, second, ' ');
+                first = ' ';
+                second = ' ';
+            }
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    private static long trigram(char first, char second, char third) {
+        return ((long) first << 32) | ((long) second << 16) | third;
+    }
+
+    private void tombstone(long id) {
+        int ordinal = ordinals.get(id);
+        if (ordinal >= 0 && trigramCounts[ordinal] != 0) {
+            trigramCounts[ordinal] = 0;
+            live--;
+        }
+    }
+
+    private void compactIfSparse() {
+        int dead = nextOrdinal - live;
+        if (dead <= INITIAL_CAPACITY || dead <= live) {
+            return;
+        }
+        int[] remap = new int[nextOrdinal];
+        int next = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (trigramCounts[ordinal] == 0) {
+                remap[ordinal] = -1;
+            } else {
+                remap[ordinal] = next;
+                ids[next] = ids[ordinal];
+                trigramCounts[next] = trigramCounts[ordinal];
+                next++;
+            }
+        }
+        Arrays.fill(trigramCounts, next, nextOrdinal, 0);
+        postings.values().removeIf(list -> list.retain(remap) == 0);
+        ordinals = new IdOrdinals(next);
+        for (int ordinal = 0; ordinal < next; ordinal++) {
+            ordinals.put(ids[ordinal], ordinal);
+        }
+        nextOrdinal = next;
+    }
+
+    private static final class Postings {
+        static final Postings EMPTY = new Postings();
+
+        int[] ordinals = new int[4];
+        int size;
+
+        void add(int ordinal) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size + (size >> 1));
+            }
+            ordinals[size++] = ordinal;
+        }
+
+        boolean contains(int ordinal) {
+            return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+        }
+
+        // remapping is monotonic, so the list stays sorted
+        int retain(int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int ordinal = remap[ordinals[i]];
+                if (ordinal >= 0) {
+                    ordinals[kept++] = ordinal;
+                }
+            }
+            size = kept;
+            return size;
+        }
+    }
+
+    /**
+     * Open-addressing map from customer id to its latest ordinal. Entries are never removed: a
+     * tombstoned ordinal is filtered on read and the whole map is rebuilt on compaction.
+     */
+    private static final class IdOrdinals {
+        private long[] keys;
+        // ordinal + 1, so that 0 marks a free slot
+        private int[] values;
+        private int size;
+
+        IdOrdinals(int expected) {
+            int capacity = 16;
+            while (capacity < expected * 2) {
+                capacity <<= 1;
+            }
+            keys = new long[capacity];
+            values = new int[capacity];
+        }
+
+        int get(long id) {
+            int mask = keys.length - 1;
+            for (int slot = slot(id, mask); values[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == id) {
+                    return values[slot] - 1;
+                }
+            }
+            return -1;
+        }
+
+        void put(long id, int ordinal) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            int mask = keys.length - 1;
+            int slot = slot(id, mask);
+            while (values[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (values[slot] == 0) {
+                size++;
+            }
+            keys[slot] = id;
+            values[slot] = ordinal + 1;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldValues[slot] != 0) {
+                    put(oldKeys[slot], oldValues[slot] - 1);
+                }
+            }
+        }
+
+        private static int slot(long id, int mask) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.BatchItemResultDto;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.BatchResultDto;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.NotImplementedException;
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.respository.CustomerRepository;
+import com.example.customer_service.sharding.ShardedCustomerStore;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Timed(value = "customer.service", description = "CustomerService operations")
+public class CustomerBatchService {
+    private final CustomerRepository customerRepository;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final Validator validator;
+    private final CacheManager cacheManager;
+    private final CustomerChangeService customerChangeService;
+    private final ObjectProvider<ShardedCustomerStore> shardedCustomerStore;
+
+    @Value("${customer-service.batch.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    public BatchResultDto createCustomers(Iterator<CreateCustomerDto> items, BatchMode mode) {
+        requireUnsharded();
+        return process(items, mode, this::insertChunk);
+    }
+
+    public BatchResultDto updateCustomers(Iterator<UpdateCustomerDto> items, BatchMode mode) {
+        requireUnsharded();
+        return process(items, mode, this::updateChunk);
+    }
+
+    public BatchResultDto deleteCustomers(Iterator<Long> ids, BatchMode mode) {
+        requireUnsharded();
+        return process(ids, mode, this::deleteChunk);
+    }
+
+    /**
+     * Validates and inserts {@code items} in the caller's transaction, so the caller can commit its own
+     * bookkeeping atomically with the rows. Result indexes are positions in {@code items}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<BatchItemResultDto> insertCustomers(List<CreateCustomerDto> items) {
+        requireUnsharded();
+        List<BatchItemResultDto> results = new ArrayList<>(items.size());
+        writeChunk(items, 0, this::insertChunk, results);
+        return results;
+    }
+
+    private <T> BatchResultDto process(Iterator<T> items, BatchMode mode, ChunkWriter<T> writer) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<BatchItemResultDto> results = new ArrayList<>();
+        int[] chunkStart = {0};
+        int[] chunkEnd = {0};
+        if (mode == BatchMode.ATOMIC) {
+            try {
+                transaction.executeWithoutResult(status -> {
+                    while (items.hasNext()) {
+                        List<T> chunk = nextChunk(items);
+                        chunkStart[0] = chunkEnd[0];
+                        chunkEnd[0] += chunk.size();
+                        writeChunk(chunk, chunkStart[0], writer, results);
+                    }
+                    if (hasFailures(results)) {
+                        status.setRollbackOnly();
+                    }
+                });
+            } catch (RuntimeException ex) {
+                results.removeIf(result -> result.index() >= chunkStart[0]);
+                failRange(results, chunkStart[0], chunkEnd[0], errorMessage(ex));
+            }
+            if (hasFailures(results)) {
+                return summarize(rolledBack(results));
+            }
+        } else {
+            while (items.hasNext()) {
+                List<T> chunk = nextChunk(items);
+                chunkStart[0] = chunkEnd[0];
+                chunkEnd[0] += chunk.size();
+                List<BatchItemResultDto> chunkResults = new ArrayList<>(chunk.size());
+                try {
+                    transaction.executeWithoutResult(status -> writeChunk(chunk, chunkStart[0], writer, chunkResults));
+                    results.addAll(chunkResults);
+                } catch (RuntimeException ex) {
+                    failRange(results, chunkStart[0], chunkEnd[0], errorMessage(ex));
+                }
+            }
+        }
+        evictCached(results);
+        return summarize(results);
+    }
+
+    private <T> List<T> nextChunk(Iterator<T> items) {
+        List<T> chunk = new ArrayList<>(chunkSize);
+        while (items.hasNext() && chunk.size() < chunkSize) {
+            chunk.add(items.next());
+        }
+        return chunk;
+    }
+
+    private <T> void writeChunk(List<T> chunk, int offset, ChunkWriter<T> writer, List<BatchItemResultDto> results) {
+        List<IndexedItem<T>> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            T item = chunk.get(i);
+            String error = validate(item);
+            if (error == null) {
+                valid.add(new IndexedItem<>(offset + i, item));
+            } else {
+                results.add(new BatchItemResultDto(offset + i, null, false, error));
+            }
+        }
+        if (!valid.isEmpty()) {
+            results.addAll(writer.write(valid));
+            // push the chunk out as JDBC batches and release the managed entities
+            this.entityManager.flush();
+            this.entityManager.clear();
+        }
+    }
+
+    private List<BatchItemResultDto> insertChunk(List<IndexedItem<CreateCustomerDto>> items) {
+        List<Customer> customers = items.stream()
+                .map(item -> Customer.builder()
+                        .name(item.value().getName())
+                        .email(item.value().getEmail())
+                        .phone(item.value().getPhone())
+                        .build())
+                .toList();
+        this.customerRepository.saveAll(customers);
+        List<BatchItemResultDto> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Customer customer = customers.get(i);
+            this.customerChangeService.record(CustomerChangeType.CREATED, customer.getId(), CustomerService.toDto(customer));
+            results.add(new BatchItemResultDto(items.get(i).index(), customer.getId(), true, null));
+        }
+        return results;
+    }
+
+    private List<BatchItemResultDto> updateChunk(List<IndexedItem<UpdateCustomerDto>> items) {
+        Map<Long, Customer> existing = this.customerRepository
+                .findAllById(items.stream().map(item -> item.value().getId()).toList())
+                .stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        List<BatchItemResultDto> results = new ArrayList<>(items.size());
+        List<Customer> updated = new ArrayList<>(items.size());
+        for (IndexedItem<UpdateCustomerDto> item : items) {
+            UpdateCustomerDto dto = item.value();
+            Customer customer = existing.get(dto.getId());
+            if (customer == null) {
+                results.add(new BatchItemResultDto(item.index(), dto.getId(), false, "Customer not found with id: " + dto.getId()));
+                continue;
+            }
+            if (dto.getVersion() != null && !dto.getVersion().equals(customer.getVersion())) {
+                results.add(new BatchItemResultDto(item.index(), dto.getId(), false,
+                        "Customer " + dto.getId() + " was modified concurrently, expected version: " + dto.getVersion()));
+                continue;
+            }
+            if (dto.getName() != null && !dto.getName().isBlank()) {
+                customer.setName(dto.getName());
+            }
+            if (dto.getEmail() != null && !dto.getEmail().isBlank()) {
+                customer.setEmail(dto.getEmail());
+            }
+            if (dto.getPhone() != null && !dto.getPhone().isBlank()) {
+                customer.setPhone(dto.getPhone());
+            }
+            updated.add(customer);
+            results.add(new BatchItemResultDto(item.index(), dto.getId(), true, null));
+        }
+        // flush first so the recorded snapshots carry the incremented versions
+        this.entityManager.flush();
+        updated.forEach(customer ->
+                this.customerChangeService.record(CustomerChangeType.UPDATED, customer.getId(), CustomerService.toDto(customer)));
+        return results;
+    }
+
+    private List<BatchItemResultDto> deleteChunk(List<IndexedItem<Long>> items) {
+        Set<Long> existing = new HashSet<>(this.customerRepository
+                .findExistingIds(items.stream().map(IndexedItem::value).toList()));
+        if (!existing.isEmpty()) {
+            this.customerRepository.deleteAllByIdInBatch(existing);
+            existing.forEach(id -> this.customerChangeService.record(CustomerChangeType.DELETED, id, null));
+        }
+        return items.stream()
+                .map(item -> existing.contains(item.value())
+                        ? new BatchItemResultDto(item.index(), item.value(), true, null)
+                        : new BatchItemResultDto(item.index(), item.value(), false, "Customer not found with id: " + item.value()))
+                .toList();
+    }
+
+    private String validate(Object item) {
+        if (item == null) {
+            return "item must not be null";
+        }
+        Set<ConstraintViolation<Object>> violations = this.validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // chunks are written through JPA to the primary database, which sharded reads never look at
+    private void requireUnsharded() {
+        if (this.shardedCustomerStore.getIfAvailable() != null) {
+            throw new NotImplementedException("Batch writes are not supported while customers are sharded");
+        }
+    }
+
+    private void evictCached(List<BatchItemResultDto> results) {
+        Cache cache = this.cacheManager.getCache(CustomerService.CUSTOMER_CACHE);
+        if (cache == null) {
+            return;
+        }
+        results.stream()
+                .filter(BatchItemResultDto::success)
+                .forEach(result -> cache.evict(result.id()));
+    }
+
+    private boolean hasFailures(List<BatchItemResultDto> results) {
+        return results.stream().anyMatch(result -> !result.success());
+    }
+
+    private void failRange(List<BatchItemResultDto> results, int from, int to, String error) {
+        for (int index = from; index < to; index++) {
+            results.add(new BatchItemResultDto(index, null, false, error));
+        }
+    }
+
+    private List<BatchItemResultDto> rolledBack(List<BatchItemResultDto> results) {
+        return results.stream()
+                .map(result -> result.success()
+                        ? new BatchItemResultDto(result.index(), null, false, "Rolled back")
+                        : result)
+                .toList();
+    }
+
+    private BatchResultDto summarize(List<BatchItemResultDto> results) {
+        List<BatchItemResultDto> ordered = results.stream()
+                .sorted(Comparator.comparingInt(BatchItemResultDto::index))
+                .toList();
+        int succeeded = (int) ordered.stream().filter(BatchItemResultDto::success).count();
+        return new BatchResultDto(succeeded, ordered.size() - succeeded, ordered);
+    }
+
+    private String errorMessage(RuntimeException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private record IndexedItem<T>(int index, T value) {
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        List<BatchItemResultDto> write(List<IndexedItem<T>> items);
+    }
+}
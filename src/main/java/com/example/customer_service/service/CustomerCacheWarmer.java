@@ -0,0 +1,64 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.respository.CustomerRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Preloads the most recently modified customers into the cache once the application is ready, so a
+ * restarted node against a persistent database does not cold-miss on its hottest rows. Runs on a
+ * background thread and never overwrites entries that requests have already cached.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "customer-service.cache.warm-up.enabled", havingValue = "true")
+public class CustomerCacheWarmer {
+    private final Logger logger = LoggerFactory.getLogger(CustomerCacheWarmer.class);
+    private final CustomerRepository customerRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${customer-service.cache.warm-up.size:10000}")
+    private int size = 10000;
+
+    private volatile CompletableFuture<Integer> warmUp = CompletableFuture.completedFuture(0);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        this.warmUp = CompletableFuture.supplyAsync(this::warmUp,
+                task -> Thread.ofVirtual().name("customer-cache-warm-up").start(task));
+    }
+
+    public CompletableFuture<Integer> warmUpResult() {
+        return this.warmUp;
+    }
+
+    int warmUp() {
+        Cache cache = this.cacheManager.getCache(CustomerService.CUSTOMER_CACHE);
+        if (cache == null || size <= 0) {
+            return 0;
+        }
+        long started = System.nanoTime();
+        int loaded = 0;
+        try {
+            for (var customer : CustomerService.toDto(this.customerRepository.findAllByOrderByLastModifiedDesc(Limit.of(size)))) {
+                cache.putIfAbsent(customer.id(), customer);
+                loaded++;
+            }
+            logger.info("Warmed customer cache with {} entries in {} ms", loaded, (System.nanoTime() - started) / 1_000_000);
+        } catch (RuntimeException ex) {
+            logger.warn("Customer cache warm-up stopped after {} entries", loaded, ex);
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.CustomerChangeDto;
+import com.example.customer_service.dto.CustomerChangesDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.exception.GoneException;
+import com.example.customer_service.model.CustomerChange;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.respository.CustomerChangeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Transactional outbox for customer mutations. Changes are written in the caller's transaction and
+ * only become visible to consumers once the relay has given them an offset, which it does strictly
+ * after commit and while holding the relay row lock, so relays on several instances never interleave
+ * and a consumer polling with {@code since} never skips a change that committed late. Compaction
+ * raises a watermark past the changes it deleted; reading from below it fails with a
+ * {@link GoneException} instead of silently skipping them, and the consumer has to resync.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerChangeService {
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(CustomerChangeService.class);
+    private final CustomerChangeRepository customerChangeRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReentrantLock relayLock = new ReentrantLock();
+    private final Condition relayed = relayLock.newCondition();
+    private final ExecutorService subscribers = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile long latestOffset = -1;
+
+    @Value("${customer-service.changes.retention:7d}")
+    private Duration retention = Duration.ofDays(7);
+
+    @Value("${customer-service.changes.compact-after:1d}")
+    private Duration compactAfter = Duration.ofDays(1);
+
+    @Value("${customer-service.changes.stream-timeout:30m}")
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    @Value("${customer-service.changes.heartbeat:15s}")
+    private Duration heartbeat = Duration.ofSeconds(15);
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CustomerChangeType type, Long customerId, CustomerDto snapshot) {
+        this.customerChangeRepository.save(CustomerChange.builder()
+                .customerId(customerId)
+                .type(type)
+                .payload(snapshot == null ? null : toJson(snapshot))
+                .occurredAt(Instant.now())
+                .build());
+        this.eventPublisher.publishEvent(new CustomerChangedEvent(type, customerId, snapshot));
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerChangesDto getChanges(long since, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<CustomerChangeDto> items = this.customerChangeRepository
+                .findByChangeOffsetGreaterThanOrderByChangeOffsetAsc(since, Limit.of(pageSize))
+                .stream()
+                .map(this::toDto)
+                .toList();
+        // checked after the read, so a compaction committing in between is still noticed
+        checkRetained(since);
+        long nextOffset = items.isEmpty() ? since : items.get(items.size() - 1).offset();
+        return new CustomerChangesDto(items, nextOffset);
+    }
+
+    @Transactional(readOnly = true)
+    public long currentOffset() {
+        return this.customerChangeRepository.findRelayOffset();
+    }
+
+    @Scheduled(fixedDelayString = "${customer-service.changes.relay-interval:200ms}")
+    public void relay() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        RelayResult result;
+        do {
+            try {
+                result = transaction.execute(status -> assignOffsets());
+            } catch (PessimisticLockingFailureException ex) {
+                // another instance is relaying and will pick these changes up
+                logger.debug("Relay row is locked by another instance, skipping this relay", ex);
+                return;
+            }
+            // wake subscribers only once the offsets are committed and readable
+            if (result.offset() != latestOffset) {
+                signal(result.offset());
+            }
+        } while (result.assigned() == MAX_PAGE_SIZE);
+    }
+
+    @Scheduled(fixedDelayString = "${customer-service.changes.maintenance-interval:1h}")
+    public void compact() {
+        Instant now = Instant.now();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer expired = transaction.execute(status -> {
+            long through = this.customerChangeRepository.findMaxOffsetOlderThan(now.minus(retention));
+            int deleted = this.customerChangeRepository.deleteOlderThan(now.minus(retention));
+            if (deleted > 0) {
+                this.customerChangeRepository.raiseCompactedThrough(through);
+            }
+            return deleted;
+        });
+        Integer superseded = transaction.execute(status -> {
+            long through = this.customerChangeRepository.findMaxOffsetOlderThan(now.minus(compactAfter));
+            int deleted = this.customerChangeRepository.deleteSupersededOlderThan(now.minus(compactAfter));
+            if (deleted > 0) {
+                this.customerChangeRepository.raiseCompactedThrough(through);
+            }
+            return deleted;
+        });
+        logger.info("Compacted customer change log: {} expired, {} superseded", expired, superseded);
+    }
+
+    public SseEmitter subscribe(long since) {
+        checkRetained(since);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(ex -> open.set(false));
+        this.subscribers.execute(() -> {
+            long cursor = since;
+            try {
+                while (open.get()) {
+                    List<CustomerChangeDto> changes = getChanges(cursor, MAX_PAGE_SIZE).items();
+                    for (CustomerChangeDto change : changes) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(change.offset()))
+                                .name("customer-change")
+                                .data(change, MediaType.APPLICATION_JSON));
+                        cursor = change.offset();
+                    }
+                    if (changes.isEmpty() && !awaitChangesAfter(cursor, heartbeat)) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            } catch (GoneException ex) {
+                // the subscriber fell behind the compacted log and has to resync before following it again
+                try {
+                    emitter.send(SseEmitter.event().name("resync").data(ex.getMessage()));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException sendFailed) {
+                    emitter.completeWithError(sendFailed);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                emitter.completeWithError(ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                emitter.complete();
+            }
+        });
+        return emitter;
+    }
+
+    boolean awaitChangesAfter(long offset, Duration timeout) throws InterruptedException {
+        long remaining = timeout.toNanos();
+        relayLock.lock();
+        try {
+            while (latestOffset <= offset) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = relayed.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        this.subscribers.shutdownNow();
+        this.subscribers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private RelayResult assignOffsets() {
+        // locked before reading the pending changes, so none another relay numbered meanwhile is read as pending
+        long offset = this.customerChangeRepository.lockRelayOffset();
+        List<CustomerChange> pending = this.customerChangeRepository.findByChangeOffsetIsNullOrderByIdAsc(Limit.of(MAX_PAGE_SIZE));
+        for (CustomerChange change : pending) {
+            change.setChangeOffset(++offset);
+        }
+        if (!pending.isEmpty()) {
+            this.customerChangeRepository.updateRelayOffset(offset);
+        }
+        return new RelayResult(pending.size(), offset);
+    }
+
+    private void checkRetained(long since) {
+        long compactedThrough = this.customerChangeRepository.findCompactedThrough();
+        if (since < compactedThrough) {
+            throw new GoneException("Changes up to offset " + compactedThrough + " were compacted, resync the customers "
+                    + "and follow the changes from offset " + this.customerChangeRepository.findRelayOffset());
+        }
+    }
+
+    private void signal(long offset) {
+        relayLock.lock();
+        try {
+            latestOffset = offset;
+            relayed.signalAll();
+        } finally {
+            relayLock.unlock();
+        }
+    }
+
+    private CustomerChangeDto toDto(CustomerChange change) {
+        CustomerDto customer = null;
+        if (change.getPayload() != null) {
+            try {
+                customer = this.objectMapper.readValue(change.getPayload(), CustomerDto.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalStateException("Unreadable payload for change " + change.getId(), ex);
+            }
+        }
+        return new CustomerChangeDto(change.getChangeOffset(), change.getCustomerId(), change.getType(), customer,
+                change.getOccurredAt());
+    }
+
+    private String toJson(CustomerDto snapshot) {
+        try {
+            return this.objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize customer " + snapshot.id(), ex);
+        }
+    }
+
+    private record RelayResult(int assigned, long offset) {
+    }
+}
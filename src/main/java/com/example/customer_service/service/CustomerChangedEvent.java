@@ -0,0 +1,11 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.model.CustomerChangeType;
+
+/**
+ * Published in the writing transaction for every recorded change; listen with
+ * {@code @TransactionalEventListener} to only see changes that committed.
+ */
+public record CustomerChangedEvent(CustomerChangeType type, Long customerId, CustomerDto snapshot) {
+}
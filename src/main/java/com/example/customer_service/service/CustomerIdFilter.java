@@ -0,0 +1,229 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.CustomerChangeDto;
+import com.example.customer_service.dto.CustomerChangesDto;
+import com.example.customer_service.exception.GoneException;
+import com.example.customer_service.lookup.LongBloomFilter;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.sharding.CustomerIdGenerator;
+import com.example.customer_service.sharding.ShardedCustomerStore;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bloom filter over every customer id, so lookups of ids that never existed are answered without
+ * reaching the cache or the database. It is loaded once the application is ready, follows local creates
+ * after commit and picks up creates on other instances from the change log; until it is loaded every id
+ * may exist. Deleted ids stay in the filter and just cost a lookup. It is rebuilt at twice the size once
+ * it holds more ids than it was sized for.
+ * <p>
+ * Creates on other instances only show up after the relay and the next sync, so the filter must not rule
+ * out ids that may have been issued since. Sequence ids are handed out in pooled blocks per instance, so an
+ * id is only ruled out when its block had already reached a higher id a settle margin ago, or, for a block
+ * never seen, when a later block had. Time-ordered sharded ids are only ruled out when issued more than the
+ * settle margin before the last sync.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerIdFilter {
+    private final Logger logger = LoggerFactory.getLogger(CustomerIdFilter.class);
+    private final CustomerService customerService;
+    private final CustomerChangeService customerChangeService;
+    private final ObjectProvider<ShardedCustomerStore> shardedCustomerStore;
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicBoolean loading = new AtomicBoolean();
+    // highest id per sequence block that was seen at least a settle margin ago
+    private final Map<Long, Long> settledBlockHighs = new ConcurrentHashMap<>();
+    private final Queue<SeenIds> unsettled = new ConcurrentLinkedQueue<>();
+    // null until the first load completes
+    private volatile LongBloomFilter filter;
+    // also receives new ids while a load runs, so none committed during the scan is missed
+    private volatile LongBloomFilter next;
+    private volatile long capacity;
+    private volatile long changeCursor = -1;
+    private volatile long highestSettledBlock = Long.MIN_VALUE;
+    // sharded ids issued at or after this time may not have been synced yet
+    private volatile long settledBefore = Long.MIN_VALUE;
+    private volatile boolean timeOrderedIds;
+
+    @Value("${customer-service.negative-lookup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${customer-service.negative-lookup.expected-customers:1000000}")
+    private long expectedCustomers = 1_000_000;
+
+    @Value("${customer-service.negative-lookup.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${customer-service.negative-lookup.settle-margin:5s}")
+    private Duration settleMargin = Duration.ofSeconds(5);
+
+    // the increment of customers_seq, which is also the pooled block each instance takes from it
+    @Value("${customer-service.negative-lookup.id-block-size:50}")
+    private long idBlockSize = 50;
+
+    public boolean mightExist(long id) {
+        LongBloomFilter current = this.filter;
+        return current == null || isUnsettled(id) || current.mightContain(id);
+    }
+
+    public boolean isLoaded() {
+        return this.filter != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        this.timeOrderedIds = this.shardedCustomerStore.getIfAvailable() != null;
+        if (enabled && this.loading.compareAndSet(false, true)) {
+            load(expectedCustomers);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        if (event.type() == CustomerChangeType.CREATED) {
+            add(event.customerId());
+            seen(Map.of(blockOf(event.customerId()), event.customerId()), System.currentTimeMillis());
+        }
+    }
+
+    // creates on other instances only reach this one through the change log
+    @Scheduled(fixedDelayString = "${customer-service.negative-lookup.sync-interval:1s}")
+    public void syncChanges() {
+        long cursor = this.changeCursor;
+        if (cursor < 0) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Map<Long, Long> highs = new HashMap<>();
+        CustomerChangesDto changes;
+        do {
+            try {
+                changes = this.customerChangeService.getChanges(cursor, CustomerChangeService.MAX_PAGE_SIZE);
+            } catch (GoneException ex) {
+                logger.warn("The negative lookup filter fell behind the compacted change log, reloading it");
+                this.changeCursor = -1;
+                if (this.loading.compareAndSet(false, true)) {
+                    load(Math.max(this.capacity, expectedCustomers));
+                }
+                return;
+            }
+            for (CustomerChangeDto change : changes.items()) {
+                if (change.type() == CustomerChangeType.CREATED) {
+                    add(change.customerId());
+                    highs.merge(blockOf(change.customerId()), change.customerId(), Math::max);
+                }
+            }
+            cursor = changes.nextOffset();
+        } while (changes.items().size() == CustomerChangeService.MAX_PAGE_SIZE);
+        this.changeCursor = cursor;
+        seen(highs, started);
+        settle(started);
+    }
+
+    private boolean isUnsettled(long id) {
+        if (this.timeOrderedIds) {
+            return CustomerIdGenerator.timestampOf(id) >= this.settledBefore;
+        }
+        long block = blockOf(id);
+        Long high = this.settledBlockHighs.get(block);
+        return high == null ? block > this.highestSettledBlock : id > high;
+    }
+
+    private long blockOf(long id) {
+        // pooled blocks end on a sequence value, that is on 1 + k * increment
+        return Math.ceilDiv(id - 1, this.idBlockSize);
+    }
+
+    private void seen(Map<Long, Long> highs, long seenAt) {
+        if (!this.timeOrderedIds && !highs.isEmpty()) {
+            this.unsettled.add(new SeenIds(seenAt, highs));
+        }
+    }
+
+    // anything committed before the snapshot minus the margin has been seen, and later commits may still hold lower ids
+    private void settle(long snapshotAt) {
+        long settled = snapshotAt - this.settleMargin.toMillis();
+        if (settled > this.settledBefore) {
+            this.settledBefore = settled;
+        }
+        SeenIds seen;
+        while ((seen = this.unsettled.peek()) != null && seen.at() <= settled) {
+            this.unsettled.poll();
+            seen.highs().forEach((block, high) -> {
+                this.settledBlockHighs.merge(block, high, Math::max);
+                if (block > this.highestSettledBlock) {
+                    this.highestSettledBlock = block;
+                }
+            });
+        }
+    }
+
+    private void add(long id) {
+        LongBloomFilter loadingFilter = this.next;
+        if (loadingFilter != null) {
+            loadingFilter.add(id);
+        }
+        LongBloomFilter current = this.filter;
+        if (current != null && current.add(id) && this.added.incrementAndGet() > this.capacity
+                && this.loading.compareAndSet(false, true)) {
+            load(this.capacity * 2);
+        }
+    }
+
+    private void load(long size) {
+        Thread.ofVirtual().name("customer-id-filter").start(() -> {
+            long started = System.nanoTime();
+            long snapshotAt = System.currentTimeMillis();
+            try {
+                LongBloomFilter loaded = new LongBloomFilter(size, falsePositiveRate);
+                this.next = loaded;
+                if (this.changeCursor < 0) {
+                    // anything relayed after this offset is replayed by the sync, anything before is in the scan
+                    this.changeCursor = this.customerChangeService.currentOffset();
+                }
+                long[] ids = {0};
+                Map<Long, Long> highs = new HashMap<>();
+                this.customerService.streamAllCustomers(customer -> {
+                    if (loaded.add(customer.id())) {
+                        ids[0]++;
+                    }
+                    if (!this.timeOrderedIds) {
+                        highs.merge(blockOf(customer.id()), customer.id(), Math::max);
+                    }
+                });
+                this.capacity = size;
+                this.added.set(ids[0]);
+                seen(highs, snapshotAt);
+                this.filter = loaded;
+                logger.info("Loaded {} customer ids into the negative lookup filter in {} ms", ids[0],
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (RuntimeException ex) {
+                logger.warn("Loading the negative lookup filter failed, lookups keep reaching the database", ex);
+            } finally {
+                this.next = null;
+                this.loading.set(false);
+            }
+        });
+    }
+
+    private record SeenIds(long at, Map<Long, Long> highs) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.datasource.ReadYourWritesTracker;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.respository.CustomerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads customers by id with single-flight coalescing and micro-batching. Concurrent callers asking for
+ * an id that is already being loaded wait for that load instead of issuing their own, and distinct ids
+ * requested within the batch window are fetched together with one {@code findAllById}. Callers pinned to
+ * the primary after their own write load inline on their thread, where the pin is visible to the routing
+ * data source, and only coalesce with other pinned callers.
+ */
+@Component
+public class CustomerLoader {
+    private final CustomerRepository customerRepository;
+    private final BooleanSupplier pinnedToPrimary;
+    private final Map<Long, CompletableFuture<CustomerDto>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<CustomerDto>> primaryInFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock pendingLock = new ReentrantLock();
+    private final ScheduledExecutorService flushTimer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("customer-loader-flush").daemon().factory());
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration batchWindow;
+    private final int maxBatchSize;
+    private final Counter coalesced;
+    private final Counter executed;
+    private final Counter queries;
+    private final DistributionSummary batchSize;
+    private List<Long> pending = new ArrayList<>();
+
+    public CustomerLoader(CustomerRepository customerRepository, MeterRegistry meterRegistry,
+                          ObjectProvider<ReadYourWritesTracker> readYourWritesTracker,
+                          @Value("${customer-service.lookup.batch-window:2ms}") Duration batchWindow,
+                          @Value("${customer-service.lookup.max-batch-size:100}") int maxBatchSize) {
+        this.customerRepository = customerRepository;
+        ReadYourWritesTracker tracker = readYourWritesTracker.getIfAvailable();
+        this.pinnedToPrimary = tracker != null ? tracker::isPinnedToPrimary : () -> false;
+        this.batchWindow = batchWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.coalesced = Counter.builder("customer.lookups")
+                .description("Customer lookups by id")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        this.executed = Counter.builder("customer.lookups")
+                .description("Customer lookups by id")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.queries = Counter.builder("customer.lookup.queries")
+                .description("Database queries issued for customer lookups")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("customer.lookup.batch.size")
+                .description("Distinct ids fetched per lookup query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the customer, or {@code null} when no customer has the given id.
+     */
+    public CustomerDto load(Long id) {
+        boolean pinned = this.pinnedToPrimary.getAsBoolean();
+        Map<Long, CompletableFuture<CustomerDto>> inFlight = pinned ? this.primaryInFlight : this.inFlight;
+        CompletableFuture<CustomerDto> load = new CompletableFuture<>();
+        CompletableFuture<CustomerDto> existing = inFlight.putIfAbsent(id, load);
+        if (existing != null) {
+            this.coalesced.increment();
+            return await(existing);
+        }
+        this.executed.increment();
+        if (pinned || this.batchWindow.isZero()) {
+            fetch(List.of(id), inFlight);
+        } else {
+            enqueue(id);
+        }
+        return await(load);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.flushTimer.shutdownNow();
+        this.loaders.shutdownNow();
+    }
+
+    private void enqueue(Long id) {
+        List<Long> full = null;
+        this.pendingLock.lock();
+        try {
+            this.pending.add(id);
+            if (this.pending.size() >= this.maxBatchSize) {
+                full = takePending();
+            } else if (this.pending.size() == 1) {
+                this.flushTimer.schedule(this::flush, this.batchWindow.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            this.pendingLock.unlock();
+        }
+        if (full != null) {
+            List<Long> batch = full;
+            this.loaders.execute(() -> fetch(batch, this.inFlight));
+        }
+    }
+
+    private void flush() {
+        List<Long> batch;
+        this.pendingLock.lock();
+        try {
+            batch = takePending();
+        } finally {
+            this.pendingLock.unlock();
+        }
+        if (!batch.isEmpty()) {
+            this.loaders.execute(() -> fetch(batch, this.inFlight));
+        }
+    }
+
+    private List<Long> takePending() {
+        List<Long> batch = this.pending;
+        this.pending = new ArrayList<>();
+        return batch;
+    }
+
+    private void fetch(List<Long> ids, Map<Long, CompletableFuture<CustomerDto>> inFlight) {
+        try {
+            this.queries.increment();
+            this.batchSize.record(ids.size());
+            Map<Long, CustomerDto> found = this.customerRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Customer::getId, CustomerService::toDto));
+            ids.forEach(id -> complete(inFlight, id, load -> load.complete(found.get(id))));
+        } catch (RuntimeException ex) {
+            ids.forEach(id -> complete(inFlight, id, load -> load.completeExceptionally(ex)));
+        }
+    }
+
+    private static void complete(Map<Long, CompletableFuture<CustomerDto>> inFlight, Long id,
+                                 Function<CompletableFuture<CustomerDto>, Boolean> completion) {
+        CompletableFuture<CustomerDto> load = inFlight.remove(id);
+        if (load != null) {
+            completion.apply(load);
+        }
+    }
+
+    private static CustomerDto await(CompletableFuture<CustomerDto> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
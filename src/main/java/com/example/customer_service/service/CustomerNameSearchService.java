@@ -0,0 +1,185 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.CustomerChangeDto;
+import com.example.customer_service.dto.CustomerChangesDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerNameMatchDto;
+import com.example.customer_service.dto.CustomerNameSearchDto;
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.GoneException;
+import com.example.customer_service.exception.ServiceUnavailableException;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.search.NameTrigramIndex;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked, typo-tolerant name search served from a {@link NameTrigramIndex}. The index is loaded in the
+ * background once the application is ready and then follows every committed change, local ones as they
+ * commit and those of other instances from the change log; a change that commits while the load is running
+ * wins over the row the load reads for the same customer.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerNameSearchService {
+    public static final int MAX_RESULTS = 100;
+    private static final Duration LOADING_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final Logger logger = LoggerFactory.getLogger(CustomerNameSearchService.class);
+    private final CustomerService customerService;
+    private final CustomerChangeService customerChangeService;
+    private final NameTrigramIndex index = new NameTrigramIndex();
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final CompletableFuture<Integer> loaded = new CompletableFuture<>();
+    // ids changed since the load started, guarded by loadLock; null once loaded
+    private Set<Long> changedDuringLoad = new HashSet<>();
+    private volatile long changeCursor = -1;
+
+    @Value("${customer-service.name-search.min-score:0.3}")
+    private double minScore = 0.3;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofVirtual().name("customer-name-index").start(() -> {
+            try {
+                this.loaded.complete(load());
+            } catch (RuntimeException ex) {
+                logger.error("Loading the customer name index failed", ex);
+                this.loaded.completeExceptionally(ex);
+            }
+        });
+    }
+
+    public CompletableFuture<Integer> loadResult() {
+        return this.loaded;
+    }
+
+    @TransactionalEventListener
+    public void onCustomerChanged(CustomerChangedEvent event) {
+        apply(event.customerId(), event.type(), event.snapshot());
+    }
+
+    // replays local changes too, which leaves the index in change log order
+    @Scheduled(fixedDelayString = "${customer-service.name-search.sync-interval:1s}")
+    public void syncChanges() {
+        long cursor = this.changeCursor;
+        if (cursor < 0) {
+            return;
+        }
+        CustomerChangesDto changes;
+        do {
+            try {
+                changes = this.customerChangeService.getChanges(cursor, CustomerChangeService.MAX_PAGE_SIZE);
+            } catch (GoneException ex) {
+                // deletions missed meanwhile only linger as matches searchNames drops after its lookup
+                logger.warn("The customer name index fell behind the compacted change log, reloading it");
+                loadLock.lock();
+                try {
+                    changedDuringLoad = new HashSet<>();
+                } finally {
+                    loadLock.unlock();
+                }
+                load();
+                return;
+            }
+            for (CustomerChangeDto change : changes.items()) {
+                apply(change.customerId(), change.type(), change.customer());
+            }
+            cursor = changes.nextOffset();
+        } while (changes.items().size() == CustomerChangeService.MAX_PAGE_SIZE);
+        this.changeCursor = cursor;
+    }
+
+    public CustomerNameSearchDto searchNames(String name, int limit) {
+        List<NameTrigramIndex.Match> matches = findMatches(name, limit);
+        if (matches.isEmpty()) {
+            return new CustomerNameSearchDto(List.of());
+        }
+        List<Long> ids = matches.stream().map(NameTrigramIndex.Match::id).toList();
+        return toSearchResult(matches, this.customerService.lookupCustomers(ids).items());
+    }
+
+    public List<NameTrigramIndex.Match> findMatches(String name, int limit) {
+        if (!CustomerService.hasText(name)) {
+            throw new BadRequestException("A name to search for must be provided");
+        }
+        if (!this.loaded.isDone() || this.loaded.isCompletedExceptionally()) {
+            throw new ServiceUnavailableException("The customer name index is still loading", LOADING_RETRY_AFTER);
+        }
+        return index.search(name, Math.min(Math.max(limit, 1), MAX_RESULTS), minScore);
+    }
+
+    // keeps the ranking and drops customers deleted since they were matched
+    static CustomerNameSearchDto toSearchResult(List<NameTrigramIndex.Match> matches, List<CustomerDto> customers) {
+        Map<Long, CustomerDto> found = customers.stream().collect(Collectors.toMap(CustomerDto::id, Function.identity()));
+        List<CustomerNameMatchDto> items = new ArrayList<>(matches.size());
+        for (NameTrigramIndex.Match match : matches) {
+            CustomerDto customer = found.get(match.id());
+            if (customer != null) {
+                items.add(new CustomerNameMatchDto(customer, match.score()));
+            }
+        }
+        return new CustomerNameSearchDto(items);
+    }
+
+    private void apply(Long id, CustomerChangeType type, CustomerDto snapshot) {
+        loadLock.lock();
+        try {
+            if (changedDuringLoad != null) {
+                changedDuringLoad.add(id);
+            }
+            if (type == CustomerChangeType.DELETED || snapshot == null) {
+                index.remove(id);
+            } else {
+                index.put(id, snapshot.name());
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private int load() {
+        long started = System.nanoTime();
+        // anything relayed after this offset is replayed by the sync, anything before is in the scan
+        this.changeCursor = this.customerChangeService.currentOffset();
+        int[] loadedNames = {0};
+        this.customerService.streamAllCustomers(customer -> {
+            loadLock.lock();
+            try {
+                if (!changedDuringLoad.contains(customer.id())) {
+                    index.put(customer.id(), customer.name());
+                    loadedNames[0]++;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        });
+        loadLock.lock();
+        try {
+            changedDuringLoad = null;
+        } finally {
+            loadLock.unlock();
+        }
+        logger.info("Loaded {} customer names into the search index in {} ms", loadedNames[0],
+                (System.nanoTime() - started) / 1_000_000);
+        return loadedNames[0];
+    }
+}
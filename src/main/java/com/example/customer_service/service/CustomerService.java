@@ -2,20 +2,52 @@ package com.example.customer_service.service;
 
 import com.example.customer_service.dto.CreateCustomerDto;
 import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerPageDto;
 import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.ConflictException;
 import com.example.customer_service.exception.NotFoundException;
 import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerChangeType;
 import com.example.customer_service.respository.CustomerRepository;
+import com.example.customer_service.respository.CustomerSpecifications;
+import com.example.customer_service.respository.CustomerTableStamp;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "customer.service", description = "CustomerService operations")
 public class CustomerService {
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_LOOKUP_IDS = 1000;
+    public static final String CUSTOMER_CACHE = "customers";
+    // stays well below the IN-list limits of the databases we run on
+    static final int LOOKUP_CHUNK_SIZE = 500;
+
     private final CustomerRepository customerRepository;
+    private final CustomerChangeService customerChangeService;
+    private final CustomerLoader customerLoader;
 
+    @Transactional
     public CustomerDto saveCustomer(CreateCustomerDto dto) {
         Customer customer = Customer.builder()
                 .name(dto.getName())
@@ -23,48 +55,185 @@ public class CustomerService {
                 .phone(dto.getPhone())
                 .build();
         Customer savedCustomer = this.customerRepository.save(customer);
-        return toDto(savedCustomer);
+        CustomerDto created = toDto(savedCustomer);
+        this.customerChangeService.record(CustomerChangeType.CREATED, created.id(), created);
+        return created;
     }
 
 
+    @Transactional
+    @CachePut(cacheNames = CUSTOMER_CACHE, key = "#dto.id")
     public CustomerDto updateCustomer(UpdateCustomerDto dto) {
-        Customer existingCustomer = this.customerRepository.findById(dto.getId())
-                .orElseThrow(() -> new NotFoundException("Customer not found with id: " + dto.getId()));
-        if (dto.getName() != null && !dto.getName().isBlank()) {
-            existingCustomer.setName(dto.getName());
-        }
-        if (dto.getEmail() != null && !dto.getEmail().isBlank()) {
-            existingCustomer.setEmail(dto.getEmail());
+        boolean changed = hasText(dto.getName()) || hasText(dto.getEmail()) || hasText(dto.getPhone());
+        if (changed) {
+            int updated = this.customerRepository.updateNonBlankFields(
+                    dto.getId(), dto.getVersion(), dto.getName(), dto.getEmail(), dto.getPhone());
+            if (updated == 0) {
+                throw notUpdated(dto);
+            }
         }
-        if (dto.getPhone() != null && !dto.getPhone().isBlank()) {
-            existingCustomer.setPhone(dto.getPhone());
+        Customer customer = this.customerRepository.findById(dto.getId())
+                .orElseThrow(() -> new NotFoundException("Customer not found with id: " + dto.getId()));
+        CustomerDto updatedCustomer = toDto(customer);
+        if (changed) {
+            this.customerChangeService.record(CustomerChangeType.UPDATED, updatedCustomer.id(), updatedCustomer);
+        } else {
+            checkVersion(dto, updatedCustomer);
         }
-        return toDto(this.customerRepository.save(existingCustomer));
+        return updatedCustomer;
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, key = "#id")
     public void deleteCustomer(Long id) {
-        this.customerRepository.findById(id).orElseThrow(
-                () -> new NotFoundException("Customer not found with id: " + id));
-        this.customerRepository.deleteById(id);
+        if (this.customerRepository.deleteRowById(id) == 0) {
+            throw new NotFoundException("Customer not found with id: " + id);
+        }
+        this.customerChangeService.record(CustomerChangeType.DELETED, id, null);
     }
 
+    @Cacheable(cacheNames = CUSTOMER_CACHE, key = "#id")
     public CustomerDto getCustomerById(Long id) {
-        Customer customer = this.customerRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Customer not found with id: " + id));
-        return toDto(customer);
+        CustomerDto customer = this.customerLoader.load(id);
+        if (customer == null) {
+            throw new NotFoundException("Customer not found with id: " + id);
+        }
+        return customer;
     }
 
+    @Transactional(readOnly = true)
     public List<CustomerDto> getAllCustomers() {
-        return toDto(this.customerRepository.findAll());
+        return this.customerRepository.findAllDtos();
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerLookupDto lookupCustomers(List<Long> ids) {
+        List<Long> requested = requestedIds(ids);
+        return toLookup(requested, findAllById(requested));
+    }
+
+    static List<Long> requestedIds(List<Long> ids) {
+        List<Long> requested = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (requested.isEmpty()) {
+            throw new BadRequestException("At least one customer id must be provided");
+        }
+        if (requested.size() > MAX_LOOKUP_IDS) {
+            throw new BadRequestException("At most " + MAX_LOOKUP_IDS + " customer ids can be looked up at once");
+        }
+        return requested;
+    }
+
+    static CustomerLookupDto toLookup(List<Long> requested, Map<Long, CustomerDto> found) {
+        List<CustomerDto> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            CustomerDto customer = found.get(id);
+            if (customer == null) {
+                missing.add(id);
+            } else {
+                items.add(customer);
+            }
+        }
+        return new CustomerLookupDto(items, missing);
+    }
+
+    protected Map<Long, CustomerDto> findAllById(List<Long> ids) {
+        Map<Long, CustomerDto> found = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, ids.size()));
+            this.customerRepository.findDtosByIdIn(chunk).forEach(customer -> found.put(customer.id(), customer));
+        }
+        return found;
+    }
+
+    /**
+     * Runs {@code read} with the current collection ETag inside one read-only transaction, so that with
+     * read replicas the ETag and whatever {@code read} loads come from the same database.
+     */
+    @Transactional(readOnly = true)
+    public <T> T withCustomersETag(Function<String, T> read) {
+        return read.apply(getCustomersETag());
+    }
+
+    public String getCustomersETag() {
+        return toETag(this.customerRepository.findTableStamp());
+    }
+
+    protected static String toETag(CustomerTableStamp stamp) {
+        long lastModified = stamp.lastModified() == null ? 0L
+                : stamp.lastModified().getEpochSecond() * 1_000_000L + stamp.lastModified().getNano() / 1_000L;
+        return stamp.count() + "-" + lastModified;
+    }
+
+    @Transactional(readOnly = true)
+    public CustomerPageDto getCustomers(Long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<CustomerDto> customers = this.customerRepository.findDtosByIdGreaterThan(
+                after == null ? 0L : after, Limit.of(pageSize + 1));
+        return toPage(customers, pageSize);
+    }
+
+    public CustomerPageDto searchCustomers(String email, String phone, String namePrefix, Long after, int limit) {
+        if (!hasText(email) && !hasText(phone) && !hasText(namePrefix)) {
+            throw new BadRequestException("At least one of email, phone or name must be provided");
+        }
+        Specification<Customer> specification = CustomerSpecifications.idGreaterThan(after == null ? 0L : after);
+        if (hasText(email)) {
+            specification = specification.and(CustomerSpecifications.emailNormalizedEquals(Customer.normalizeEmail(email)));
+        }
+        if (hasText(phone)) {
+            specification = specification.and(CustomerSpecifications.phoneNormalizedEquals(Customer.normalizePhone(phone)));
+        }
+        if (hasText(namePrefix)) {
+            specification = specification.and(CustomerSpecifications.nameLowerStartsWith(Customer.normalizeName(namePrefix)));
+        }
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        List<Customer> customers = this.customerRepository.findBy(specification,
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+        return toPage(toDto(customers), pageSize);
+    }
+
+    @Transactional(readOnly = true)
+    public void streamAllCustomers(Consumer<CustomerDto> consumer) {
+        // projected rows never enter the persistence context, so it cannot grow with the result set
+        try (Stream<CustomerDto> customers = this.customerRepository.streamAllDtosOrderById()) {
+            customers.forEach(consumer);
+        }
+    }
+
+    static CustomerPageDto toPage(List<CustomerDto> customers, int pageSize) {
+        boolean hasMore = customers.size() > pageSize;
+        List<CustomerDto> items = hasMore ? customers.subList(0, pageSize) : customers;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).id() : null;
+        return new CustomerPageDto(items, nextCursor);
+    }
+
+    // an update without fields writes nothing, so the expected version has to be compared by hand
+    protected static void checkVersion(UpdateCustomerDto dto, CustomerDto current) {
+        if (dto.getVersion() != null && !dto.getVersion().equals(current.version())) {
+            throw new ConflictException("Customer " + dto.getId() + " was modified concurrently, expected version: " + dto.getVersion());
+        }
+    }
+
+    private RuntimeException notUpdated(UpdateCustomerDto dto) {
+        if (dto.getVersion() != null && this.customerRepository.existsById(dto.getId())) {
+            return new ConflictException("Customer " + dto.getId() + " was modified concurrently, expected version: " + dto.getVersion());
+        }
+        return new NotFoundException("Customer not found with id: " + dto.getId());
+    }
+
+    protected static boolean hasText(String value) {
+        return value != null && !value.isBlank();
     }
 
-    private CustomerDto toDto(Customer customer) {
-        return new CustomerDto(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone());
+    static CustomerDto toDto(Customer customer) {
+        return new CustomerDto(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone(),
+                customer.getVersion());
     }
 
-    private List<CustomerDto> toDto(List<Customer> customers) {
+    static List<CustomerDto> toDto(List<Customer> customers) {
         return customers.stream()
-                .map(customer -> new CustomerDto(customer.getId(), customer.getName(), customer.getEmail(), customer.getPhone()))
+                .map(CustomerService::toDto)
                 .toList();
     }
 }
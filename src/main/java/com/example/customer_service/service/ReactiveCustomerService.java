@@ -0,0 +1,134 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.BatchResultDto;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerNameSearchDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.respository.ReactiveCustomerRepository;
+import com.example.customer_service.search.NameTrigramIndex;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Customer operations for the reactive stack. Reads run on R2DBC without blocking; writes are handed
+ * to the transactional {@link CustomerService} and {@link CustomerBatchService} on the bounded elastic
+ * scheduler, so they keep recording changes and evicting the cache exactly as on the servlet stack.
+ */
+public class ReactiveCustomerService {
+    private static final int BODY_PREFETCH = 256;
+
+    private final ReactiveCustomerRepository reactiveCustomerRepository;
+    private final CustomerService customerService;
+    private final CustomerBatchService customerBatchService;
+    private final CustomerNameSearchService customerNameSearchService;
+    private final CustomerIdFilter customerIdFilter;
+    private final IdempotencyStore idempotencyStore;
+
+    public ReactiveCustomerService(ReactiveCustomerRepository reactiveCustomerRepository, CustomerService customerService,
+                                   CustomerBatchService customerBatchService, CustomerNameSearchService customerNameSearchService,
+                                   CustomerIdFilter customerIdFilter, IdempotencyStore idempotencyStore) {
+        this.reactiveCustomerRepository = reactiveCustomerRepository;
+        this.customerService = customerService;
+        this.customerBatchService = customerBatchService;
+        this.customerNameSearchService = customerNameSearchService;
+        this.customerIdFilter = customerIdFilter;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    public Mono<IdempotencyStore.Outcome<CustomerDto>> saveCustomer(CreateCustomerDto dto, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return blocking(() -> new IdempotencyStore.Outcome<>(this.customerService.saveCustomer(dto), false));
+        }
+        return blocking(() -> this.idempotencyStore.execute(idempotencyKey, dto, () -> this.customerService.saveCustomer(dto)));
+    }
+
+    public Mono<CustomerDto> updateCustomer(UpdateCustomerDto dto) {
+        return blocking(() -> this.customerService.updateCustomer(dto));
+    }
+
+    public Mono<Void> deleteCustomer(Long id) {
+        return Mono.fromRunnable(() -> this.customerService.deleteCustomer(id))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    public Mono<BatchResultDto> createCustomers(Flux<CreateCustomerDto> items, BatchMode mode) {
+        return batch(items, iterator -> this.customerBatchService.createCustomers(iterator, mode));
+    }
+
+    public Mono<BatchResultDto> updateCustomers(Flux<UpdateCustomerDto> items, BatchMode mode) {
+        return batch(items, iterator -> this.customerBatchService.updateCustomers(iterator, mode));
+    }
+
+    public Mono<BatchResultDto> deleteCustomers(Flux<Long> ids, BatchMode mode) {
+        return batch(ids, iterator -> this.customerBatchService.deleteCustomers(iterator, mode));
+    }
+
+    public Mono<CustomerDto> getCustomerById(Long id) {
+        if (!this.customerIdFilter.mightExist(id)) {
+            return Mono.error(NotFoundException.customer(id));
+        }
+        return this.reactiveCustomerRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new NotFoundException("Customer not found with id: " + id)));
+    }
+
+    public Flux<CustomerDto> streamAllCustomers() {
+        return this.reactiveCustomerRepository.streamAll();
+    }
+
+    public Mono<CustomerPageDto> getCustomers(Long after, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), CustomerService.MAX_PAGE_SIZE);
+        return this.reactiveCustomerRepository.findByIdGreaterThan(after == null ? 0L : after, pageSize + 1)
+                .collectList()
+                .map(customers -> CustomerService.toPage(customers, pageSize));
+    }
+
+    public Mono<CustomerLookupDto> lookupCustomers(List<Long> ids) {
+        return Mono.fromCallable(() -> CustomerService.requestedIds(ids))
+                .flatMap(requested -> Flux.fromIterable(requested)
+                        .buffer(CustomerService.LOOKUP_CHUNK_SIZE)
+                        .concatMap(this.reactiveCustomerRepository::findAllById)
+                        .collect(Collectors.toMap(CustomerDto::id, Function.identity()))
+                        .map(found -> CustomerService.toLookup(requested, found)));
+    }
+
+    public Mono<CustomerPageDto> searchCustomers(String email, String phone, String namePrefix, Long after, int limit) {
+        return blocking(() -> this.customerService.searchCustomers(email, phone, namePrefix, after, limit));
+    }
+
+    // matching is in memory and cheap; only loading the matched rows goes to the database
+    public Mono<CustomerNameSearchDto> searchNames(String name, int limit) {
+        return Mono.fromCallable(() -> this.customerNameSearchService.findMatches(name, limit))
+                .flatMap(matches -> matches.isEmpty()
+                        ? Mono.just(new CustomerNameSearchDto(List.of()))
+                        : this.reactiveCustomerRepository.findAllById(matches.stream().map(NameTrigramIndex.Match::id).toList())
+                                .collectList()
+                                .map(customers -> CustomerNameSearchService.toSearchResult(matches, customers)));
+    }
+
+    public Mono<String> getCustomersETag() {
+        return this.reactiveCustomerRepository.findTableStamp().map(CustomerService::toETag);
+    }
+
+    // the blocking iterator pulls from the request body one chunk at a time, so the body is never buffered whole
+    private <T> Mono<BatchResultDto> batch(Flux<T> items, Function<Iterator<T>, BatchResultDto> writer) {
+        return blocking(() -> writer.apply(items.toIterable(BODY_PREFETCH).iterator()));
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+}
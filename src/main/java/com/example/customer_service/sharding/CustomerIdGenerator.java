@@ -0,0 +1,56 @@
+package com.example.customer_service.sharding;
+
+import java.time.Instant;
+import java.util.function.LongSupplier;
+
+/**
+ * Coordination-free, time-ordered 63-bit ids: milliseconds since 2024 in the high bits, then a 10 bit
+ * node id and a 12 bit per-millisecond sequence. Ids stay unique across shards and nodes and sort
+ * roughly by creation time, which keeps keyset pagination over merged shards meaningful.
+ */
+public class CustomerIdGenerator {
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    public CustomerIdGenerator(long nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    CustomerIdGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns when the id was issued, in epoch milliseconds.
+     */
+    public static long timestampOf(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH;
+    }
+
+    public synchronized long nextId() {
+        // never step back in time: a clock adjustment keeps issuing from the last timestamp
+        long timestamp = Math.max(this.clock.getAsLong(), this.lastTimestamp);
+        if (timestamp == this.lastTimestamp) {
+            this.sequence = (this.sequence + 1) & SEQUENCE_MASK;
+            if (this.sequence == 0) {
+                timestamp++;
+            }
+        } else {
+            this.sequence = 0;
+        }
+        this.lastTimestamp = timestamp;
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS)) | (this.nodeId << SEQUENCE_BITS) | this.sequence;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.customer_service.sharding;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable assignment of routing-key ranges to shards. With {@link Strategy#HASH} the routing key is
+ * one of {@link #HASH_BUCKETS} buckets derived from the customer id, with {@link Strategy#RANGE} it is
+ * the id itself. Rebalancing produces the next version of the map through {@link #reassign(long, long, int)}.
+ */
+public final class ShardMap {
+    public static final int HASH_BUCKETS = 1024;
+
+    public enum Strategy {
+        HASH,
+        RANGE
+    }
+
+    private final long version;
+    private final Strategy strategy;
+    private final int shardCount;
+    private final NavigableMap<Long, Integer> ranges;
+
+    private ShardMap(long version, Strategy strategy, int shardCount, NavigableMap<Long, Integer> ranges) {
+        this.version = version;
+        this.strategy = strategy;
+        this.shardCount = shardCount;
+        this.ranges = Collections.unmodifiableNavigableMap(ranges);
+    }
+
+    public static ShardMap hash(int shardCount) {
+        requirePositive(shardCount);
+        TreeMap<Long, Integer> ranges = new TreeMap<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            ranges.put((long) shard * HASH_BUCKETS / shardCount, shard);
+        }
+        return new ShardMap(1, Strategy.HASH, shardCount, ranges);
+    }
+
+    public static ShardMap range(int shardCount, List<Long> boundaries) {
+        requirePositive(shardCount);
+        TreeMap<Long, Integer> ranges = new TreeMap<>();
+        ranges.put(Long.MIN_VALUE, 0);
+        if (boundaries.isEmpty()) {
+            long width = Long.MAX_VALUE / shardCount;
+            for (int shard = 1; shard < shardCount; shard++) {
+                ranges.put(width * shard, shard);
+            }
+        } else {
+            if (boundaries.size() != shardCount - 1) {
+                throw new IllegalArgumentException("Expected " + (shardCount - 1) + " range boundaries but got " + boundaries.size());
+            }
+            for (int shard = 1; shard < shardCount; shard++) {
+                ranges.put(boundaries.get(shard - 1), shard);
+            }
+        }
+        return new ShardMap(1, Strategy.RANGE, shardCount, ranges);
+    }
+
+    static ShardMap restore(long version, Strategy strategy, int shardCount, NavigableMap<Long, Integer> ranges) {
+        requirePositive(shardCount);
+        return new ShardMap(version, strategy, shardCount, new TreeMap<>(ranges));
+    }
+
+    public long version() {
+        return this.version;
+    }
+
+    public Strategy strategy() {
+        return this.strategy;
+    }
+
+    public int shardCount() {
+        return this.shardCount;
+    }
+
+    public NavigableMap<Long, Integer> ranges() {
+        return this.ranges;
+    }
+
+    public long routingKey(long customerId) {
+        return this.strategy == Strategy.HASH ? Math.floorMod(mix(customerId), HASH_BUCKETS) : customerId;
+    }
+
+    public int shardFor(long customerId) {
+        return this.ranges.floorEntry(routingKey(customerId)).getValue();
+    }
+
+    public boolean inRange(long customerId, long fromInclusive, long toExclusive) {
+        long key = routingKey(customerId);
+        return key >= fromInclusive && key < toExclusive;
+    }
+
+    public ShardMap reassign(long fromInclusive, long toExclusive, int shard) {
+        if (shard < 0 || shard >= this.shardCount) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        if (fromInclusive >= toExclusive) {
+            throw new IllegalArgumentException("Empty range [" + fromInclusive + ", " + toExclusive + ")");
+        }
+        TreeMap<Long, Integer> ranges = new TreeMap<>(this.ranges);
+        Integer ownerAfterRange = this.ranges.floorEntry(toExclusive).getValue();
+        ranges.subMap(fromInclusive, true, toExclusive, false).clear();
+        ranges.put(fromInclusive, shard);
+        ranges.putIfAbsent(toExclusive, ownerAfterRange);
+        return new ShardMap(this.version + 1, this.strategy, this.shardCount, ranges);
+    }
+
+    private static long mix(long value) {
+        // murmur3 finalizer, spreads the time-ordered ids evenly over the buckets
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    private static void requirePositive(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.customer_service.sharding;
+
+import com.example.customer_service.exception.ConflictException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The versioned shard maps, kept on the primary datasource so every instance routes by the same map. Each
+ * instance registers under its node id and reports the map version it routes by; a range move only purges
+ * the moved rows from their old shards once every live instance has adopted the map that moved them.
+ * Liveness is judged by the database clock, so instance clocks need not agree.
+ */
+public class ShardMapRegistry {
+    private static final String MAP_COLUMNS =
+            "version, strategy, shard_count, ranges, moved_from, moved_to, target_shard, copy_started, published_at";
+    private static final RowMapper<PublishedMap> PUBLISHED_MAP = (rs, rowNum) -> new PublishedMap(
+            ShardMap.restore(rs.getLong("version"), ShardMap.Strategy.valueOf(rs.getString("strategy")),
+                    rs.getInt("shard_count"), decode(rs.getString("ranges"))),
+            rs.getObject("moved_from", Long.class),
+            rs.getObject("moved_to", Long.class),
+            rs.getObject("target_shard", Integer.class),
+            rs.getObject("copy_started", Instant.class),
+            rs.getObject("published_at", Instant.class));
+
+    private final NamedParameterJdbcTemplate primary;
+    private final int nodeId;
+    private final Duration nodeTimeout;
+    // tells a restart of this node apart from another instance configured with the same node id
+    private final String instance = UUID.randomUUID().toString();
+
+    public ShardMapRegistry(NamedParameterJdbcTemplate primary, int nodeId, Duration nodeTimeout) {
+        this.primary = primary;
+        this.nodeId = nodeId;
+        this.nodeTimeout = nodeTimeout;
+    }
+
+    /**
+     * A published map together with the range move that produced it, if any.
+     */
+    public record PublishedMap(ShardMap map, Long movedFrom, Long movedTo, Integer targetShard,
+                               Instant copyStarted, Instant publishedAt) {
+    }
+
+    /**
+     * A range move whose map every live instance routes by, together with the map it replaced.
+     */
+    public record AdoptedMove(ShardMap before, PublishedMap after) {
+    }
+
+    public int nodeId() {
+        return this.nodeId;
+    }
+
+    /**
+     * Returns the latest published map, publishing {@code initial} first when no map was published yet.
+     */
+    public ShardMap load(ShardMap initial) {
+        if (latest() == null) {
+            try {
+                insert(initial, null, null, null, null, Instant.now());
+            } catch (DuplicateKeyException ex) {
+                // another instance published the first map meanwhile
+            }
+        }
+        return latest().map();
+    }
+
+    public PublishedMap latest() {
+        return this.primary.query("select " + MAP_COLUMNS + " from shard_maps order by version desc limit 1",
+                PUBLISHED_MAP).stream().findFirst().orElse(null);
+    }
+
+    public void publish(ShardMap map, long fromInclusive, long toExclusive, int targetShard,
+                        Instant copyStarted, Instant publishedAt) {
+        try {
+            insert(map, fromInclusive, toExclusive, targetShard, copyStarted, publishedAt);
+        } catch (DuplicateKeyException ex) {
+            throw new ConflictException("Shard map version " + map.version() + " was already published by another instance");
+        }
+    }
+
+    public boolean hasUnpurgedMoves() {
+        return Boolean.TRUE.equals(this.primary.getJdbcOperations().queryForObject(
+                "select count(*) > 0 from shard_maps where moved_from is not null and purged_at is null", Boolean.class));
+    }
+
+    /**
+     * Returns the range moves not purged yet that no live instance still routes around.
+     */
+    public List<AdoptedMove> adoptedMoves() {
+        List<AdoptedMove> moves = new ArrayList<>();
+        for (PublishedMap after : this.primary.query("select " + MAP_COLUMNS
+                + " from shard_maps where moved_from is not null and purged_at is null order by version", PUBLISHED_MAP)) {
+            if (!adoptedByEveryNode(after.map().version())) {
+                break;
+            }
+            this.primary.query("select " + MAP_COLUMNS + " from shard_maps where version = :version",
+                    new MapSqlParameterSource("version", after.map().version() - 1), PUBLISHED_MAP)
+                    .forEach(before -> moves.add(new AdoptedMove(before.map(), after)));
+        }
+        return moves;
+    }
+
+    /**
+     * Claims the purge of a move, so only one instance runs it.
+     */
+    public boolean claimPurge(long version) {
+        return this.primary.update("update shard_maps set purged_at = current_timestamp where version = :version and purged_at is null",
+                new MapSqlParameterSource("version", version)) == 1;
+    }
+
+    /**
+     * Registers this instance under its node id, failing while another live instance holds the id.
+     */
+    public void register(long version) {
+        MapSqlParameterSource params = nodeParams(version);
+        int updated = this.primary.update("""
+                update shard_map_nodes set instance = :instance, version = :version, seen_at = current_timestamp
+                where node_id = :nodeId
+                  and (instance = :instance or seen_at < dateadd('MILLISECOND', -:timeoutMillis, current_timestamp))
+                """, params);
+        if (updated == 0) {
+            try {
+                this.primary.update("insert into shard_map_nodes (node_id, instance, version, seen_at) "
+                        + "values (:nodeId, :instance, :version, current_timestamp)", params);
+            } catch (DuplicateKeyException ex) {
+                throw new IllegalStateException("Node id " + this.nodeId + " is already used by another running instance, "
+                        + "customer-service.sharding.node-id must be unique per instance");
+            }
+        }
+    }
+
+    public void heartbeat(long version) {
+        if (this.primary.update("update shard_map_nodes set version = :version, seen_at = current_timestamp "
+                + "where node_id = :nodeId and instance = :instance", nodeParams(version)) == 0) {
+            register(version);
+        }
+    }
+
+    public void deregister() {
+        this.primary.update("delete from shard_map_nodes where node_id = :nodeId and instance = :instance", nodeParams(0));
+    }
+
+    private boolean adoptedByEveryNode(long version) {
+        return Boolean.FALSE.equals(this.primary.getJdbcOperations().queryForObject("""
+                select count(*) > 0 from shard_map_nodes
+                where version < ? and seen_at >= dateadd('MILLISECOND', -?, current_timestamp)
+                """, Boolean.class, version, this.nodeTimeout.toMillis()));
+    }
+
+    private void insert(ShardMap map, Long fromInclusive, Long toExclusive, Integer targetShard,
+                        Instant copyStarted, Instant publishedAt) {
+        this.primary.update("insert into shard_maps (" + MAP_COLUMNS + ") values (:version, :strategy, :shardCount, "
+                        + ":ranges, :movedFrom, :movedTo, :targetShard, :copyStarted, :publishedAt)",
+                new MapSqlParameterSource()
+                        .addValue("version", map.version())
+                        .addValue("strategy", map.strategy().name())
+                        .addValue("shardCount", map.shardCount())
+                        .addValue("ranges", encode(map.ranges()))
+                        .addValue("movedFrom", fromInclusive)
+                        .addValue("movedTo", toExclusive)
+                        .addValue("targetShard", targetShard)
+                        .addValue("copyStarted", copyStarted == null ? null : Timestamp.from(copyStarted))
+                        .addValue("publishedAt", Timestamp.from(publishedAt)));
+    }
+
+    private MapSqlParameterSource nodeParams(long version) {
+        return new MapSqlParameterSource()
+                .addValue("nodeId", this.nodeId)
+                .addValue("instance", this.instance)
+                .addValue("version", version)
+                .addValue("timeoutMillis", this.nodeTimeout.toMillis());
+    }
+
+    private static String encode(Map<Long, Integer> ranges) {
+        return ranges.entrySet().stream()
+                .map(range -> range.getKey() + ":" + range.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static NavigableMap<Long, Integer> decode(String ranges) {
+        NavigableMap<Long, Integer> decoded = new TreeMap<>();
+        for (String range : ranges.split(",")) {
+            int separator = range.lastIndexOf(':');
+            decoded.put(Long.parseLong(range.substring(0, separator)), Integer.parseInt(range.substring(separator + 1)));
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.customer_service.sharding;
+
+import com.example.customer_service.exception.ConflictException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves a routing-key range to another shard while the store keeps serving traffic. Rows are copied in
+ * id batches first, then local writes are fenced briefly to copy what changed meanwhile, drop copies of
+ * rows deleted meanwhile and publish and swap the next shard map. Other instances keep writing by the old
+ * map until they pick up the new one, so the moved rows are only purged from their old shards once every
+ * live instance has adopted it, after copying what they wrote meanwhile; an update and a delete of the same
+ * customer racing across the switch resolve in favour of the update.
+ */
+@RequiredArgsConstructor
+public class ShardRebalancer {
+    private static final int BATCH_SIZE = 500;
+    private static final String ALL_COLUMNS =
+            "id, name, email, phone, version, last_modified, name_lower, email_normalized, phone_normalized";
+
+    private final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+    private final ShardedCustomerStore store;
+    private final ShardMapRegistry registry;
+
+    public record Result(long fromInclusive, long toExclusive, int targetShard, long version,
+                         int copied, int caughtUp, int removed, int purged) {
+    }
+
+    public synchronized Result moveRange(long fromInclusive, long toExclusive, int targetShard) {
+        adopt(this.registry.latest().map());
+        if (this.registry.hasUnpurgedMoves()) {
+            throw new ConflictException("A previous range move is still waiting for every node to adopt its shard map");
+        }
+        ShardMap before = this.store.shardMap();
+        ShardMap after = before.reassign(fromInclusive, toExclusive, targetShard);
+        NamedParameterJdbcTemplate target = this.store.shard(targetShard);
+        Instant copyStarted;
+        // drain in-flight writes so every later write is stamped at or after copyStarted
+        this.store.fence().writeLock().lock();
+        try {
+            copyStarted = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        } finally {
+            this.store.fence().writeLock().unlock();
+        }
+        Map<Integer, Set<Long>> copiedIds = new HashMap<>();
+        int caughtUp = 0;
+        int removed = 0;
+        for (int source = 0; source < before.shardCount(); source++) {
+            if (source != targetShard) {
+                copiedIds.put(source, copy(before, source, target, fromInclusive, toExclusive, null, false));
+            }
+        }
+        int copied = copiedIds.values().stream().mapToInt(Set::size).sum();
+        this.store.fence().writeLock().lock();
+        try {
+            for (int source = 0; source < before.shardCount(); source++) {
+                if (source != targetShard) {
+                    caughtUp += copy(before, source, target, fromInclusive, toExclusive, copyStarted, false).size();
+                    removed += removeDeleted(source, target, copiedIds.get(source));
+                }
+            }
+            this.registry.publish(after, fromInclusive, toExclusive, targetShard, copyStarted,
+                    Instant.now().truncatedTo(ChronoUnit.MICROS));
+            this.store.swap(after);
+        } finally {
+            this.store.fence().writeLock().unlock();
+        }
+        this.registry.heartbeat(after.version());
+        Result result = new Result(fromInclusive, toExclusive, targetShard, after.version(), copied, caughtUp, removed,
+                purgeAdoptedMoves());
+        logger.info("Moved customer range to shard: {}", result);
+        return result;
+    }
+
+    // every instance follows the published maps and reports the version it routes by
+    @Scheduled(fixedDelayString = "${customer-service.sharding.refresh-interval:1s}")
+    public void refresh() {
+        ShardMapRegistry.PublishedMap latest = this.registry.latest();
+        if (latest != null) {
+            adopt(latest.map());
+        }
+        this.registry.heartbeat(this.store.shardMap().version());
+        purgeAdoptedMoves();
+    }
+
+    private void adopt(ShardMap latest) {
+        if (latest.version() > this.store.shardMap().version()) {
+            // drain local writes still routed by the old map before reporting the new one
+            this.store.fence().writeLock().lock();
+            try {
+                this.store.swap(latest);
+            } finally {
+                this.store.fence().writeLock().unlock();
+            }
+            logger.info("Adopted shard map version {}", latest.version());
+        }
+    }
+
+    private int purgeAdoptedMoves() {
+        int purged = 0;
+        for (ShardMapRegistry.AdoptedMove move : this.registry.adoptedMoves()) {
+            if (this.registry.claimPurge(move.after().map().version())) {
+                purged += reconcileAndPurge(move.before(), move.after());
+            }
+        }
+        return purged;
+    }
+
+    private int reconcileAndPurge(ShardMap before, ShardMapRegistry.PublishedMap move) {
+        long fromInclusive = move.movedFrom();
+        long toExclusive = move.movedTo();
+        int targetShard = move.targetShard();
+        NamedParameterJdbcTemplate target = this.store.shard(targetShard);
+        int caughtUp = 0;
+        int removed = 0;
+        int purged = 0;
+        for (int source = 0; source < before.shardCount(); source++) {
+            if (source != targetShard) {
+                // writes by instances that still routed by the old map
+                caughtUp += copy(before, source, target, fromInclusive, toExclusive, move.copyStarted(), true).size();
+                removed += removeDeleted(source, target,
+                        copiedBefore(before, source, target, fromInclusive, toExclusive, move.publishedAt()));
+                purged += purge(move.map(), source, fromInclusive, toExclusive);
+            }
+        }
+        logger.info("Purged customer range [{}, {}) moved by shard map version {}: {} caught up, {} removed, {} purged",
+                fromInclusive, toExclusive, move.map().version(), caughtUp, removed, purged);
+        return purged;
+    }
+
+    private Set<Long> copy(ShardMap map, int source, NamedParameterJdbcTemplate target, long fromInclusive,
+                           long toExclusive, Instant changedSince, boolean onlyNewer) {
+        String sql = "select " + ALL_COLUMNS + " from customers where id > :after"
+                + (changedSince == null ? "" : " and last_modified >= :changedSince")
+                + " order by id limit :limit";
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", BATCH_SIZE);
+        if (changedSince != null) {
+            params.addValue("changedSince", Timestamp.from(changedSince));
+        }
+        Set<Long> copied = new HashSet<>();
+        long after = Long.MIN_VALUE;
+        List<Map<String, Object>> rows;
+        do {
+            rows = this.store.shard(source).queryForList(sql, params.addValue("after", after));
+            List<MapSqlParameterSource> moving = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("ID")).longValue();
+                if (map.inRange(id, fromInclusive, toExclusive) && map.shardFor(id) == source) {
+                    moving.add(new MapSqlParameterSource(lowerCaseKeys(row)));
+                }
+                after = id;
+            }
+            if (onlyNewer && !moving.isEmpty()) {
+                moving = newerThanTarget(target, moving);
+            }
+            moving.forEach(row -> copied.add(((Number) row.getValue("id")).longValue()));
+            if (!moving.isEmpty()) {
+                target.batchUpdate("merge into customers (" + ALL_COLUMNS + ") key (id) values (:id, :name, :email, "
+                                + ":phone, :version, :last_modified, :name_lower, :email_normalized, :phone_normalized)",
+                        moving.toArray(SqlParameterSource[]::new));
+            }
+        } while (rows.size() == BATCH_SIZE);
+        return copied;
+    }
+
+    // rows an instance updated on the target after the switch win over an older copy
+    private List<MapSqlParameterSource> newerThanTarget(NamedParameterJdbcTemplate target, List<MapSqlParameterSource> rows) {
+        Map<Long, Long> targetVersions = new HashMap<>();
+        target.query("select id, version from customers where id in (:ids)",
+                new MapSqlParameterSource("ids", rows.stream().map(row -> row.getValue("id")).toList()),
+                (RowCallbackHandler) rs -> targetVersions.put(rs.getLong("id"), rs.getLong("version")));
+        return rows.stream()
+                .filter(row -> {
+                    Long targetVersion = targetVersions.get(((Number) row.getValue("id")).longValue());
+                    return targetVersion == null || targetVersion < ((Number) row.getValue("version")).longValue();
+                })
+                .toList();
+    }
+
+    // copies still on the target as they were when the map was published, which the source may have deleted since
+    private Set<Long> copiedBefore(ShardMap before, int source, NamedParameterJdbcTemplate target, long fromInclusive,
+                                   long toExclusive, Instant publishedAt) {
+        Set<Long> ids = new HashSet<>();
+        long after = Long.MIN_VALUE;
+        List<Long> batch;
+        do {
+            batch = target.queryForList("select id from customers where id > :after and last_modified < :publishedAt "
+                            + "order by id limit :limit",
+                    new MapSqlParameterSource("after", after)
+                            .addValue("publishedAt", Timestamp.from(publishedAt))
+                            .addValue("limit", BATCH_SIZE), Long.class);
+            for (Long id : batch) {
+                if (before.inRange(id, fromInclusive, toExclusive) && before.shardFor(id) == source) {
+                    ids.add(id);
+                }
+                after = id;
+            }
+        } while (batch.size() == BATCH_SIZE);
+        return ids;
+    }
+
+    private int removeDeleted(int source, NamedParameterJdbcTemplate target, Set<Long> copiedIds) {
+        int removed = 0;
+        List<Long> ids = new ArrayList<>(copiedIds);
+        for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+            Set<Long> stillPresent = new HashSet<>(this.store.shard(source).queryForList(
+                    "select id from customers where id in (:ids)", new MapSqlParameterSource("ids", batch), Long.class));
+            List<Long> deleted = batch.stream().filter(id -> !stillPresent.contains(id)).toList();
+            if (!deleted.isEmpty()) {
+                removed += target.update("delete from customers where id in (:ids)", new MapSqlParameterSource("ids", deleted));
+            }
+        }
+        return removed;
+    }
+
+    private int purge(ShardMap map, int source, long fromInclusive, long toExclusive) {
+        int purged = 0;
+        NamedParameterJdbcTemplate shard = this.store.shard(source);
+        for (List<Long> ids : ownedElsewhere(shard, source, map, fromInclusive, toExclusive)) {
+            purged += shard.update("delete from customers where id in (:ids)", new MapSqlParameterSource("ids", ids));
+        }
+        return purged;
+    }
+
+    private List<List<Long>> ownedElsewhere(NamedParameterJdbcTemplate shard, int source, ShardMap map,
+                                            long fromInclusive, long toExclusive) {
+        List<List<Long>> batches = new ArrayList<>();
+        long after = Long.MIN_VALUE;
+        List<Long> ids;
+        do {
+            ids = shard.queryForList("select id from customers where id > :after order by id limit :limit",
+                    new MapSqlParameterSource("after", after).addValue("limit", BATCH_SIZE), Long.class);
+            List<Long> matching = ids.stream()
+                    .filter(id -> map.inRange(id, fromInclusive, toExclusive) && map.shardFor(id) != source)
+                    .toList();
+            if (!matching.isEmpty()) {
+                batches.add(matching);
+            }
+            if (!ids.isEmpty()) {
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == BATCH_SIZE);
+        return batches;
+    }
+
+    private static Map<String, Object> lowerCaseKeys(Map<String, Object> row) {
+        Map<String, Object> values = new HashMap<>(row.size());
+        row.forEach((column, value) -> values.put(column.toLowerCase(Locale.ROOT), value));
+        return values;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.customer_service.sharding;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.respository.CustomerRepository;
+import com.example.customer_service.service.CustomerChangeService;
+import com.example.customer_service.service.CustomerLoader;
+import com.example.customer_service.service.CustomerService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * {@link CustomerService} backed by the {@link ShardedCustomerStore}. The change log is still written
+ * to the primary datasource, after the shard write has committed.
+ */
+@Timed(value = "customer.service", description = "CustomerService operations")
+public class ShardedCustomerService extends CustomerService {
+    private final ShardedCustomerStore store;
+    private final CustomerChangeService customerChangeService;
+
+    public ShardedCustomerService(CustomerRepository customerRepository, CustomerChangeService customerChangeService,
+                                  CustomerLoader customerLoader, ShardedCustomerStore store) {
+        super(customerRepository, customerChangeService, customerLoader);
+        this.store = store;
+        this.customerChangeService = customerChangeService;
+    }
+
+    @Override
+    @Transactional
+    public CustomerDto saveCustomer(CreateCustomerDto dto) {
+        CustomerDto created = this.store.insert(dto.getName(), dto.getEmail(), dto.getPhone());
+        this.customerChangeService.record(CustomerChangeType.CREATED, created.id(), created);
+        return created;
+    }
+
+    @Override
+    @Transactional
+    @CachePut(cacheNames = CUSTOMER_CACHE, key = "#dto.id")
+    public CustomerDto updateCustomer(UpdateCustomerDto dto) {
+        boolean changed = hasText(dto.getName()) || hasText(dto.getEmail()) || hasText(dto.getPhone());
+        if (changed && this.store.updateNonBlankFields(dto.getId(), dto.getVersion(), dto.getName(), dto.getEmail(), dto.getPhone()) == 0) {
+            if (dto.getVersion() != null && this.store.findById(dto.getId()).isPresent()) {
+                throw new ConflictException("Customer " + dto.getId() + " was modified concurrently, expected version: " + dto.getVersion());
+            }
+            throw new NotFoundException("Customer not found with id: " + dto.getId());
+        }
+        CustomerDto updated = this.store.findById(dto.getId())
+                .orElseThrow(() -> new NotFoundException("Customer not found with id: " + dto.getId()));
+        if (changed) {
+            this.customerChangeService.record(CustomerChangeType.UPDATED, updated.id(), updated);
+        } else {
+            checkVersion(dto, updated);
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CUSTOMER_CACHE, key = "#id")
+    public void deleteCustomer(Long id) {
+        if (this.store.deleteById(id) == 0) {
+            throw new NotFoundException("Customer not found with id: " + id);
+        }
+        this.customerChangeService.record(CustomerChangeType.DELETED, id, null);
+    }
+
+    @Override
+    @Cacheable(cacheNames = CUSTOMER_CACHE, key = "#id")
+    public CustomerDto getCustomerById(Long id) {
+        return this.store.findById(id)
+                .orElseThrow(() -> new NotFoundException("Customer not found with id: " + id));
+    }
+
+    @Override
+    public List<CustomerDto> getAllCustomers() {
+        List<CustomerDto> customers = new ArrayList<>();
+        streamAllCustomers(customers::add);
+        return customers;
+    }
+
+    @Override
+    protected Map<Long, CustomerDto> findAllById(List<Long> ids) {
+        return this.store.findAllById(ids).stream()
+                .collect(Collectors.toMap(CustomerDto::id, Function.identity()));
+    }
+
+    @Override
+    public String getCustomersETag() {
+        return toETag(this.store.tableStamp());
+    }
+
+    @Override
+    public CustomerPageDto getCustomers(Long after, int limit) {
+        return this.store.findPage(after == null ? 0L : after, pageSize(limit), null, null, null);
+    }
+
+    @Override
+    public CustomerPageDto searchCustomers(String email, String phone, String namePrefix, Long after, int limit) {
+        if (!hasText(email) && !hasText(phone) && !hasText(namePrefix)) {
+            throw new BadRequestException("At least one of email, phone or name must be provided");
+        }
+        return this.store.findPage(after == null ? 0L : after, pageSize(limit),
+                hasText(email) ? Customer.normalizeEmail(email) : null,
+                hasText(phone) ? Customer.normalizePhone(phone) : null,
+                hasText(namePrefix) ? Customer.normalizeName(namePrefix) : null);
+    }
+
+    @Override
+    public void streamAllCustomers(Consumer<CustomerDto> consumer) {
+        Long after = 0L;
+        do {
+            CustomerPageDto page = this.store.findPage(after, MAX_PAGE_SIZE, null, null, null);
+            page.items().forEach(consumer);
+            after = page.nextCursor();
+        } while (after != null);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+}
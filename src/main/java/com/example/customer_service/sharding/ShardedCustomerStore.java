@@ -0,0 +1,264 @@
+package com.example.customer_service.sharding;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.respository.CustomerTableStamp;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Customer rows partitioned over several databases that share the Flyway schema. Point operations go
+ * to the shard owning the id, list and search queries are scattered to every shard and merged by id.
+ * A row is only ever read from the shard the current {@link ShardMap} assigns it to, so copies left
+ * behind by an in-flight or aborted rebalance are invisible.
+ */
+public class ShardedCustomerStore implements AutoCloseable {
+    static final String COLUMNS = "id, name, email, phone, version";
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+    static final RowMapper<CustomerDto> CUSTOMER_ROW = (rs, rowNum) -> new CustomerDto(
+            rs.getLong("id"), rs.getString("name"), rs.getString("email"), rs.getString("phone"), rs.getLong("version"));
+
+    private final List<DataSource> dataSources;
+    private final List<NamedParameterJdbcTemplate> shards;
+    private final CustomerIdGenerator idGenerator;
+    private final AtomicReference<ShardMap> shardMap;
+    // writes share the fence, a rebalance takes it exclusively for its final catch-up and map swap
+    private final ReentrantReadWriteLock fence = new ReentrantReadWriteLock();
+    private final ExecutorService scatter = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ShardedCustomerStore(List<DataSource> dataSources, ShardMap shardMap, CustomerIdGenerator idGenerator) {
+        if (dataSources.size() != shardMap.shardCount()) {
+            throw new IllegalArgumentException("Shard map expects " + shardMap.shardCount() + " shards but "
+                    + dataSources.size() + " datasources are configured");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = dataSources.stream().map(NamedParameterJdbcTemplate::new).toList();
+        this.shardMap = new AtomicReference<>(shardMap);
+        this.idGenerator = idGenerator;
+    }
+
+    public ShardMap shardMap() {
+        return this.shardMap.get();
+    }
+
+    public CustomerDto insert(String name, String email, String phone) {
+        long id = this.idGenerator.nextId();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", id)
+                .addValue("name", name)
+                .addValue("email", email)
+                .addValue("phone", phone)
+                .addValue("nameLower", Customer.normalizeName(name))
+                .addValue("emailNormalized", Customer.normalizeEmail(email))
+                .addValue("phoneNormalized", Customer.normalizePhone(phone));
+        fenced(() -> owner(id).update("""
+                insert into customers (id, name, email, phone, version, last_modified, name_lower, email_normalized, phone_normalized)
+                values (:id, :name, :email, :phone, 0, :lastModified, :nameLower, :emailNormalized, :phoneNormalized)
+                """, withLastModified(params)));
+        return new CustomerDto(id, name, email, phone, 0L);
+    }
+
+    public Optional<CustomerDto> findById(long id) {
+        return owner(id).query("select " + COLUMNS + " from customers where id = :id",
+                new MapSqlParameterSource("id", id), CUSTOMER_ROW).stream().findFirst();
+    }
+
+    public List<CustomerDto> findAllById(Collection<Long> ids) {
+        ShardMap map = shardMap();
+        Map<Integer, List<Long>> byShard = ids.stream().collect(Collectors.groupingBy(map::shardFor));
+        List<CustomerDto> found = new ArrayList<>(ids.size());
+        byShard.forEach((shard, shardIds) -> {
+            for (int from = 0; from < shardIds.size(); from += IN_LIST_CHUNK_SIZE) {
+                List<Long> chunk = shardIds.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, shardIds.size()));
+                found.addAll(this.shards.get(shard).query("select " + COLUMNS + " from customers where id in (:ids)",
+                        new MapSqlParameterSource("ids", chunk), CUSTOMER_ROW));
+            }
+        });
+        return found;
+    }
+
+    public int updateNonBlankFields(long id, Long expectedVersion, String name, String email, String phone) {
+        StringBuilder sql = new StringBuilder("update customers set version = version + 1, last_modified = :lastModified");
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id);
+        if (hasText(name)) {
+            sql.append(", name = :name, name_lower = :nameLower");
+            params.addValue("name", name).addValue("nameLower", Customer.normalizeName(name));
+        }
+        if (hasText(email)) {
+            sql.append(", email = :email, email_normalized = :emailNormalized");
+            params.addValue("email", email).addValue("emailNormalized", Customer.normalizeEmail(email));
+        }
+        if (hasText(phone)) {
+            sql.append(", phone = :phone, phone_normalized = :phoneNormalized");
+            params.addValue("phone", phone).addValue("phoneNormalized", Customer.normalizePhone(phone));
+        }
+        sql.append(" where id = :id");
+        if (expectedVersion != null) {
+            sql.append(" and version = :version");
+            params.addValue("version", expectedVersion);
+        }
+        return fenced(() -> owner(id).update(sql.toString(), withLastModified(params)));
+    }
+
+    public int deleteById(long id) {
+        return fenced(() -> owner(id).update("delete from customers where id = :id", new MapSqlParameterSource("id", id)));
+    }
+
+    public CustomerPageDto findPage(long after, int limit, String emailNormalized, String phoneNormalized, String namePrefix) {
+        StringBuilder sql = new StringBuilder("select " + COLUMNS + " from customers where id > :after");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("after", after)
+                .addValue("limit", limit);
+        if (emailNormalized != null) {
+            sql.append(" and email_normalized = :email");
+            params.addValue("email", emailNormalized);
+        }
+        if (phoneNormalized != null) {
+            sql.append(" and phone_normalized = :phone");
+            params.addValue("phone", phoneNormalized);
+        }
+        if (namePrefix != null) {
+            sql.append(" and name_lower like :namePrefix escape '\\'");
+            params.addValue("namePrefix", escapeLike(namePrefix) + "%");
+        }
+        sql.append(" order by id limit :limit");
+
+        ShardMap map = shardMap();
+        List<List<CustomerDto>> windows = scatter(shard -> shard.query(sql.toString(), params, CUSTOMER_ROW));
+        // a shard that filled its window may hold more rows past its last id, so nothing beyond the
+        // smallest such id can be returned without risking a gap
+        long horizon = Long.MAX_VALUE;
+        List<CustomerDto> merged = new ArrayList<>();
+        for (int shard = 0; shard < windows.size(); shard++) {
+            List<CustomerDto> window = windows.get(shard);
+            if (window.size() == limit) {
+                horizon = Math.min(horizon, window.get(window.size() - 1).id());
+            }
+            for (CustomerDto customer : window) {
+                if (map.shardFor(customer.id()) == shard) {
+                    merged.add(customer);
+                }
+            }
+        }
+        long maxId = horizon;
+        List<CustomerDto> visible = merged.stream()
+                .filter(customer -> customer.id() <= maxId)
+                .sorted(Comparator.comparing(CustomerDto::id))
+                .toList();
+        if (visible.size() > limit) {
+            List<CustomerDto> items = visible.subList(0, limit);
+            return new CustomerPageDto(items, items.get(limit - 1).id());
+        }
+        return new CustomerPageDto(visible, horizon == Long.MAX_VALUE ? null : horizon);
+    }
+
+    public CustomerTableStamp tableStamp() {
+        List<CustomerTableStamp> stamps = scatter(shard -> shard.getJdbcOperations().queryForObject(
+                "select count(*), max(last_modified) from customers",
+                (rs, rowNum) -> new CustomerTableStamp(rs.getLong(1), rs.getObject(2, Instant.class))));
+        long count = 0;
+        Instant lastModified = null;
+        for (CustomerTableStamp stamp : stamps) {
+            count += stamp.count();
+            if (stamp.lastModified() != null && (lastModified == null || stamp.lastModified().isAfter(lastModified))) {
+                lastModified = stamp.lastModified();
+            }
+        }
+        return new CustomerTableStamp(count, lastModified);
+    }
+
+    public List<Long> rowCounts() {
+        return scatter(shard -> shard.getJdbcOperations().queryForObject("select count(*) from customers", Long.class));
+    }
+
+    @Override
+    public void close() throws Exception {
+        this.scatter.shutdownNow();
+        for (DataSource dataSource : this.dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    NamedParameterJdbcTemplate shard(int shard) {
+        return this.shards.get(shard);
+    }
+
+    ReentrantReadWriteLock fence() {
+        return this.fence;
+    }
+
+    // never steps back to an older version a slower refresh may still hold
+    void swap(ShardMap shardMap) {
+        this.shardMap.accumulateAndGet(shardMap, (current, next) -> next.version() > current.version() ? next : current);
+    }
+
+    private NamedParameterJdbcTemplate owner(long id) {
+        return this.shards.get(shardMap().shardFor(id));
+    }
+
+    // stamped inside the fence so a rebalance can catch up on everything written after its copy started
+    private static MapSqlParameterSource withLastModified(MapSqlParameterSource params) {
+        return params.addValue("lastModified", Timestamp.from(Instant.now()));
+    }
+
+    private <T> T fenced(Supplier<T> write) {
+        this.fence.readLock().lock();
+        try {
+            return write.get();
+        } finally {
+            this.fence.readLock().unlock();
+        }
+    }
+
+    private <T> List<T> scatter(Function<NamedParameterJdbcTemplate, T> query) {
+        List<Future<T>> futures = this.shards.stream()
+                .map(shard -> this.scatter.submit(() -> query.apply(shard)))
+                .toList();
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Shard query failed", ex.getCause());
+        }
+        return results;
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.customer_service.sharding;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.List;
+import java.util.Map;
+
+@Endpoint(id = "shards")
+@RequiredArgsConstructor
+public class ShardsEndpoint {
+    private final ShardedCustomerStore store;
+    private final ShardRebalancer rebalancer;
+
+    public record ShardsDescriptor(long version, ShardMap.Strategy strategy, Map<Long, Integer> ranges, List<Long> rowCounts) {
+    }
+
+    @ReadOperation
+    public ShardsDescriptor shards() {
+        ShardMap map = this.store.shardMap();
+        return new ShardsDescriptor(map.version(), map.strategy(), map.ranges(), this.store.rowCounts());
+    }
+
+    @WriteOperation
+    public ShardRebalancer.Result move(long from, long to, int target) {
+        return this.rebalancer.moveRange(from, to, target);
+    }
+}
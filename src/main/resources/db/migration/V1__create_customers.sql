@@ -0,0 +1,19 @@
+create sequence customers_seq start with 1 increment by 50;
+
+create table customers (
+    id               bigint                   not null,
+    name             varchar(255),
+    email            varchar(255),
+    phone            varchar(255),
+    version          bigint,
+    last_modified    timestamp(6) with time zone,
+    name_lower       varchar(255),
+    email_normalized varchar(255),
+    phone_normalized varchar(255),
+    constraint pk_customers primary key (id)
+);
+
+create unique index ux_customers_email_normalized on customers (email_normalized);
+create index ix_customers_phone_normalized on customers (phone_normalized);
+create index ix_customers_name_lower on customers (name_lower);
+create index ix_customers_last_modified on customers (last_modified);
@@ -0,0 +1,15 @@
+create sequence customer_changes_seq start with 1 increment by 50;
+
+create table customer_changes (
+    id            bigint                      not null,
+    change_offset bigint,
+    customer_id   bigint                      not null,
+    type          varchar(16)                 not null,
+    payload       varchar(4000),
+    occurred_at   timestamp(6) with time zone not null,
+    constraint pk_customer_changes primary key (id)
+);
+
+create unique index ux_customer_changes_offset on customer_changes (change_offset);
+create index ix_customer_changes_customer_id on customer_changes (customer_id);
+create index ix_customer_changes_occurred_at on customer_changes (occurred_at);
@@ -0,0 +1,23 @@
+create sequence customer_jobs_seq start with 1 increment by 50;
+
+create table customer_jobs (
+    id             bigint                      not null,
+    type           varchar(16)                 not null,
+    format         varchar(16)                 not null,
+    status         varchar(16)                 not null,
+    source_size    bigint,
+    total_rows     bigint,
+    owner          varchar(36),
+    message        varchar(1000),
+    position       bigint                      not null,
+    errors_size    bigint                      not null,
+    last_id        bigint                      not null,
+    processed_rows bigint                      not null,
+    succeeded_rows bigint                      not null,
+    failed_rows    bigint                      not null,
+    created_at     timestamp(6) with time zone not null,
+    updated_at     timestamp(6) with time zone not null,
+    constraint pk_customer_jobs primary key (id)
+);
+
+create index ix_customer_jobs_status on customer_jobs (status);
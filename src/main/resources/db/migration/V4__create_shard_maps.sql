@@ -0,0 +1,21 @@
+create table shard_maps (
+    version       bigint                      not null,
+    strategy      varchar(16)                 not null,
+    shard_count   int                         not null,
+    ranges        clob                        not null,
+    moved_from    bigint,
+    moved_to      bigint,
+    target_shard  int,
+    copy_started  timestamp(6) with time zone,
+    published_at  timestamp(6) with time zone not null,
+    purged_at     timestamp(6) with time zone,
+    constraint pk_shard_maps primary key (version)
+);
+
+create table shard_map_nodes (
+    node_id   int                         not null,
+    instance  varchar(36)                 not null,
+    version   bigint                      not null,
+    seen_at   timestamp(6) with time zone not null,
+    constraint pk_shard_map_nodes primary key (node_id)
+);
@@ -0,0 +1,10 @@
+-- a single row: locked by the relay so only one instance assigns offsets at a time
+create table customer_change_relay (
+    id                int    not null,
+    last_offset       bigint not null,
+    compacted_through bigint not null,
+    constraint pk_customer_change_relay primary key (id)
+);
+
+insert into customer_change_relay (id, last_offset, compacted_through)
+select 1, coalesce(max(change_offset), 0), 0 from customer_changes;
@@ -0,0 +1,197 @@
+package com.example.customer_service;
+
+import com.example.customer_service.cache.PeerCacheInvalidator;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerInvalidationDto;
+import com.example.customer_service.dto.CustomerInvalidationsDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.search.NameTrigramIndex;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerNameSearchService;
+import com.example.customer_service.service.CustomerService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Three instances in one JVM over a shared database, finding each other through a stand-in registry.
+ */
+class CacheCoherenceTests {
+    private static final String SERVICE_ID = "customer_service";
+    private static final String SECRET = "coherence-test-secret";
+    private static final InMemoryRegistry registry = new InMemoryRegistry();
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startNodes() {
+        for (int i = 0; i < 3; i++) {
+            ConfigurableApplicationContext node = new SpringApplicationBuilder(CustomerServiceApplication.class)
+                    .initializers(context -> context.getBeanFactory().registerSingleton("discoveryClient", registry))
+                    .run("--server.port=0",
+                            "--customer-service.cache.coherence.secret=" + SECRET,
+                            "--spring.datasource.url=jdbc:h2:mem:cache_coherence;DB_CLOSE_DELAY=-1");
+            int port = ((WebServerApplicationContext) node).getWebServer().getPort();
+            registry.instances.add(new DefaultServiceInstance("node-" + i, SERVICE_ID, "localhost", port, false));
+            nodes.add(node);
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void updatesAndDeletes_ShouldInvalidateCachedEntriesOnEveryPeer() throws InterruptedException {
+        CustomerDto created = service(0).saveCustomer(new CreateCustomerDto("Coherent Doe", "coherent.doe@example.com", null));
+        for (int i = 0; i < nodes.size(); i++) {
+            service(i).getCustomerById(created.id());
+            assertNotNull(cache(i).get(created.id()));
+        }
+
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(created.id());
+        update.setName("Coherent Roe");
+        service(1).updateCustomer(update);
+
+        awaitTrue(() -> cache(0).get(created.id()) == null && cache(2).get(created.id()) == null);
+        assertEquals("Coherent Roe", service(0).getCustomerById(created.id()).name());
+        assertEquals("Coherent Roe", service(2).getCustomerById(created.id()).name());
+
+        service(2).deleteCustomer(created.id());
+
+        awaitTrue(() -> nodes.stream().allMatch(node ->
+                node.getBean(CacheManager.class).getCache(CustomerService.CUSTOMER_CACHE).get(created.id()) == null));
+    }
+
+    @Test
+    void lateInvalidations_ShouldNotEvictNewerEntries_AndStaleReadsShouldNotBeCached() {
+        CustomerDto created = service(0).saveCustomer(new CreateCustomerDto("Late Doe", "late.doe@example.com", null));
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(created.id());
+        update.setName("Later Doe");
+        CustomerDto updated = service(0).updateCustomer(update);
+        PeerCacheInvalidator invalidator = nodes.get(1).getBean(PeerCacheInvalidator.class);
+
+        invalidator.receive(new CustomerInvalidationsDto("peer", List.of(new CustomerInvalidationDto(created.id(), updated.version()))));
+        cache(1).put(created.id(), created);
+        assertNull(cache(1).get(created.id()));
+
+        cache(1).put(created.id(), updated);
+        invalidator.receive(new CustomerInvalidationsDto("peer", List.of(new CustomerInvalidationDto(created.id(), created.version()))));
+        assertEquals("Later Doe", cache(1).get(created.id(), CustomerDto.class).name());
+    }
+
+    @Test
+    void invalidationEndpoint_ShouldRejectBatches_WithoutThePeerSecret() {
+        CustomerDto created = service(0).saveCustomer(new CreateCustomerDto("Guarded Doe", "guarded.doe@example.com", null));
+        service(1).getCustomerById(created.id());
+        RestClient client = RestClient.create(registry.instances.get(1).getUri().toString());
+        CustomerInvalidationsDto batch = new CustomerInvalidationsDto("intruder", List.of(new CustomerInvalidationDto(created.id(), null)));
+
+        for (String secret : Arrays.asList(null, "wrong-secret")) {
+            HttpStatusCode status = client.post().uri(PeerCacheInvalidator.PATH)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .headers(headers -> {
+                        if (secret != null) {
+                            headers.set(PeerCacheInvalidator.SECRET_HEADER, secret);
+                        }
+                    })
+                    .body(batch)
+                    .exchange((request, response) -> response.getStatusCode());
+            assertEquals(HttpStatus.FORBIDDEN, status);
+        }
+        assertNotNull(cache(1).get(created.id()));
+    }
+
+    @Test
+    void idFilters_ShouldNotRuleOutCustomersCreatedOnPeers_BeforeTheyAreSynced() throws InterruptedException {
+        awaitTrue(() -> nodes.stream().allMatch(node -> node.getBean(CustomerIdFilter.class).isLoaded()));
+
+        CustomerDto created = service(0).saveCustomer(new CreateCustomerDto("Remote Doe", "remote.doe@example.com", null));
+
+        assertTrue(nodes.get(1).getBean(CustomerIdFilter.class).mightExist(created.id()));
+        assertEquals("Remote Doe", service(2).getCustomerById(created.id()).name());
+    }
+
+    @Test
+    void nameIndexes_ShouldFollowChangesMadeOnPeers() throws InterruptedException {
+        awaitTrue(() -> nodes.stream().allMatch(node -> node.getBean(CustomerNameSearchService.class).loadResult().isDone()));
+
+        CustomerDto created = service(0).saveCustomer(new CreateCustomerDto("Quintessa Vandermolen", "quintessa.vandermolen@example.com", null));
+        awaitTrue(() -> nameMatches(1, "Vandermolen").contains(created.id()) && nameMatches(2, "Vandermolen").contains(created.id()));
+
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(created.id());
+        update.setName("Quintessa Oosterhuis");
+        service(1).updateCustomer(update);
+        awaitTrue(() -> nameMatches(0, "Oosterhuis").contains(created.id()) && nameMatches(2, "Oosterhuis").contains(created.id()));
+        assertFalse(nameMatches(2, "Vandermolen").contains(created.id()));
+
+        service(2).deleteCustomer(created.id());
+        awaitTrue(() -> !nameMatches(0, "Oosterhuis").contains(created.id()) && !nameMatches(1, "Oosterhuis").contains(created.id()));
+    }
+
+    private static List<Long> nameMatches(int node, String name) {
+        return nodes.get(node).getBean(CustomerNameSearchService.class).findMatches(name, 10).stream()
+                .map(NameTrigramIndex.Match::id)
+                .toList();
+    }
+
+    private static CustomerService service(int node) {
+        return nodes.get(node).getBean(CustomerService.class);
+    }
+
+    private static Cache cache(int node) {
+        return nodes.get(node).getBean(CacheManager.class).getCache(CustomerService.CUSTOMER_CACHE);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "peers did not catch up in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static class InMemoryRegistry implements DiscoveryClient {
+        private final List<ServiceInstance> instances = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String description() {
+            return "In-memory registry";
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return instances.stream().filter(instance -> instance.getServiceId().equalsIgnoreCase(serviceId)).toList();
+        }
+
+        @Override
+        public List<String> getServices() {
+            return List.of(SERVICE_ID);
+        }
+    }
+}
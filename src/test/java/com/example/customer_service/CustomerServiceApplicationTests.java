@@ -1,16 +1,72 @@
 package com.example.customer_service;
 
 import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.grpc.CustomerGrpcServer;
+import com.example.customer_service.grpc.proto.CreateCustomerRequest;
+import com.example.customer_service.grpc.proto.CustomerServiceGrpc;
+import com.example.customer_service.grpc.proto.ListCustomersRequest;
+import com.example.customer_service.service.CustomerChangeService;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerNameSearchService;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
 class CustomerServiceApplicationTests {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private CustomerNameSearchService customerNameSearchService;
+
+    @Autowired
+    private CustomerIdFilter customerIdFilter;
+
+    @Autowired
+    private CustomerChangeService customerChangeService;
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CustomerGrpcServer customerGrpcServer;
+
+    @LocalServerPort
+    private int port;
 
     @Test
     void contextLoads() {
@@ -32,7 +88,7 @@ class CustomerServiceApplicationTests {
         String url = "/customers";
         CreateCustomerDto createCustomerDto = new CreateCustomerDto();
         createCustomerDto.setName("John Doe");
-        createCustomerDto.setEmail("john.doe@gmail.com");
+        createCustomerDto.setEmail("john.doe.list@gmail.com");
         createCustomerDto.setPhone("1234567890");
         //create customer
         restTemplate.postForEntity(url, createCustomerDto, String.class);
@@ -43,4 +99,270 @@ class CustomerServiceApplicationTests {
         System.out.println(result.getBody());
         assert result.getBody() != null && !result.getBody().isEmpty();
     }
+
+    @Test
+    void testStreamAllCustomersAsNdjson() {
+        String url = "/customers";
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Stream Doe");
+        createCustomerDto.setEmail("stream.doe@gmail.com");
+        restTemplate.postForEntity(url, createCustomerDto, String.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_NDJSON));
+        var result = restTemplate.exchange(url + "?stream=true", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assert result.getStatusCode().is2xxSuccessful();
+        assert result.getBody() != null && result.getBody().contains("stream.doe@gmail.com");
+        assert result.getBody().endsWith("\n");
+    }
+
+    @Test
+    void testChangeStreamDeliversNewCustomers() throws Exception {
+        // earlier changes may already be compacted by other tests sharing the database
+        long since = customerChangeService.currentOffset();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/customers/changes/stream?since=" + since))
+                .header(HttpHeaders.ACCEPT, MediaType.TEXT_EVENT_STREAM_VALUE)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            CompletableFuture<Boolean> delivered = CompletableFuture.supplyAsync(() -> {
+                try (Stream<String> lines = response.body()) {
+                    return lines.anyMatch(line -> line.startsWith("data:") && line.contains("sse.doe@gmail.com"));
+                }
+            });
+            CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+            createCustomerDto.setName("Sse Doe");
+            createCustomerDto.setEmail("sse.doe@gmail.com");
+            restTemplate.postForEntity("/customers", createCustomerDto, String.class);
+
+            assert delivered.get(10, TimeUnit.SECONDS);
+        }
+
+        var changes = restTemplate.getForEntity("/customers/changes?since=" + since, String.class);
+        assert changes.getStatusCode().is2xxSuccessful();
+        assert changes.getBody() != null && changes.getBody().contains("sse.doe@gmail.com");
+    }
+
+    @Test
+    void testScheduledTasksDoNotShareASingleThread() {
+        // the 20ms cache flush and the relay must not wait behind a compaction or a change log sync
+        assert taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize() >= 7;
+    }
+
+    @Test
+    void testPrometheusEndpointExposesServiceMetrics() {
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Metrics Doe");
+        createCustomerDto.setEmail("metrics.doe@gmail.com");
+        restTemplate.getForEntity(restTemplate.postForLocation("/customers", createCustomerDto), String.class);
+        // unknown ids on GET may be answered by the id filter, a delete always reaches the service
+        restTemplate.delete("/customers/-1");
+
+        var result = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assert result.getStatusCode().is2xxSuccessful();
+        String body = result.getBody();
+        assert body != null;
+        assert body.contains("customer_service_seconds_bucket");
+        assert body.contains("method=\"getCustomerById\"");
+        assert body.contains("exception=\"NotFoundException\"");
+        assert body.contains("customer_errors_total");
+        assert body.contains("spring_data_repository_invocations_seconds");
+        assert body.contains("customer_serialization_seconds");
+        assert body.contains("type=\"CustomerDto\"");
+        assert body.contains("hikaricp_connections");
+        assert body.contains("hibernate_");
+    }
+
+    @Test
+    void testConditionalReadAndUpdate() {
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Etag Doe");
+        createCustomerDto.setEmail("etag.doe@gmail.com");
+        var location = restTemplate.postForLocation("/customers", createCustomerDto);
+        var first = restTemplate.getForEntity(location, String.class);
+        String eTag = first.getHeaders().getETag();
+        assert eTag != null;
+
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(eTag);
+        var notModified = restTemplate.exchange(location, HttpMethod.GET, new HttpEntity<>(conditional), String.class);
+        assert notModified.getStatusCode().value() == 304;
+
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(Long.valueOf(location.getPath().substring(location.getPath().lastIndexOf('/') + 1)));
+        update.setName("Etag Updated");
+        update.setEmail("etag.doe@gmail.com");
+        HttpHeaders ifMatch = new HttpHeaders();
+        ifMatch.setIfMatch(eTag);
+        var updated = restTemplate.exchange(location, HttpMethod.PUT, new HttpEntity<>(update, ifMatch), String.class);
+        assert updated.getStatusCode().is2xxSuccessful();
+        assert !eTag.equals(updated.getHeaders().getETag());
+
+        var stale = restTemplate.exchange(location, HttpMethod.PUT, new HttpEntity<>(update, ifMatch), String.class);
+        assert stale.getStatusCode().value() == 412;
+    }
+
+    @Test
+    void testListingIsRateLimitedPerCaller() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/customers?limit=1"))
+                .header("X-Username", "rate-limited-caller")
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            List<HttpResponse<Void>> responses = Stream.generate(() -> client.sendAsync(request, HttpResponse.BodyHandlers.discarding()))
+                    .limit(40)
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+            var rejected = responses.stream().filter(response -> response.statusCode() == 429).findFirst();
+            assert rejected.isPresent();
+            assert Long.parseLong(rejected.get().headers().firstValue(HttpHeaders.RETRY_AFTER).orElseThrow()) >= 1;
+        }
+
+        HttpHeaders other = new HttpHeaders();
+        other.set("X-Username", "another-caller");
+        assert restTemplate.exchange("/customers?limit=1", HttpMethod.GET, new HttpEntity<>(other), String.class)
+                .getStatusCode().is2xxSuccessful();
+    }
+
+    @Test
+    void testCustomerAsCbor() throws Exception {
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Cbor Doe");
+        createCustomerDto.setEmail("cbor.doe@gmail.com");
+        var location = restTemplate.postForLocation("/customers", createCustomerDto);
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + location.getPath()))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_CBOR_VALUE)
+                .build();
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            assert response.statusCode() == 200;
+            assert response.headers().firstValue(HttpHeaders.CONTENT_TYPE).orElseThrow().startsWith(MediaType.APPLICATION_CBOR_VALUE);
+            CustomerDto customer = new CBORMapper().readValue(response.body(), CustomerDto.class);
+            assert customer.email().equals("cbor.doe@gmail.com");
+        }
+    }
+
+    @Test
+    void testLargeListIsGzipCompressed() throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/customers?limit=1000"))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header("X-Username", "gzip-caller")
+                .build();
+        String batch = Stream.iterate(0, i -> i + 1).limit(50)
+                .map(i -> "{\"name\":\"Gzip Doe " + i + "\",\"email\":\"gzip.doe" + i + "@gmail.com\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        restTemplate.postForEntity("/customers/batch", new HttpEntity<>(batch, headers), String.class);
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            assert response.statusCode() == 200;
+            assert response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElseThrow().equals("gzip");
+            try (var json = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+                byte[] decompressed = json.readAllBytes();
+                assert decompressed.length > response.body().length;
+                assert new String(decompressed, StandardCharsets.UTF_8).contains("\"items\"");
+            }
+        }
+    }
+
+    @Test
+    void testDuplicateEmailIsRejectedWithConflict() {
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Unique Doe");
+        createCustomerDto.setEmail("unique.doe@gmail.com");
+        assert restTemplate.postForEntity("/customers", createCustomerDto, String.class).getStatusCode().is2xxSuccessful();
+
+        createCustomerDto.setEmail("Unique.Doe@Gmail.com");
+        var duplicate = restTemplate.postForEntity("/customers", createCustomerDto, String.class);
+        assert duplicate.getStatusCode().value() == 409;
+        assert duplicate.getBody() != null && duplicate.getBody().contains("already exists");
+    }
+
+    @Test
+    void testRetriedCreateWithIdempotencyKeyReturnsSameCustomer() {
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Retry Doe");
+        createCustomerDto.setEmail("retry.doe@gmail.com");
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Idempotency-Key", "retry-doe-1");
+        headers.set("X-Username", "retry-client");
+        HttpEntity<CreateCustomerDto> request = new HttpEntity<>(createCustomerDto, headers);
+
+        var first = restTemplate.postForEntity("/customers", request, String.class);
+        var retry = restTemplate.postForEntity("/customers", request, String.class);
+        assert first.getStatusCode().value() == 201 && retry.getStatusCode().value() == 201;
+        assert first.getHeaders().getLocation().equals(retry.getHeaders().getLocation());
+        assert "true".equals(retry.getHeaders().getFirst("Idempotent-Replayed"));
+    }
+
+    @Test
+    void testNameSearchFindsMisspelledNameAndFollowsUpdates() {
+        customerNameSearchService.loadResult().join();
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Penelope Featherstonehaugh");
+        createCustomerDto.setEmail("penelope.featherstonehaugh@gmail.com");
+        URI location = restTemplate.postForLocation("/customers", createCustomerDto);
+
+        var found = restTemplate.getForEntity("/customers/search/names?name=penelope fetherstonhaugh", String.class);
+        assert found.getStatusCode().is2xxSuccessful();
+        assert found.getBody() != null && found.getBody().contains("penelope.featherstonehaugh@gmail.com");
+
+        UpdateCustomerDto updateCustomerDto = new UpdateCustomerDto();
+        updateCustomerDto.setId(Long.valueOf(location.getPath().substring(location.getPath().lastIndexOf('/') + 1)));
+        updateCustomerDto.setName("Penelope Marchbanks");
+        updateCustomerDto.setEmail(createCustomerDto.getEmail());
+        var updated = restTemplate.exchange(location, HttpMethod.PUT, new HttpEntity<>(updateCustomerDto), String.class);
+        assert updated.getStatusCode().is2xxSuccessful();
+        var renamed = restTemplate.getForEntity("/customers/search/names?name=featherstonehaugh", String.class);
+        assert renamed.getBody() != null && !renamed.getBody().contains("penelope.featherstonehaugh@gmail.com");
+        var current = restTemplate.getForEntity("/customers/search/names?name=marchbanks", String.class);
+        assert current.getBody() != null && current.getBody().contains("penelope.featherstonehaugh@gmail.com");
+    }
+
+    @Test
+    void testUnknownIdIsRejectedWithoutLookup() throws Exception {
+        CreateCustomerDto createCustomerDto = new CreateCustomerDto();
+        createCustomerDto.setName("Bloom Doe");
+        createCustomerDto.setEmail("bloom.doe@gmail.com");
+        URI location = restTemplate.postForLocation("/customers", createCustomerDto);
+        assert restTemplate.getForEntity(location, String.class).getStatusCode().value() == 200;
+        // ids are only ruled out once the filter has settled past them
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (customerIdFilter.mightExist(0)) {
+            assert System.nanoTime() < deadline;
+            Thread.sleep(50);
+        }
+        // the newest ids may have been issued on another instance and not be synced yet
+        assert customerIdFilter.mightExist(987654321987L);
+
+        double executed = meterRegistry.counter("customer.lookups", "result", "executed").count();
+        var missing = restTemplate.getForEntity("/customers/0", String.class);
+        assert missing.getStatusCode().value() == 404;
+        assert missing.getBody() != null && missing.getBody().contains("Customer not found with id: 0");
+        assert meterRegistry.counter("customer.lookups", "result", "executed").count() == executed;
+    }
+
+    @Test
+    void testGrpcServesTheSameCustomersAsRest() {
+        ManagedChannel channel = NettyChannelBuilder.forAddress("localhost", customerGrpcServer.getPort()).usePlaintext().build();
+        try {
+            CustomerServiceGrpc.CustomerServiceBlockingStub stub = CustomerServiceGrpc.newBlockingStub(channel);
+            long id = stub.createCustomer(CreateCustomerRequest.newBuilder()
+                    .setName("Grpc Doe").setEmail("grpc.doe@gmail.com").build()).getCustomer().getId();
+
+            var rest = restTemplate.getForEntity("/customers/" + id, String.class);
+            assert rest.getStatusCode().is2xxSuccessful() && rest.getBody().contains("grpc.doe@gmail.com");
+            List<Long> listed = new ArrayList<>();
+            stub.listCustomers(ListCustomersRequest.newBuilder().setAfterId(id - 1).build())
+                    .forEachRemaining(customer -> listed.add(customer.getId()));
+            assert listed.contains(id);
+        } finally {
+            channel.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,49 @@
+package com.example.customer_service;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.service.CustomerCacheWarmer;
+import com.example.customer_service.service.CustomerService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentProfileTests {
+
+    @Test
+    void profile_ShouldKeepDataAcrossRestarts_AndWarmTheCache(@TempDir Path dataDir) throws Exception {
+        Long id;
+        try (ConfigurableApplicationContext context = start(dataDir)) {
+            assertEquals("5", context.getBean(Flyway.class).info().current().getVersion().getVersion());
+            CustomerDto created = context.getBean(CustomerService.class)
+                    .saveCustomer(new CreateCustomerDto("Persistent Doe", "persistent.doe@example.com", null));
+            id = created.id();
+        }
+        assertTrue(Files.exists(dataDir.resolve("customer_service.mv.db")));
+
+        try (ConfigurableApplicationContext context = start(dataDir)) {
+            assertEquals(1, context.getBean(CustomerCacheWarmer.class).warmUpResult().get(10, TimeUnit.SECONDS));
+            CustomerDto cached = context.getBean(CacheManager.class).getCache(CustomerService.CUSTOMER_CACHE)
+                    .get(id, CustomerDto.class);
+            assertNotNull(cached);
+            assertEquals("Persistent Doe", cached.name());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Path dataDir) {
+        return new SpringApplicationBuilder(CustomerServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("persistent")
+                .run("--customer-service.data-dir=" + dataDir);
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.customer_service;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer_service_reactive"})
+@ActiveProfiles("reactive")
+class ReactiveProfileTests {
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void profile_ShouldServeCustomersFromNettyWithJpaWritesAndR2dbcReads() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+        WebTestClient client = WebTestClient.bindToServer().baseUrl("http://localhost:" + port).build();
+
+        URI location = client.post().uri("/customers")
+                .bodyValue(new CreateCustomerDto("Reactive Doe", "reactive.doe@example.com", null))
+                .exchange()
+                .expectStatus().isCreated()
+                .returnResult(Void.class).getResponseHeaders().getLocation();
+        assertNotNull(location);
+
+        client.get().uri(location.getPath())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectBody(CustomerDto.class).value(customer -> assertEquals("Reactive Doe", customer.name()));
+
+        client.post().uri("/customers")
+                .bodyValue(new CreateCustomerDto("Reactive Copy", "Reactive.Doe@example.com", null))
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        client.post().uri("/customers")
+                .bodyValue(new CreateCustomerDto("", "not-an-email", null))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.email").exists();
+
+        Flux<CustomerDto> stream = client.get().uri("/customers?stream=true")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CustomerDto.class).getResponseBody();
+        StepVerifier.create(stream.filter(customer -> customer.email().equals("reactive.doe@example.com")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        String eTag = client.get().uri("/customers?limit=10")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[0].name").isEqualTo("Reactive Doe")
+                .returnResult().getResponseHeaders().getETag();
+        client.get().uri("/customers?limit=10")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+}
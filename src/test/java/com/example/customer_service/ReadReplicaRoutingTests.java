@@ -0,0 +1,131 @@
+package com.example.customer_service;
+
+import com.example.customer_service.datasource.ConcurrencyLimitedDataSource;
+import com.example.customer_service.datasource.ReadReplicaDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:customer_service_primary",
+        "spring.jpa.open-in-view=false",
+        "customer-service.datasource.replica-urls=" + ReadReplicaRoutingTests.REPLICA_URL + ","
+                + ReadReplicaRoutingTests.LAGGING_REPLICA_URL + ",jdbc:h2:tcp://localhost:1/unreachable",
+        "customer-service.datasource.replica-connection-timeout=250ms",
+        "customer-service.datasource.health-check-interval=0s",
+        "customer-service.lookup.batch-window=5ms",
+        "customer-service.db.max-concurrency=16"
+})
+class ReadReplicaRoutingTests {
+    static final String REPLICA_URL = "jdbc:h2:mem:customer_service_replica;DB_CLOSE_DELAY=-1";
+    // has not applied the replica's last row yet
+    static final String LAGGING_REPLICA_URL = "jdbc:h2:mem:customer_service_lagging_replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReadReplicaDataSource replicaDataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    static void createReplicaSchema() {
+        for (String url : List.of(REPLICA_URL, LAGGING_REPLICA_URL)) {
+            Flyway.configure().dataSource(url, "sa", "password").load().migrate();
+            insert(url, 900_000L, "replica.doe@example.com");
+        }
+        insert(REPLICA_URL, 900_001L, "replica.roe@example.com");
+    }
+
+    private static void insert(String url, long id, String email) {
+        new JdbcTemplate(new DriverManagerDataSource(url, "sa", "password")).update(
+                "insert into customers (id, name, email, version, email_normalized, last_modified) values (?, ?, ?, 0, ?, ?)",
+                id, "Replica Doe", email, email, Timestamp.from(Instant.ofEpochSecond(id)));
+    }
+
+    @Test
+    void reads_ShouldBeServedByTheHealthyReplica_AndWritesByThePrimary() {
+        replicaDataSource.checkHealth();
+        assertEquals(2, replicaDataSource.healthyReplicas());
+
+        restTemplate.postForEntity("/customers",
+                Map.of("name", "Primary Doe", "email", "primary.doe@example.com"), Void.class);
+        String customers = restTemplate.getForObject("/customers", String.class);
+
+        assertTrue(customers.contains("replica.doe@example.com"));
+        assertFalse(customers.contains("primary.doe@example.com"));
+    }
+
+    @Test
+    void reads_ShouldStickToThePrimary_AfterTheClientsOwnWrite() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Username", "sticky-client");
+        restTemplate.exchange("/customers", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", "Sticky Doe", "email", "sticky.doe@example.com"), headers), Void.class);
+
+        String ownRead = restTemplate.exchange("/customers", HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+        String anonymousRead = restTemplate.getForObject("/customers", String.class);
+
+        assertTrue(ownRead.contains("sticky.doe@example.com"));
+        assertFalse(anonymousRead.contains("sticky.doe@example.com"));
+    }
+
+    @Test
+    void batchedLookup_ShouldStickToThePrimary_AfterTheClientsOwnWrite() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Username", "batched-client");
+        URI location = restTemplate.exchange("/customers", HttpMethod.POST,
+                new HttpEntity<>(Map.of("name", "Batched Doe", "email", "batched.doe@example.com"), headers), Void.class)
+                .getHeaders().getLocation();
+
+        ResponseEntity<Map> ownRead = restTemplate.exchange(location, HttpMethod.GET, new HttpEntity<>(headers), Map.class);
+
+        assertEquals(HttpStatus.OK, ownRead.getStatusCode());
+        assertEquals("batched.doe@example.com", ownRead.getBody().get("email"));
+    }
+
+    @Test
+    void databaseConcurrencyLimit_ShouldOnlyWrapThePool() {
+        // the router and the lazy proxy in front of the pool must not take a permit of their own
+        assertInstanceOf(ConcurrencyLimitedDataSource.class, primaryDataSource);
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+    }
+
+    @Test
+    void collectionETag_ShouldComeFromTheSameReplicaAsTheBody() {
+        for (int i = 0; i < 6; i++) {
+            ResponseEntity<List> response = restTemplate.getForEntity("/customers", List.class);
+            String eTag = response.getHeaders().getETag();
+
+            assertNotNull(eTag);
+            assertTrue(eTag.startsWith("W/\"" + response.getBody().size() + "-"), eTag + " for " + response.getBody());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.customer_service;
+
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.exception.NotImplementedException;
+import com.example.customer_service.job.CustomerJobService;
+import com.example.customer_service.model.CustomerJobFormat;
+import com.example.customer_service.service.CustomerBatchService;
+import com.example.customer_service.service.CustomerService;
+import com.example.customer_service.sharding.ShardMap;
+import com.example.customer_service.sharding.ShardMapRegistry;
+import com.example.customer_service.sharding.ShardRebalancer;
+import com.example.customer_service.sharding.ShardedCustomerService;
+import com.example.customer_service.sharding.ShardedCustomerStore;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "customer-service.sharding.shard-urls=jdbc:h2:mem:sharded_test_0,jdbc:h2:mem:sharded_test_1,jdbc:h2:mem:sharded_test_2",
+        "customer-service.sharding.node-id=3",
+        "customer-service.cache.warm-up.enabled=false"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ShardedProfileTests {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ShardedCustomerStore store;
+
+    @Autowired
+    private ShardRebalancer rebalancer;
+
+    @Autowired
+    private CustomerBatchService batchService;
+
+    @Autowired
+    private CustomerJobService jobService;
+
+    @Autowired
+    private ShardMapRegistry registry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @Order(1)
+    void customers_ShouldBeSpreadOverShards_AndPagedInIdOrder() {
+        assertInstanceOf(ShardedCustomerService.class, customerService);
+        List<Long> created = create("paged", 60);
+
+        assertTrue(store.rowCounts().stream().allMatch(count -> count > 0), "rows per shard: " + store.rowCounts());
+        assertEquals(created, collectPages(7).stream().filter(created::contains).toList());
+    }
+
+    @Test
+    @Order(2)
+    void pointOperations_ShouldRouteToTheOwningShard() {
+        CustomerDto created = customerService.saveCustomer(new CreateCustomerDto("Shard Point", "shard.point@example.com", "+233 24 000 0000"));
+
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(created.id());
+        update.setName("Shard Point Renamed");
+        update.setVersion(created.version());
+        CustomerDto updated = customerService.updateCustomer(update);
+
+        assertEquals("Shard Point Renamed", updated.name());
+        assertEquals(created.version() + 1, updated.version());
+        CustomerPageDto byEmail = customerService.searchCustomers("SHARD.POINT@example.com", null, null, null, 10);
+        assertEquals(List.of(created.id()), byEmail.items().stream().map(CustomerDto::id).toList());
+        CustomerPageDto byName = customerService.searchCustomers(null, null, "shard point r", null, 10);
+        assertEquals(List.of(created.id()), byName.items().stream().map(CustomerDto::id).toList());
+
+        customerService.deleteCustomer(created.id());
+        assertThrows(NotFoundException.class, () -> customerService.getCustomerById(created.id()));
+    }
+
+    @Test
+    @Order(3)
+    void moveRange_ShouldRelocateRowsWithoutLosingConcurrentWrites() {
+        List<Long> existing = create("moved", 40);
+        List<Long> concurrent = new ArrayList<>();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> concurrent.addAll(create("concurrent", 100)));
+
+        ShardRebalancer.Result result = rebalancer.moveRange(0, ShardMap.HASH_BUCKETS, 1);
+        writer.join();
+
+        assertTrue(result.copied() > 0);
+        List<Long> counts = store.rowCounts();
+        assertEquals(0L, counts.get(0) + counts.get(2), "rows left on old shards: " + counts);
+        Set<Long> listed = new HashSet<>(collectPages(50));
+        assertTrue(listed.containsAll(existing));
+        assertTrue(listed.containsAll(concurrent));
+        existing.forEach(id -> assertEquals(id, customerService.getCustomerById(id).id()));
+        assertEquals(listed.size(), collectPages(50).size());
+    }
+
+    @Test
+    @Order(4)
+    void batchWritesAndJobs_ShouldBeRejected_BecauseTheyBypassTheShards() {
+        Iterator<CreateCustomerDto> batch = List.of(new CreateCustomerDto("Batch Doe", "batch@sharded.example.com", null)).iterator();
+
+        assertThrows(NotImplementedException.class, () -> batchService.createCustomers(batch, BatchMode.CHUNKED));
+        assertThrows(NotImplementedException.class, () -> batchService.deleteCustomers(List.of(1L).iterator(), BatchMode.CHUNKED));
+        assertThrows(NotImplementedException.class, () -> jobService.startImport(CustomerJobFormat.CSV, InputStream.nullInputStream()));
+        assertThrows(NotImplementedException.class, () -> jobService.startExport(CustomerJobFormat.NDJSON));
+    }
+
+    @Test
+    @Order(5)
+    void moveRange_ShouldKeepRowsOnTheirOldShard_UntilEveryNodeAdoptedTheNewMap() {
+        List<Long> existing = create("adopted", 40);
+        ShardMapRegistry lagging = new ShardMapRegistry(new NamedParameterJdbcTemplate(dataSource), 7, Duration.ofSeconds(15));
+        lagging.register(store.shardMap().version());
+
+        ShardRebalancer.Result result = rebalancer.moveRange(0, ShardMap.HASH_BUCKETS, 2);
+
+        assertEquals(0, result.purged());
+        assertEquals(result.version(), registry.latest().map().version());
+        assertTrue(store.rowCounts().get(1) > 0, "rows purged before every node adopted the map: " + store.rowCounts());
+        assertThrows(ConflictException.class, () -> rebalancer.moveRange(0, ShardMap.HASH_BUCKETS, 0));
+        existing.forEach(id -> assertEquals(id, customerService.getCustomerById(id).id()));
+
+        lagging.heartbeat(result.version());
+        rebalancer.refresh();
+        lagging.deregister();
+
+        List<Long> counts = store.rowCounts();
+        assertEquals(0L, counts.get(0) + counts.get(1), "rows left on old shards: " + counts);
+        assertTrue(new HashSet<>(collectPages(50)).containsAll(existing));
+    }
+
+    @Test
+    @Order(6)
+    void register_ShouldFail_WhenAnotherLiveInstanceHoldsTheNodeId() {
+        ShardMapRegistry duplicate = new ShardMapRegistry(new NamedParameterJdbcTemplate(dataSource), registry.nodeId(), Duration.ofSeconds(15));
+
+        assertThrows(IllegalStateException.class, () -> duplicate.register(store.shardMap().version()));
+    }
+
+    private List<Long> create(String prefix, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(customerService.saveCustomer(
+                    new CreateCustomerDto("Sharded " + prefix + " " + i, prefix + i + "@sharded.example.com", null)).id());
+        }
+        return ids;
+    }
+
+    private List<Long> collectPages(int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        Long after = null;
+        do {
+            CustomerPageDto page = customerService.getCustomers(after, pageSize);
+            page.items().forEach(customer -> ids.add(customer.id()));
+            after = page.nextCursor();
+        } while (after != null);
+        return ids;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.customer_service;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.datasource.ConcurrencyLimitedDataSource;
+import com.example.customer_service.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:customer_service_virtual_threads")
+@ActiveProfiles("virtual-threads")
+class VirtualThreadsProfileTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void profile_ShouldLimitDatabaseConcurrencyAndUseVirtualThreadExecutor() throws InterruptedException {
+        assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+        assertInstanceOf(SimpleAsyncTaskExecutor.class, applicationTaskExecutor);
+
+        CreateCustomerDto dto = new CreateCustomerDto("Virtual Doe", "virtual.doe@example.com", null);
+        Long id = customerService.saveCustomer(dto).id();
+
+        assertEquals("Virtual Doe", customerService.getCustomerById(id).name());
+        // scheduled tasks borrow connections too, every permit must be back once they are done
+        ConcurrencyLimitedDataSource limited = (ConcurrencyLimitedDataSource) dataSource;
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (limited.availablePermits() != 32) {
+            assertTrue(System.nanoTime() < deadline, "permits were not released: " + limited.availablePermits());
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.customer_service.cache;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionedCustomerCacheTest {
+
+    private final VersionedCustomerCache cache = new VersionedCustomerCache("customers",
+            Caffeine.newBuilder().build(), true, Caffeine.newBuilder().build());
+
+    @Test
+    void invalidate_ShouldEvictOlderEntries_AndRejectStalePuts() {
+        cache.put(1L, customer(1L, 0L));
+
+        cache.invalidate(1L, 1L);
+        assertNull(cache.get(1L));
+
+        cache.put(1L, customer(1L, 0L));
+        assertNull(cache.get(1L));
+        assertNull(cache.putIfAbsent(1L, customer(1L, 0L)));
+        assertNull(cache.get(1L));
+
+        cache.put(1L, customer(1L, 1L));
+        assertEquals(1L, cache.get(1L, CustomerDto.class).version());
+    }
+
+    @Test
+    void invalidate_ShouldIgnoreLateVersions() {
+        cache.invalidate(1L, 2L);
+        cache.put(1L, customer(1L, 2L));
+
+        cache.invalidate(1L, 1L);
+
+        assertEquals(2L, cache.get(1L, CustomerDto.class).version());
+        cache.put(1L, customer(1L, 1L));
+        assertEquals(2L, cache.get(1L, CustomerDto.class).version());
+    }
+
+    @Test
+    void invalidate_ShouldKeepDeletedCustomersOut() {
+        cache.put(1L, customer(1L, 5L));
+
+        cache.invalidate(1L, VersionedCustomerCache.DELETED);
+        cache.put(1L, customer(1L, 5L));
+        cache.invalidate(1L, 6L);
+
+        assertNull(cache.get(1L));
+        cache.put(2L, customer(2L, 0L));
+        assertNotNull(cache.get(2L));
+    }
+
+    private static CustomerDto customer(long id, long version) {
+        return new CustomerDto(id, "Versioned Doe", "versioned" + id + "@example.com", null, version);
+    }
+}
@@ -0,0 +1,594 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.dto.BatchItemResultDto;
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.BatchResultDto;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupRequestDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.exception.NotImplementedException;
+import com.example.customer_service.search.NameTrigramIndex;
+import com.example.customer_service.service.CustomerBatchService;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerNameSearchService;
+import com.example.customer_service.service.CustomerService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Controller scenarios shared by the servlet and the WebFlux stack, so the two cannot drift apart. Writes go
+ * through the same blocking services on both; each stack stubs its own read path through the hooks.
+ */
+@ExtendWith(MockitoExtension.class)
+abstract class AbstractCustomerControllerTest {
+
+    @Mock
+    protected CustomerService customerService;
+
+    @Mock
+    protected CustomerBatchService customerBatchService;
+
+    @Mock
+    protected CustomerNameSearchService customerNameSearchService;
+
+    @Mock
+    protected CustomerIdFilter customerIdFilter;
+
+    protected final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WebTestClient client;
+    private CustomerDto customerDto;
+    private CreateCustomerDto createCustomerDto;
+    private UpdateCustomerDto updateCustomerDto;
+
+    abstract WebTestClient bindClient();
+
+    abstract void givenCustomer(CustomerDto customer);
+
+    abstract void givenNoCustomer(long id);
+
+    abstract void givenCollectionStamp(long count, Instant lastModified);
+
+    abstract void givenAllCustomers(List<CustomerDto> customers);
+
+    abstract void givenAllCustomersMustNotBeRead();
+
+    abstract void givenPage(Long after, int limit, List<CustomerDto> items, boolean more);
+
+    abstract void givenStream(List<CustomerDto> customers);
+
+    abstract void givenLookup(List<Long> ids, List<CustomerDto> found);
+
+    abstract void givenNameMatches(String name, List<NameTrigramIndex.Match> matches, List<CustomerDto> customers);
+
+    abstract void verifyNoReads();
+
+    abstract String validationException();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(customerIdFilter.mightExist(anyLong())).thenReturn(true);
+        client = bindClient();
+
+        customerDto = new CustomerDto(1L, "John Doe", "john.doe@example.com", "1234567890");
+        createCustomerDto = new CreateCustomerDto("John Doe", "john.doe@example.com", "1234567890");
+
+        updateCustomerDto = new UpdateCustomerDto();
+        updateCustomerDto.setId(1L);
+        updateCustomerDto.setName("Jane Doe");
+        updateCustomerDto.setEmail("jane.doe@example.com");
+        updateCustomerDto.setPhone("0987654321");
+    }
+
+    @Test
+    void saveCustomer_ShouldReturnCreatedStatusAndLocation_WhenValidDtoProvided() {
+        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenReturn(customerDto);
+
+        client.post().uri("/customers").bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("Location", "/customers/1");
+
+        verify(customerService).saveCustomer(any(CreateCustomerDto.class));
+    }
+
+    @Test
+    void saveCustomer_ShouldReplayFirstResponse_WhenIdempotencyKeyRepeated() {
+        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenReturn(customerDto);
+
+        for (String replayed : List.of("false", "true")) {
+            client.post().uri("/customers")
+                    .header("Idempotency-Key", "create-1")
+                    .header("X-Username", "alice")
+                    .bodyValue(createCustomerDto)
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectHeader().valueEquals("Location", "/customers/1")
+                    .expectHeader().valueEquals("Idempotent-Replayed", replayed);
+        }
+
+        verify(customerService, times(1)).saveCustomer(any(CreateCustomerDto.class));
+    }
+
+    @Test
+    void saveCustomer_ShouldReturnBadRequest_WhenIdempotencyKeyReusedForDifferentCustomer() {
+        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenReturn(customerDto);
+        client.post().uri("/customers")
+                .header("Idempotency-Key", "create-2")
+                .header("X-Username", "alice")
+                .bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isCreated();
+
+        createCustomerDto.setEmail("someone.else@example.com");
+        client.post().uri("/customers")
+                .header("Idempotency-Key", "create-2")
+                .header("X-Username", "alice")
+                .bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(customerService, times(1)).saveCustomer(any(CreateCustomerDto.class));
+    }
+
+    @Test
+    void saveCustomer_ShouldReturnBadRequest_WhenIdempotencyKeyHasNoCaller() {
+        client.post().uri("/customers")
+                .header("Idempotency-Key", "create-3")
+                .bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Idempotency-Key requires a caller identity");
+
+        verify(customerService, never()).saveCustomer(any(CreateCustomerDto.class));
+    }
+
+    @Test
+    void saveCustomer_ShouldReturnServiceUnavailable_WhenNoDatabaseConnectionWithinTimeout() {
+        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenThrow(new CannotCreateTransactionException(
+                "Could not open JPA EntityManager for transaction",
+                new SQLTransientConnectionException("Database concurrency limit reached, no permit within 2000ms")));
+
+        client.post().uri("/customers").bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isEqualTo(503)
+                .expectHeader().valueEquals("Retry-After", "1")
+                .expectBody().jsonPath("$.message").isEqualTo("The database is unavailable, retry later");
+    }
+
+    @Test
+    void saveCustomer_ShouldReturnConflict_WhenEmailAlreadyExists() {
+        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new SQLException("Unique index or primary key violation: \"PUBLIC.UX_CUSTOMERS_EMAIL_NORMALIZED_INDEX_6 ON PUBLIC.CUSTOMERS(EMAIL_NORMALIZED)\"")));
+
+        client.post().uri("/customers").bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.message").isEqualTo("A customer with this email already exists");
+
+        assertEquals(1.0, meterRegistry.counter("customer.errors", "exception", "DataIntegrityViolationException").count());
+    }
+
+    @Test
+    void saveCustomer_ShouldReturnBadRequestAndCountError_WhenDtoInvalid() {
+        createCustomerDto.setEmail("not-an-email");
+
+        client.post().uri("/customers").bodyValue(createCustomerDto)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors.email").exists();
+
+        assertEquals(1.0, meterRegistry.counter("customer.errors", "exception", validationException()).count());
+        verify(customerService, never()).saveCustomer(any(CreateCustomerDto.class));
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnOkStatusAndUpdatedCustomer_WhenValidDtoProvided() {
+        when(customerService.updateCustomer(any(UpdateCustomerDto.class))).thenReturn(customerDto);
+
+        client.put().uri("/customers/1").bodyValue(updateCustomerDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo(customerDto.name())
+                .jsonPath("$.email").isEqualTo(customerDto.email())
+                .jsonPath("$.phone").isEqualTo(customerDto.phone());
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnNotFound_WhenCustomerNotFound() {
+        when(customerService.updateCustomer(any(UpdateCustomerDto.class)))
+                .thenThrow(new NotFoundException("Customer not found with id: 1"));
+
+        client.put().uri("/customers/1").bodyValue(updateCustomerDto)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnConflict_WhenVersionIsStale() {
+        when(customerService.updateCustomer(any(UpdateCustomerDto.class)))
+                .thenThrow(new ConflictException("Customer 1 was modified concurrently, expected version: 3"));
+
+        client.put().uri("/customers/1").bodyValue(updateCustomerDto)
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody().jsonPath("$.status").isEqualTo(409);
+    }
+
+    @Test
+    void updateCustomer_ShouldPassIfMatchVersionToService() {
+        when(customerService.updateCustomer(any(UpdateCustomerDto.class)))
+                .thenReturn(new CustomerDto(1L, "Jane Doe", "jane.doe@example.com", "0987654321", 5L));
+
+        client.put().uri("/customers/1").header("If-Match", "\"4\"").bodyValue(updateCustomerDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"5\"");
+
+        ArgumentCaptor<UpdateCustomerDto> captor = ArgumentCaptor.forClass(UpdateCustomerDto.class);
+        verify(customerService).updateCustomer(captor.capture());
+        assertEquals(4L, captor.getValue().getVersion());
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() {
+        when(customerService.updateCustomer(any(UpdateCustomerDto.class)))
+                .thenThrow(new ConflictException("Customer 1 was modified concurrently, expected version: 4"));
+
+        client.put().uri("/customers/1").header("If-Match", "\"4\"").bodyValue(updateCustomerDto)
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody().jsonPath("$.status").isEqualTo(412);
+    }
+
+    @Test
+    void updateCustomer_ShouldReturnPreconditionFailed_WhenIfMatchIsNotAnIssuedETag() {
+        client.put().uri("/customers/1").header("If-Match", "W/\"4\"").bodyValue(updateCustomerDto)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        verify(customerService, never()).updateCustomer(any(UpdateCustomerDto.class));
+    }
+
+    @Test
+    void deleteCustomer_ShouldReturnNoContent_WhenCustomerExists() {
+        client.delete().uri("/customers/1")
+                .exchange()
+                .expectStatus().isNoContent();
+
+        verify(customerService).deleteCustomer(1L);
+    }
+
+    @Test
+    void deleteCustomer_ShouldReturnNotFound_WhenCustomerNotFound() {
+        doThrow(new NotFoundException("Customer not found with id: 1")).when(customerService).deleteCustomer(1L);
+
+        client.delete().uri("/customers/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnOkStatusAndCustomer_WhenCustomerExists() {
+        givenCustomer(customerDto);
+
+        client.get().uri("/customers/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.name").isEqualTo(customerDto.name())
+                .jsonPath("$.email").isEqualTo(customerDto.email())
+                .jsonPath("$.phone").isEqualTo(customerDto.phone());
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotFound_WhenCustomerNotFound() {
+        givenNoCustomer(1L);
+
+        client.get().uri("/customers/1")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.message").isEqualTo("Customer not found with id: 1");
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotFoundWithoutLookup_WhenIdFilterRulesItOut() {
+        when(customerIdFilter.mightExist(42L)).thenReturn(false);
+
+        client.get().uri("/customers/42")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Customer not found with id: 42")
+                .jsonPath("$.errors").doesNotExist();
+
+        assertEquals(1.0, meterRegistry.counter("customer.errors", "exception", "NotFoundException").count());
+        verifyNoReads();
+    }
+
+    @Test
+    void getCustomerById_ShouldReturnNotModified_WhenETagMatches() {
+        givenCustomer(new CustomerDto(1L, "John Doe", "john.doe@example.com", "1234567890", 4L));
+
+        client.get().uri("/customers/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"");
+
+        client.get().uri("/customers/1").header("If-None-Match", "\"4\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getAllCustomers_ShouldReturnOkStatusAndCustomerList_WhenCustomersExist() {
+        givenCollectionStamp(1, null);
+        givenAllCustomers(List.of(customerDto));
+
+        client.get().uri("/customers")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "W/\"1-0\"")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo(customerDto.name())
+                .jsonPath("$[0].email").isEqualTo(customerDto.email())
+                .jsonPath("$[0].phone").isEqualTo(customerDto.phone());
+    }
+
+    @Test
+    void getAllCustomers_ShouldReturnOkStatusAndEmptyList_WhenNoCustomersExist() {
+        givenCollectionStamp(0, null);
+        givenAllCustomers(List.of());
+
+        client.get().uri("/customers")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[]");
+    }
+
+    @Test
+    void getAllCustomers_ShouldReturnNotModifiedWithoutLoading_WhenCollectionETagMatches() {
+        givenCollectionStamp(3, Instant.ofEpochSecond(1_700_000_000L));
+        givenAllCustomersMustNotBeRead();
+
+        client.get().uri("/customers").header("If-None-Match", "\"3-1700000000000000\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "W/\"3-1700000000000000\"");
+    }
+
+    @Test
+    void getCustomersPage_ShouldReturnItemsNextCursorAndCollectionETag() {
+        givenCollectionStamp(1, null);
+        givenPage(5L, 1, List.of(customerDto), true);
+
+        client.get().uri("/customers?limit=1&after=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "W/\"1-0\"")
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.nextCursor").isEqualTo(1);
+    }
+
+    @Test
+    void getCustomersPage_ShouldReturnThePage_WhenCollectionETagDoesNotMatch() {
+        givenCollectionStamp(1, Instant.ofEpochSecond(0, 5_000));
+        givenPage(null, 10, List.of(customerDto), false);
+
+        client.get().uri("/customers?limit=10").header("If-None-Match", "\"0-1\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "W/\"1-5\"")
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.nextCursor").doesNotExist();
+    }
+
+    @Test
+    void streamAllCustomers_ShouldWriteNdjson_WhenNdjsonAccepted() {
+        CustomerDto other = new CustomerDto(2L, "Jane Doe", "jane.doe@example.com", null);
+        givenStream(List.of(customerDto, other));
+
+        client.get().uri("/customers?stream=true").accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(CustomerDto.class).isEqualTo(List.of(customerDto, other));
+    }
+
+    @Test
+    void streamAllCustomers_ShouldWriteJsonArray_ByDefault() {
+        givenStream(List.of(customerDto));
+
+        client.get().uri("/customers?stream=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(1)
+                .jsonPath("$[0].name").isEqualTo(customerDto.name());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveCustomers_ShouldReturnPerItemResults_WhenJsonArrayProvided() {
+        BatchResultDto batchResult = new BatchResultDto(1, 1, List.of(
+                new BatchItemResultDto(0, 1L, true, null),
+                new BatchItemResultDto(1, null, false, "email: must not be blank")));
+        when(customerBatchService.createCustomers(any(Iterator.class), eq(BatchMode.CHUNKED))).thenAnswer(invocation -> {
+            Iterator<CreateCustomerDto> items = invocation.getArgument(0);
+            int count = 0;
+            while (items.hasNext()) {
+                items.next();
+                count++;
+            }
+            return count == 2 ? batchResult : null;
+        });
+
+        client.post().uri("/customers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(createCustomerDto, new CreateCustomerDto()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.succeeded").isEqualTo(1)
+                .jsonPath("$.failed").isEqualTo(1)
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.items[1].error").isEqualTo("email: must not be blank");
+    }
+
+    @Test
+    void saveCustomers_ShouldReturnNotImplemented_WhenBatchWritesAreUnsupported() {
+        when(customerBatchService.createCustomers(any(), eq(BatchMode.CHUNKED)))
+                .thenThrow(new NotImplementedException("Batch writes are not supported while customers are sharded"));
+
+        client.post().uri("/customers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isEqualTo(501)
+                .expectBody().jsonPath("$.message").isEqualTo("Batch writes are not supported while customers are sharded");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void updateCustomers_ShouldReadNdjsonAndPassMode() throws JsonProcessingException {
+        when(customerBatchService.updateCustomers(any(Iterator.class), eq(BatchMode.ATOMIC)))
+                .thenReturn(new BatchResultDto(1, 0, List.of(new BatchItemResultDto(0, 1L, true, null))));
+
+        client.put().uri("/customers/batch?mode=ATOMIC")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(objectMapper.writeValueAsString(updateCustomerDto) + "\n")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.succeeded").isEqualTo(1);
+
+        verify(customerBatchService).updateCustomers(any(Iterator.class), eq(BatchMode.ATOMIC));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void deleteCustomers_ShouldReturnPerItemResults() {
+        when(customerBatchService.deleteCustomers(any(Iterator.class), eq(BatchMode.CHUNKED)))
+                .thenReturn(new BatchResultDto(1, 1, List.of(
+                        new BatchItemResultDto(0, 1L, true, null),
+                        new BatchItemResultDto(1, 2L, false, "Customer not found with id: 2"))));
+
+        client.method(HttpMethod.DELETE).uri("/customers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[1, 2]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[1].success").isEqualTo(false);
+    }
+
+    @Test
+    void searchCustomers_ShouldReturnMatchingPage() {
+        when(customerService.searchCustomers("john.doe@example.com", null, null, null, 50))
+                .thenReturn(new CustomerPageDto(List.of(customerDto), null));
+
+        client.get().uri("/customers/search?email=john.doe@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.items[0].email").isEqualTo(customerDto.email());
+    }
+
+    @Test
+    void searchCustomers_ShouldReturnBadRequest_WhenNoCriteriaProvided() {
+        when(customerService.searchCustomers(null, null, null, null, 50))
+                .thenThrow(new BadRequestException("At least one of email, phone or name must be provided"));
+
+        client.get().uri("/customers/search")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.status").isEqualTo(400);
+    }
+
+    @Test
+    void searchNames_ShouldReturnMatchedCustomersInRankOrder() {
+        CustomerDto other = new CustomerDto(2L, "Jon Doe", "jon.doe@example.com", null);
+        givenNameMatches("jonh doe", List.of(new NameTrigramIndex.Match(2L, 0.9, 0.8), new NameTrigramIndex.Match(1L, 0.75, 0.6)),
+                List.of(customerDto, other));
+
+        client.get().uri("/customers/search/names?name=jonh doe")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].customer.id").isEqualTo(2)
+                .jsonPath("$.items[1].customer.id").isEqualTo(1)
+                .jsonPath("$.items[1].score").isEqualTo(0.75);
+    }
+
+    @Test
+    void getCustomersByIds_ShouldReturnFoundAndMissingIds() {
+        givenLookup(List.of(1L, 7L), List.of(customerDto));
+
+        client.get().uri("/customers?ids=1,7")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.missing[0]").isEqualTo(7);
+    }
+
+    @Test
+    void lookupCustomers_ShouldReturnFoundAndMissingIds() {
+        givenLookup(List.of(7L, 1L), List.of(customerDto));
+
+        client.post().uri("/customers/lookup")
+                .bodyValue(new CustomerLookupRequestDto(List.of(7L, 1L)))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].id").isEqualTo(1)
+                .jsonPath("$.missing[0]").isEqualTo(7);
+    }
+
+    @Test
+    void lookupCustomers_ShouldReturnBadRequest_WhenNoIdsProvided() {
+        client.post().uri("/customers/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"ids\":[]}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoReads();
+    }
+}
@@ -1,174 +1,110 @@
 package com.example.customer_service.controller;
 
-import com.example.customer_service.dto.CreateCustomerDto;
 import com.example.customer_service.dto.CustomerDto;
-import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerNameMatchDto;
+import com.example.customer_service.dto.CustomerNameSearchDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.exception.ErrorMetrics;
 import com.example.customer_service.exception.GlobalException;
 import com.example.customer_service.exception.NotFoundException;
-import com.example.customer_service.service.CustomerService;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.search.NameTrigramIndex;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.http.MediaType;
-import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.client.MockMvcWebTestClient;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
-
-@ExtendWith(MockitoExtension.class)
-class CustomerControllerTest {
-
-    @Mock
-    private CustomerService customerService;
-
-    @InjectMocks
-    private CustomerController customerController;
-
-    private MockMvc mockMvc;
-    private ObjectMapper objectMapper;
-    private CustomerDto customerDto;
-    private CreateCustomerDto createCustomerDto;
-    private UpdateCustomerDto updateCustomerDto;
-
-    @BeforeEach
-    void setUp() {
-        mockMvc = MockMvcBuilders.standaloneSetup(customerController)
-                .setControllerAdvice(new GlobalException()).build();
-        objectMapper = new ObjectMapper();
-
-        customerDto = new CustomerDto(1L, "John Doe", "john.doe@example.com", "1234567890");
-        createCustomerDto = new CreateCustomerDto();
-        createCustomerDto.setName("John Doe");
-        createCustomerDto.setEmail("john.doe@example.com");
-        createCustomerDto.setPhone("1234567890");
-
-        updateCustomerDto = new UpdateCustomerDto();
-        updateCustomerDto.setId(1L);
-        updateCustomerDto.setName("Jane Doe");
-        updateCustomerDto.setEmail("jane.doe@example.com");
-        updateCustomerDto.setPhone("0987654321");
-    }
-
-    @Test
-    void saveCustomer_ShouldReturnCreatedStatusAndLocation_WhenValidDtoProvided() throws Exception {
-        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenReturn(customerDto);
-
-        mockMvc.perform(post("/customers")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(createCustomerDto)))
-                .andExpect(status().isCreated())
-                .andExpect(header().string("Location", "/customers/1"));
 
-        verify(customerService).saveCustomer(any(CreateCustomerDto.class));
+class CustomerControllerTest extends AbstractCustomerControllerTest {
+
+    @Override
+    WebTestClient bindClient() {
+        lenient().when(customerService.withCustomersETag(any()))
+                .thenAnswer(invocation -> invocation.<Function<String, ?>>getArgument(0).apply(customerService.getCustomersETag()));
+        CustomerController controller = new CustomerController(customerService, customerBatchService,
+                customerNameSearchService, customerIdFilter, new ObjectMapper(), new IdempotencyStore(100, Duration.ofMinutes(1)));
+        return MockMvcWebTestClient.bindTo(MockMvcBuilders.standaloneSetup(controller)
+                        .setControllerAdvice(new GlobalException(new ErrorMetrics(meterRegistry)))
+                        .build())
+                .build();
     }
 
-    @Test
-    void updateCustomer_ShouldReturnOkStatusAndUpdatedCustomer_WhenValidDtoProvided() throws Exception {
-        when(customerService.updateCustomer(any(UpdateCustomerDto.class))).thenReturn(customerDto);
-
-        mockMvc.perform(put("/customers/1")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateCustomerDto)))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(customerDto.id()))
-                .andExpect(jsonPath("$.name").value(customerDto.name()))
-                .andExpect(jsonPath("$.email").value(customerDto.email()))
-                .andExpect(jsonPath("$.phone").value(customerDto.phone()));
-
-        verify(customerService).updateCustomer(any(UpdateCustomerDto.class));
+    @Override
+    void givenCustomer(CustomerDto customer) {
+        when(customerService.getCustomerById(customer.id())).thenReturn(customer);
     }
 
-    @Test
-    void updateCustomer_ShouldReturnNotFound_WhenCustomerNotFound() throws Exception {
-        when(customerService.updateCustomer(any(UpdateCustomerDto.class)))
-                .thenThrow(new NotFoundException("Customer not found with id: 1"));
-
-        mockMvc.perform(put("/customers/1")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(updateCustomerDto)))
-                .andExpect(status().isNotFound());
-
-        verify(customerService).updateCustomer(any(UpdateCustomerDto.class));
+    @Override
+    void givenNoCustomer(long id) {
+        when(customerService.getCustomerById(id)).thenThrow(NotFoundException.customer(id));
     }
 
-    @Test
-    void deleteCustomer_ShouldReturnNoContent_WhenCustomerExists() throws Exception {
-        doNothing().when(customerService).deleteCustomer(1L);
-
-        mockMvc.perform(delete("/customers/1"))
-                .andExpect(status().isNoContent());
-
-        verify(customerService).deleteCustomer(1L);
+    @Override
+    void givenCollectionStamp(long count, Instant lastModified) {
+        long micros = lastModified == null ? 0L : lastModified.getEpochSecond() * 1_000_000L + lastModified.getNano() / 1_000L;
+        when(customerService.getCustomersETag()).thenReturn(count + "-" + micros);
     }
 
-    @Test
-    void deleteCustomer_ShouldReturnNotFound_WhenCustomerNotFound() throws Exception {
-        doThrow(new NotFoundException("Customer not found with id: 1")).when(customerService).deleteCustomer(1L);
-
-        mockMvc.perform(delete("/customers/1"))
-                .andExpect(status().isNotFound());
-
-        verify(customerService).deleteCustomer(1L);
+    @Override
+    void givenAllCustomers(List<CustomerDto> customers) {
+        when(customerService.getAllCustomers()).thenReturn(customers);
     }
 
-    @Test
-    void getCustomerById_ShouldReturnOkStatusAndCustomer_WhenCustomerExists() throws Exception {
-        when(customerService.getCustomerById(1L)).thenReturn(customerDto);
-
-        mockMvc.perform(get("/customers/1"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(customerDto.id()))
-                .andExpect(jsonPath("$.name").value(customerDto.name()))
-                .andExpect(jsonPath("$.email").value(customerDto.email()))
-                .andExpect(jsonPath("$.phone").value(customerDto.phone()));
-
-        verify(customerService).getCustomerById(1L);
+    @Override
+    void givenAllCustomersMustNotBeRead() {
+        lenient().when(customerService.getAllCustomers()).thenThrow(new AssertionError("table must not be read"));
     }
 
-    @Test
-    void getCustomerById_ShouldReturnNotFound_WhenCustomerNotFound() throws Exception {
-        when(customerService.getCustomerById(1L))
-                .thenThrow(new NotFoundException("Customer not found with id: 1"));
-
-        mockMvc.perform(get("/customers/1"))
-                .andExpect(status().isNotFound());
-
-        verify(customerService).getCustomerById(1L);
+    @Override
+    void givenPage(Long after, int limit, List<CustomerDto> items, boolean more) {
+        when(customerService.getCustomers(after, limit))
+                .thenReturn(new CustomerPageDto(items, more ? items.get(items.size() - 1).id() : null));
     }
 
-    @Test
-    void getAllCustomers_ShouldReturnOkStatusAndCustomerList_WhenCustomersExist() throws Exception {
-        List<CustomerDto> customers = List.of(customerDto);
-        when(customerService.getAllCustomers()).thenReturn(customers);
-
-        mockMvc.perform(get("/customers"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(customerDto.id()))
-                .andExpect(jsonPath("$[0].name").value(customerDto.name()))
-                .andExpect(jsonPath("$[0].email").value(customerDto.email()))
-                .andExpect(jsonPath("$[0].phone").value(customerDto.phone()));
+    @Override
+    @SuppressWarnings("unchecked")
+    void givenStream(List<CustomerDto> customers) {
+        doAnswer(invocation -> {
+            customers.forEach(invocation.<Consumer<CustomerDto>>getArgument(0));
+            return null;
+        }).when(customerService).streamAllCustomers(any(Consumer.class));
+    }
 
-        verify(customerService).getAllCustomers();
+    @Override
+    void givenLookup(List<Long> ids, List<CustomerDto> found) {
+        List<Long> foundIds = found.stream().map(CustomerDto::id).toList();
+        when(customerService.lookupCustomers(ids))
+                .thenReturn(new CustomerLookupDto(found, ids.stream().filter(id -> !foundIds.contains(id)).toList()));
     }
 
-    @Test
-    void getAllCustomers_ShouldReturnOkStatusAndEmptyList_WhenNoCustomersExist() throws Exception {
-        when(customerService.getAllCustomers()).thenReturn(List.of());
+    @Override
+    void givenNameMatches(String name, List<NameTrigramIndex.Match> matches, List<CustomerDto> customers) {
+        Map<Long, CustomerDto> byId = customers.stream().collect(Collectors.toMap(CustomerDto::id, Function.identity()));
+        when(customerNameSearchService.searchNames(name, 20)).thenReturn(new CustomerNameSearchDto(matches.stream()
+                .map(match -> new CustomerNameMatchDto(byId.get(match.id()), match.score()))
+                .toList()));
+    }
 
-        mockMvc.perform(get("/customers"))
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isEmpty());
+    @Override
+    void verifyNoReads() {
+        verify(customerService, never()).getCustomerById(anyLong());
+        verify(customerService, never()).lookupCustomers(any());
+    }
 
-        verify(customerService).getAllCustomers();
+    @Override
+    String validationException() {
+        return "MethodArgumentNotValidException";
     }
-}
\ No newline at end of file
+}
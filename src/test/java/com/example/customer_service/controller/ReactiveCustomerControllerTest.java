@@ -0,0 +1,101 @@
+package com.example.customer_service.controller;
+
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.exception.ErrorMetrics;
+import com.example.customer_service.exception.GlobalException;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.respository.CustomerTableStamp;
+import com.example.customer_service.respository.ReactiveCustomerRepository;
+import com.example.customer_service.search.NameTrigramIndex;
+import com.example.customer_service.service.ReactiveCustomerService;
+import org.mockito.Mock;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * The shared scenarios against the WebFlux stack, whose reads come from the R2DBC repository.
+ */
+class ReactiveCustomerControllerTest extends AbstractCustomerControllerTest {
+
+    @Mock
+    private ReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Override
+    WebTestClient bindClient() {
+        ReactiveCustomerService reactiveCustomerService = new ReactiveCustomerService(reactiveCustomerRepository,
+                customerService, customerBatchService, customerNameSearchService, customerIdFilter, new IdempotencyStore(100, Duration.ofMinutes(1)));
+        return WebTestClient.bindToController(new ReactiveCustomerController(reactiveCustomerService))
+                .controllerAdvice(new GlobalException(new ErrorMetrics(meterRegistry)))
+                .build();
+    }
+
+    @Override
+    void givenCustomer(CustomerDto customer) {
+        when(reactiveCustomerRepository.findById(customer.id())).thenReturn(Mono.just(customer));
+    }
+
+    @Override
+    void givenNoCustomer(long id) {
+        when(reactiveCustomerRepository.findById(id)).thenReturn(Mono.empty());
+    }
+
+    @Override
+    void givenCollectionStamp(long count, Instant lastModified) {
+        when(reactiveCustomerRepository.findTableStamp()).thenReturn(Mono.just(new CustomerTableStamp(count, lastModified)));
+    }
+
+    @Override
+    void givenAllCustomers(List<CustomerDto> customers) {
+        when(reactiveCustomerRepository.streamAll()).thenReturn(Flux.fromIterable(customers));
+    }
+
+    @Override
+    void givenAllCustomersMustNotBeRead() {
+        lenient().when(reactiveCustomerRepository.streamAll()).thenReturn(Flux.error(new AssertionError("table must not be read")));
+    }
+
+    @Override
+    void givenPage(Long after, int limit, List<CustomerDto> items, boolean more) {
+        List<CustomerDto> rows = new ArrayList<>(items);
+        if (more) {
+            rows.add(new CustomerDto(Long.MAX_VALUE, "Next Doe", "next.doe@example.com", null));
+        }
+        when(reactiveCustomerRepository.findByIdGreaterThan(after == null ? 0L : after, limit + 1)).thenReturn(Flux.fromIterable(rows));
+    }
+
+    @Override
+    void givenStream(List<CustomerDto> customers) {
+        when(reactiveCustomerRepository.streamAll()).thenReturn(Flux.fromIterable(customers));
+    }
+
+    @Override
+    void givenLookup(List<Long> ids, List<CustomerDto> found) {
+        when(reactiveCustomerRepository.findAllById(anyCollection())).thenReturn(Flux.fromIterable(found));
+    }
+
+    @Override
+    void givenNameMatches(String name, List<NameTrigramIndex.Match> matches, List<CustomerDto> customers) {
+        when(customerNameSearchService.findMatches(name, 20)).thenReturn(matches);
+        when(reactiveCustomerRepository.findAllById(matches.stream().map(NameTrigramIndex.Match::id).toList()))
+                .thenReturn(Flux.fromIterable(customers));
+    }
+
+    @Override
+    void verifyNoReads() {
+        verifyNoInteractions(reactiveCustomerRepository);
+    }
+
+    @Override
+    String validationException() {
+        return "WebExchangeBindException";
+    }
+}
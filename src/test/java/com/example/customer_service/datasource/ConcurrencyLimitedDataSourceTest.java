@@ -0,0 +1,66 @@
+package com.example.customer_service.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitedDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ConcurrencyLimitedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConcurrencyLimitedDataSource(targetDataSource, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void getConnection_ShouldFailFast_WhenAllPermitsAreHeld() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(connection);
+
+        Connection held = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+        held.close();
+        verify(connection).close();
+    }
+
+    @Test
+    void close_ShouldReleasePermitOnlyOnce() throws SQLException {
+        when(targetDataSource.getConnection()).thenReturn(connection);
+
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        assertEquals(1, dataSource.availablePermits());
+        assertNotNull(dataSource.getConnection());
+        assertEquals(0, dataSource.availablePermits());
+    }
+
+    @Test
+    void getConnection_ShouldReleasePermit_WhenTargetFails() throws SQLException {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, () -> dataSource.getConnection());
+
+        assertEquals(1, dataSource.availablePermits());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.customer_service.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadReplicaDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource firstReplica;
+
+    @Mock
+    private DataSource secondReplica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection firstConnection;
+
+    @Mock
+    private Connection secondConnection;
+
+    private final AtomicBoolean pinned = new AtomicBoolean();
+
+    private ReadReplicaDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadReplicaDataSource(primary, List.of(firstReplica, secondReplica), pinned::get, null);
+    }
+
+    @Test
+    void getConnection_ShouldRoundRobinAcrossReplicas() throws SQLException {
+        when(firstReplica.getConnection()).thenReturn(firstConnection);
+        when(secondReplica.getConnection()).thenReturn(secondConnection);
+
+        assertSame(firstConnection, dataSource.getConnection());
+        assertSame(secondConnection, dataSource.getConnection());
+        assertSame(firstConnection, dataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void getConnection_ShouldSkipFailedReplica_AndFallBackToPrimary() throws SQLException {
+        when(firstReplica.getConnection()).thenThrow(new SQLException("replica down"));
+        when(secondReplica.getConnection()).thenThrow(new SQLException("replica down"));
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        assertSame(primaryConnection, dataSource.getConnection());
+
+        assertEquals(0, dataSource.healthyReplicas());
+        verify(firstReplica, times(1)).getConnection();
+        verify(secondReplica, times(1)).getConnection();
+    }
+
+    @Test
+    void getConnection_ShouldUsePrimary_WhenCallerIsPinned() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        pinned.set(true);
+
+        assertSame(primaryConnection, dataSource.getConnection());
+        verifyNoInteractions(firstReplica, secondReplica);
+    }
+
+    @Test
+    void checkHealth_ShouldBringRecoveredReplicaBack() throws SQLException {
+        when(firstReplica.getConnection())
+                .thenThrow(new SQLException("replica down"))
+                .thenReturn(firstConnection);
+        when(firstConnection.isValid(anyInt())).thenReturn(true);
+        when(secondReplica.getConnection()).thenReturn(secondConnection);
+        when(secondConnection.isValid(anyInt())).thenReturn(false);
+
+        dataSource.checkHealth();
+        assertEquals(0, dataSource.healthyReplicas());
+
+        dataSource.checkHealth();
+        assertEquals(1, dataSource.healthyReplicas());
+        assertSame(firstConnection, dataSource.getConnection());
+    }
+}
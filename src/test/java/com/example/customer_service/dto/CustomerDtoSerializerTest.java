@@ -0,0 +1,37 @@
+package com.example.customer_service.dto;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CustomerDtoSerializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper reflectiveMapper = new ObjectMapper()
+            .addMixIn(CustomerDto.class, DefaultSerialization.class);
+
+    @Test
+    void serialize_ShouldMatchDefaultRecordSerialization() throws Exception {
+        List<CustomerDto> customers = List.of(
+                new CustomerDto(1L, "John \"Johnny\" Doe", "john@example.com", "1234567890", 3L),
+                new CustomerDto(2L, "Jane Doe", null, null));
+
+        assertEquals(reflectiveMapper.writeValueAsString(customers), objectMapper.writeValueAsString(customers));
+    }
+
+    @Test
+    void serialize_ShouldRoundTrip() throws Exception {
+        CustomerDto customer = new CustomerDto(7L, "Ada Lovelace", "ada@example.com", null, 0L);
+
+        assertEquals(customer, objectMapper.readValue(objectMapper.writeValueAsBytes(customer), CustomerDto.class));
+    }
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface DefaultSerialization {
+    }
+}
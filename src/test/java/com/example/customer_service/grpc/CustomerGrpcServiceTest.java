@@ -0,0 +1,204 @@
+package com.example.customer_service.grpc;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerPageDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.ConflictException;
+import com.example.customer_service.exception.ErrorMetrics;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.grpc.proto.CreateCustomerRequest;
+import com.example.customer_service.grpc.proto.CreateCustomerResponse;
+import com.example.customer_service.grpc.proto.Customer;
+import com.example.customer_service.grpc.proto.CustomerServiceGrpc;
+import com.example.customer_service.grpc.proto.DeleteCustomerRequest;
+import com.example.customer_service.grpc.proto.GetCustomerRequest;
+import com.example.customer_service.grpc.proto.ListCustomersRequest;
+import com.example.customer_service.grpc.proto.LookupCustomersRequest;
+import com.example.customer_service.grpc.proto.LookupCustomersResponse;
+import com.example.customer_service.grpc.proto.UpdateCustomerRequest;
+import com.example.customer_service.idempotency.IdempotencyStore;
+import com.example.customer_service.service.CustomerIdFilter;
+import com.example.customer_service.service.CustomerService;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.MetadataUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerGrpcServiceTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private CustomerIdFilter customerIdFilter;
+
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Server server;
+    private ManagedChannel channel;
+    private CustomerServiceGrpc.CustomerServiceBlockingStub stub;
+    private final CustomerDto customerDto = new CustomerDto(1L, "John Doe", "john.doe@example.com", null, 3L);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(customerIdFilter.mightExist(anyLong())).thenReturn(true);
+        CustomerGrpcService service = new CustomerGrpcService(customerService, customerIdFilter,
+                new IdempotencyStore(100, Duration.ofMinutes(1)), validatorFactory.getValidator());
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(ServerInterceptors.intercept(service, new CustomerGrpcInterceptor(new ErrorMetrics(meterRegistry))))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        stub = CustomerServiceGrpc.newBlockingStub(channel);
+    }
+
+    @AfterEach
+    void tearDown() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        validatorFactory.close();
+    }
+
+    @Test
+    void getCustomer_ShouldReturnCustomer_AndMapNotFound() {
+        when(customerService.getCustomerById(1L)).thenReturn(customerDto);
+        when(customerService.getCustomerById(2L)).thenThrow(new NotFoundException("Customer not found with id: 2"));
+
+        Customer customer = stub.getCustomer(GetCustomerRequest.newBuilder().setId(1L).build());
+
+        assertEquals("John Doe", customer.getName());
+        assertEquals(3L, customer.getVersion());
+        assertFalse(customer.hasPhone());
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.getCustomer(GetCustomerRequest.newBuilder().setId(2L).build()));
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+        assertEquals("Customer not found with id: 2", ex.getStatus().getDescription());
+    }
+
+    @Test
+    void getCustomer_ShouldNotReachService_WhenIdFilterRulesItOut() {
+        when(customerIdFilter.mightExist(9L)).thenReturn(false);
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.getCustomer(GetCustomerRequest.newBuilder().setId(9L).build()));
+
+        assertEquals(Status.Code.NOT_FOUND, ex.getStatus().getCode());
+        // counted under the same tag as the HTTP 404
+        assertEquals(1.0, meterRegistry.counter("customer.errors", "exception", "NotFoundException").count());
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void lookupCustomers_ShouldReturnFoundAndMissingIds() {
+        when(customerService.lookupCustomers(List.of(1L, 5L))).thenReturn(new CustomerLookupDto(List.of(customerDto), List.of(5L)));
+
+        LookupCustomersResponse response = stub.lookupCustomers(LookupCustomersRequest.newBuilder().addIds(1L).addIds(5L).build());
+
+        assertEquals(1L, response.getItems(0).getId());
+        assertEquals(List.of(5L), response.getMissingList());
+    }
+
+    @Test
+    void createCustomer_ShouldValidate_AndReplayIdempotentRequests() {
+        when(customerService.saveCustomer(any(CreateCustomerDto.class))).thenReturn(customerDto);
+        CreateCustomerRequest request = CreateCustomerRequest.newBuilder()
+                .setName("John Doe").setEmail("john.doe@example.com").setIdempotencyKey("create-1").build();
+        Metadata headers = new Metadata();
+        headers.put(Metadata.Key.of("x-username", Metadata.ASCII_STRING_MARSHALLER), "billing");
+        CustomerServiceGrpc.CustomerServiceBlockingStub caller = stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+
+        CreateCustomerResponse first = caller.createCustomer(request);
+        CreateCustomerResponse second = caller.createCustomer(request);
+
+        assertFalse(first.getReplayed());
+        assertTrue(second.getReplayed());
+        assertEquals(1L, second.getCustomer().getId());
+        verify(customerService, times(1)).saveCustomer(any(CreateCustomerDto.class));
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.createCustomer(CreateCustomerRequest.newBuilder().setName("No Email").build()));
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        assertTrue(ex.getStatus().getDescription().startsWith("email: "));
+    }
+
+    @Test
+    void createCustomer_ShouldRejectIdempotencyKey_WithoutCaller() {
+        CreateCustomerRequest request = CreateCustomerRequest.newBuilder()
+                .setName("John Doe").setEmail("john.doe@example.com").setIdempotencyKey("create-2").build();
+
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () -> stub.createCustomer(request));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, ex.getStatus().getCode());
+        verifyNoInteractions(customerService);
+    }
+
+    @Test
+    void updateCustomer_ShouldPassVersion_AndMapConflictsToFailedPrecondition() {
+        ArgumentCaptor<UpdateCustomerDto> captor = ArgumentCaptor.forClass(UpdateCustomerDto.class);
+        when(customerService.updateCustomer(captor.capture()))
+                .thenReturn(customerDto)
+                .thenThrow(new ConflictException("Customer 1 was modified concurrently, expected version: 2"));
+        UpdateCustomerRequest request = UpdateCustomerRequest.newBuilder()
+                .setId(1L).setName("John Doe").setEmail("john.doe@example.com").setVersion(2L).build();
+
+        assertEquals(1L, stub.updateCustomer(request).getId());
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class, () -> stub.updateCustomer(request));
+
+        assertEquals(Status.Code.FAILED_PRECONDITION, ex.getStatus().getCode());
+        assertEquals(2L, captor.getValue().getVersion());
+        assertNull(captor.getValue().getPhone());
+    }
+
+    @Test
+    void deleteCustomer_ShouldDelegate_AndMapUnexpectedFailuresToInternal() {
+        stub.deleteCustomer(DeleteCustomerRequest.newBuilder().setId(1L).build());
+        doThrow(new IllegalStateException("boom")).when(customerService).deleteCustomer(2L);
+        StatusRuntimeException ex = assertThrows(StatusRuntimeException.class,
+                () -> stub.deleteCustomer(DeleteCustomerRequest.newBuilder().setId(2L).build()));
+
+        verify(customerService).deleteCustomer(1L);
+        assertEquals(Status.Code.INTERNAL, ex.getStatus().getCode());
+        assertEquals("Internal server error", ex.getStatus().getDescription());
+    }
+
+    @Test
+    void listCustomers_ShouldStreamEveryPage() {
+        CustomerDto second = new CustomerDto(2L, "Jane Doe", "jane.doe@example.com", null, 0L);
+        when(customerService.getCustomers(eq(0L), anyInt())).thenReturn(new CustomerPageDto(List.of(customerDto), 1L));
+        when(customerService.getCustomers(eq(1L), anyInt())).thenReturn(new CustomerPageDto(List.of(second), null));
+
+        List<Long> ids = new ArrayList<>();
+        stub.listCustomers(ListCustomersRequest.getDefaultInstance()).forEachRemaining(customer -> ids.add(customer.getId()));
+
+        assertEquals(List.of(1L, 2L), ids);
+    }
+}
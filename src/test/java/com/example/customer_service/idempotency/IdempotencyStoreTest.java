@@ -0,0 +1,77 @@
+package com.example.customer_service.idempotency;
+
+import com.example.customer_service.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    private final IdempotencyStore store = new IdempotencyStore(100, Duration.ofMinutes(1));
+
+    @Test
+    void execute_ShouldRunOnceAndReplayResult_WhenKeyRepeated() {
+        AtomicInteger calls = new AtomicInteger();
+
+        IdempotencyStore.Outcome<Integer> first = store.execute("key", "request", calls::incrementAndGet);
+        IdempotencyStore.Outcome<Integer> second = store.execute("key", "request", calls::incrementAndGet);
+
+        assertEquals(new IdempotencyStore.Outcome<>(1, false), first);
+        assertEquals(new IdempotencyStore.Outcome<>(1, true), second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldReject_WhenKeyReusedForDifferentRequest() {
+        store.execute("key", "request", () -> 1);
+
+        assertThrows(BadRequestException.class, () -> store.execute("key", "other request", () -> 2));
+        assertThrows(BadRequestException.class, () -> store.execute("", "request", () -> 2));
+    }
+
+    @Test
+    void execute_ShouldForgetFailedAttempt() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key", "request", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals(new IdempotencyStore.Outcome<>(2, false), store.execute("key", "request", () -> 2));
+    }
+
+    @Test
+    void execute_ShouldWaitForInFlightAttempt_WhenRetriedConcurrently() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<IdempotencyStore.Outcome<Integer>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("key", "request", () -> {
+                    started.countDown();
+                    await(release);
+                    return calls.incrementAndGet();
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<IdempotencyStore.Outcome<Integer>> retry = CompletableFuture.supplyAsync(() ->
+                store.execute("key", "request", calls::incrementAndGet));
+        assertFalse(retry.isDone());
+        release.countDown();
+
+        assertEquals(new IdempotencyStore.Outcome<>(1, false), first.get(5, TimeUnit.SECONDS));
+        assertEquals(new IdempotencyStore.Outcome<>(1, true), retry.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.customer_service.job;
+
+import com.example.customer_service.dto.CustomerJobDto;
+import com.example.customer_service.model.CustomerJob;
+import com.example.customer_service.model.CustomerJobFormat;
+import com.example.customer_service.model.CustomerJobProgress;
+import com.example.customer_service.model.CustomerJobStatus;
+import com.example.customer_service.model.CustomerJobType;
+import com.example.customer_service.respository.CustomerJobRepository;
+import com.example.customer_service.respository.CustomerRepository;
+import com.example.customer_service.service.CustomerService;
+import com.example.customer_service.dto.CustomerDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "customer-service.jobs.chunk-size=2")
+class CustomerJobServiceTest {
+
+    @Autowired
+    private CustomerJobService customerJobService;
+
+    @Autowired
+    private CustomerJobRepository customerJobRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void startImport_ShouldImportValidRowsAndReportInvalidOnes() throws Exception {
+        String ndjson = """
+                {"name":"Import One","email":"import.one@example.com"}
+                {"name":"","email":"import.blank@example.com"}
+                {"name":"Import Three"
+                {"name":"Import Dup","email":"IMPORT.ONE@example.com"}
+
+                {"name":"Import Five","email":"import.five@example.com","phone":"555"}
+                """;
+
+        CustomerJobDto job = await(customerJobService.startImport(CustomerJobFormat.NDJSON, stream(ndjson)).id());
+
+        assertEquals(CustomerJobStatus.COMPLETED, job.status());
+        assertEquals(5, job.processed());
+        assertEquals(2, job.succeeded());
+        assertEquals(3, job.failed());
+        assertEquals(1.0, job.progress());
+        List<String> errors = Files.readAllLines(customerJobService.getErrorReport(job.id()).path());
+        assertEquals(3, errors.size());
+        assertTrue(errors.get(0).startsWith("{\"row\":1,\"error\":\"name:"));
+        assertTrue(errors.get(1).startsWith("{\"row\":2,\"error\":\"malformed JSON"));
+        assertTrue(errors.get(2).startsWith("{\"row\":3,"));
+        assertEquals(1, customerService.searchCustomers("import.five@example.com", null, null, null, 10).items().size());
+    }
+
+    @Test
+    void startImport_ShouldReadCsvWithQuotedFieldsInAnyColumnOrder() throws Exception {
+        String csv = "email,name,phone\r\n"
+                + "csv.one@example.com,\"Doe, \"\"Jay\"\"\",555-0101\r\n"
+                + "csv.two@example.com,\"Two\nLines\",\r\n"
+                + "csv.three@example.com\r\n";
+
+        CustomerJobDto job = await(customerJobService.startImport(CustomerJobFormat.CSV, stream(csv)).id());
+
+        assertEquals(2, job.succeeded());
+        assertEquals(1, job.failed());
+        CustomerDto first = customerService.searchCustomers("csv.one@example.com", null, null, null, 10).items().get(0);
+        assertEquals("Doe, \"Jay\"", first.name());
+        assertEquals("555-0101", first.phone());
+        CustomerDto second = customerService.searchCustomers("csv.two@example.com", null, null, null, 10).items().get(0);
+        assertEquals("Two\nLines", second.name());
+        assertNull(second.phone());
+    }
+
+    @Test
+    void startImport_ShouldFail_WhenCsvHeaderLacksRequiredColumns() throws Exception {
+        CustomerJobDto job = await(customerJobService.startImport(CustomerJobFormat.CSV,
+                stream("name,phone\nNo Email,555\n")).id());
+
+        assertEquals(CustomerJobStatus.FAILED, job.status());
+        assertTrue(job.message().contains("'email'"));
+    }
+
+    @Test
+    void resumeJobs_ShouldContinueAStaleImportFromItsCheckpoint() throws Exception {
+        String skipped = "{\"name\":\"Resume One\",\"email\":\"resume.one@example.com\"}\n";
+        String remaining = "{\"name\":\"Resume Two\",\"email\":\"resume.two@example.com\"}\n"
+                + "{\"name\":\"Resume Three\",\"email\":\"resume.three@example.com\"}\n";
+        long checkpoint = skipped.getBytes(StandardCharsets.UTF_8).length;
+        Instant stale = Instant.now().minus(Duration.ofHours(1));
+        CustomerJob crashed = customerJobRepository.save(CustomerJob.builder()
+                .type(CustomerJobType.IMPORT)
+                .format(CustomerJobFormat.NDJSON)
+                .status(CustomerJobStatus.RUNNING)
+                .owner("crashed-instance")
+                .sourceSize(checkpoint + remaining.length())
+                .progress(new CustomerJobProgress(checkpoint, 0, 0, 1, 1, 0))
+                .createdAt(stale)
+                .updatedAt(stale)
+                .build());
+        Files.writeString(customerJobService.dataFile(crashed), skipped + remaining);
+        // a line the crashed run wrote for a chunk that never committed
+        Files.writeString(customerJobService.errorReport(crashed), "{\"row\":9,\"error\":\"uncommitted\"}\n");
+
+        customerJobService.resumeJobs();
+        CustomerJobDto job = await(crashed.getId());
+
+        assertEquals(CustomerJobStatus.COMPLETED, job.status());
+        assertEquals(3, job.processed());
+        assertEquals(3, job.succeeded());
+        assertTrue(customerService.searchCustomers("resume.one@example.com", null, null, null, 10).items().isEmpty());
+        assertEquals(1, customerService.searchCustomers("resume.three@example.com", null, null, null, 10).items().size());
+        assertEquals(0, Files.size(customerJobService.errorReport(crashed)));
+    }
+
+    @Test
+    void startExport_ShouldWriteEveryCustomerInIdOrder() throws Exception {
+        await(customerJobService.startImport(CustomerJobFormat.NDJSON, stream(
+                "{\"name\":\"Export, One\",\"email\":\"export.one@example.com\"}\n")).id());
+        long expected = customerRepository.count();
+
+        CustomerJobDto csvJob = await(customerJobService.startExport(CustomerJobFormat.CSV).id());
+        CustomerJobDto ndjsonJob = await(customerJobService.startExport(CustomerJobFormat.NDJSON).id());
+
+        assertEquals(CustomerJobStatus.COMPLETED, csvJob.status());
+        List<String> csv = Files.readAllLines(customerJobService.getExportFile(csvJob.id()).path());
+        assertEquals("id,name,email,phone,version", csv.get(0));
+        assertEquals(expected, csvJob.processed());
+        assertTrue(csv.stream().anyMatch(line -> line.contains(",\"Export, One\",export.one@example.com,,")));
+        List<String> ndjson = Files.readAllLines(customerJobService.getExportFile(ndjsonJob.id()).path());
+        assertEquals(expected, ndjson.size());
+        assertEquals(expected, ndjsonJob.processed());
+        assertTrue(ndjson.get(0).startsWith("{\"id\":"));
+    }
+
+    private CustomerJobDto await(Long id) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        CustomerJobDto job = customerJobService.getJob(id);
+        while (job.status() != CustomerJobStatus.COMPLETED && job.status() != CustomerJobStatus.FAILED) {
+            assertTrue(System.nanoTime() < deadline, "job " + id + " did not finish: " + job);
+            Thread.sleep(20);
+            job = customerJobService.getJob(id);
+        }
+        return job;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
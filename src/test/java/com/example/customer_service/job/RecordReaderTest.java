@@ -0,0 +1,50 @@
+package com.example.customer_service.job;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordReaderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void next_ShouldKeepQuotedLineBreaksAndTrackByteOffsets() throws Exception {
+        String content = "name,email\r\n\"Doe, \"\"J\"\"\nJohn\",j@example.com\nÅsa,a@example.com";
+        Path file = Files.writeString(dir.resolve("customers.csv"), content);
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            RecordReader reader = new RecordReader(channel, 0, true);
+            assertEquals("name,email", reader.next());
+            assertEquals(12, reader.position());
+            assertEquals(List.of("Doe, \"J\"\nJohn", "j@example.com"), CsvFormat.parse(reader.next()));
+            long secondEnd = reader.position();
+            assertEquals("Åsa,a@example.com", reader.next());
+            assertNull(reader.next());
+            assertEquals(content.getBytes(StandardCharsets.UTF_8).length, reader.position());
+
+            RecordReader resumed = new RecordReader(channel, secondEnd, true);
+            assertEquals("Åsa,a@example.com", resumed.next());
+        }
+    }
+
+    @Test
+    void next_ShouldSplitOnEveryNewline_WhenNotQuoted() throws Exception {
+        Path file = Files.writeString(dir.resolve("customers.ndjson"), "{\"name\":\"a\"\n\"b\"}\n");
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            RecordReader reader = new RecordReader(channel, 0, false);
+            assertEquals("{\"name\":\"a\"", reader.next());
+            assertEquals("\"b\"}", reader.next());
+            assertNull(reader.next());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.customer_service.lookup;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongBloomFilterTest {
+
+    @Test
+    void mightContain_ShouldNeverMissAnAddedKey_AndRarelyMatchOthers() {
+        LongBloomFilter filter = new LongBloomFilter(100_000, 0.01);
+        for (long id = 1; id <= 100_000; id++) {
+            filter.add(id);
+        }
+
+        for (long id = 1; id <= 100_000; id++) {
+            assertTrue(filter.mightContain(id));
+        }
+        int falsePositives = 0;
+        for (long id = 100_001; id <= 200_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void add_ShouldReportWhetherTheKeyWasNew() {
+        LongBloomFilter filter = new LongBloomFilter(1_000, 0.01);
+
+        assertFalse(filter.mightContain(-7));
+        assertTrue(filter.add(-7));
+        assertFalse(filter.add(-7));
+        assertTrue(filter.mightContain(-7));
+    }
+
+    @Test
+    void constructor_ShouldRejectImpossibleFalsePositiveRates() {
+        assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(1_000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new LongBloomFilter(1_000, 1));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.customer_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long WINDOW = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tryAcquire_ShouldRejectAboveLimitUntilReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, Duration.ofSeconds(1), 2.0, now::get);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        limiter.release();
+        assertTrue(limiter.tryAcquire());
+        assertEquals(2, limiter.inFlight());
+    }
+
+    @Test
+    void release_ShouldShrinkLimitWhenLatencyRisesAndGrowItWhenSaturatedAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(100, 10, 200, Duration.ofSeconds(1), 2.0, now::get);
+
+        window(limiter, 20, TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(100, limiter.limit());
+
+        for (int i = 0; i < 5; i++) {
+            window(limiter, 20, TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        int shrunk = limiter.limit();
+        assertTrue(shrunk < 70, "limit was " + shrunk);
+
+        for (int i = 0; i < 5; i++) {
+            window(limiter, shrunk, TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertTrue(limiter.limit() > shrunk);
+    }
+
+    @Test
+    void release_ShouldNeverGoBelowMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 15, 50, Duration.ofSeconds(1), 2.0, now::get);
+
+        window(limiter, 20, TimeUnit.MILLISECONDS.toNanos(1));
+        for (int i = 0; i < 20; i++) {
+            window(limiter, 15, TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(15, limiter.limit());
+    }
+
+    private void window(AdaptiveConcurrencyLimiter limiter, int requests, long latency) {
+        int admitted = 0;
+        while (admitted < requests && limiter.tryAcquire()) {
+            admitted++;
+        }
+        now.addAndGet(WINDOW);
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(latency);
+        }
+    }
+}
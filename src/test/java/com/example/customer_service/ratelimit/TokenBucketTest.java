@@ -0,0 +1,37 @@
+package com.example.customer_service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    @Test
+    void tryAcquire_ShouldAllowBurstThenReportWaitUntilRefill() {
+        AtomicLong now = new AtomicLong(1_000);
+        TokenBucket bucket = new TokenBucket(3, 2, now::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryAcquire());
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+
+    @Test
+    void tryAcquire_ShouldNotAccumulateMoreThanCapacityWhileIdle() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(2, 10, now::get);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(0, bucket.tryAcquire());
+        assertEquals(0, bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire() > 0);
+    }
+}
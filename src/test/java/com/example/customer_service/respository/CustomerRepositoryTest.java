@@ -0,0 +1,139 @@
+package com.example.customer_service.respository;
+
+import com.example.customer_service.model.Customer;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class CustomerRepositoryTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void updateNonBlankFields_ShouldOnlySetProvidedFieldsAndBumpVersion() {
+        Customer customer = customerRepository.saveAndFlush(Customer.builder()
+                .name("John Doe").email("john@example.com").phone("1234567890").build());
+        Long version = customer.getVersion();
+
+        int updated = customerRepository.updateNonBlankFields(customer.getId(), null, "Jane Doe", " ", null);
+
+        assertEquals(1, updated);
+        Customer reloaded = customerRepository.findById(customer.getId()).orElseThrow();
+        assertEquals("Jane Doe", reloaded.getName());
+        assertEquals("john@example.com", reloaded.getEmail());
+        assertEquals("1234567890", reloaded.getPhone());
+        assertEquals(version + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void updateNonBlankFields_ShouldMatchNothing_WhenExpectedVersionIsStale() {
+        Customer customer = customerRepository.saveAndFlush(Customer.builder()
+                .name("John Doe").email("stale@example.com").build());
+
+        int updated = customerRepository.updateNonBlankFields(customer.getId(), customer.getVersion() + 1, "Jane Doe", null, null);
+
+        assertEquals(0, updated);
+        assertEquals("John Doe", customerRepository.findById(customer.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    void deleteRowById_ShouldReturnAffectedRowCount() {
+        Customer customer = customerRepository.saveAndFlush(Customer.builder()
+                .name("John Doe").email("delete@example.com").build());
+        entityManager.clear();
+
+        assertEquals(1, customerRepository.deleteRowById(customer.getId()));
+        assertEquals(0, customerRepository.deleteRowById(customer.getId()));
+        assertFalse(customerRepository.existsById(customer.getId()));
+    }
+
+    @Test
+    void save_ShouldStoreNormalizedSearchColumns() {
+        Customer customer = customerRepository.saveAndFlush(Customer.builder()
+                .name("  Ada Lovelace ").email(" Ada@Example.COM ").phone("+44 (20) 7946-0000").build());
+
+        assertEquals("ada lovelace", customer.getNameLower());
+        assertEquals("ada@example.com", customer.getEmailNormalized());
+        assertEquals("+442079460000", customer.getPhoneNormalized());
+    }
+
+    @Test
+    void save_ShouldRejectDuplicateNormalizedEmail() {
+        customerRepository.saveAndFlush(Customer.builder().name("First").email("dup@example.com").build());
+
+        assertThrows(DataIntegrityViolationException.class, () -> customerRepository.saveAndFlush(
+                Customer.builder().name("Second").email("DUP@example.com").build()));
+    }
+
+    @Test
+    void findBy_ShouldMatchNamePrefixCaseInsensitively() {
+        customerRepository.saveAndFlush(Customer.builder().name("Grace Hopper").email("grace@example.com").build());
+        customerRepository.saveAndFlush(Customer.builder().name("Grace_Kelly").email("kelly@example.com").build());
+        customerRepository.saveAndFlush(Customer.builder().name("Alan Turing").email("alan@example.com").build());
+
+        List<Customer> result = customerRepository.findBy(
+                CustomerSpecifications.idGreaterThan(0L).and(CustomerSpecifications.nameLowerStartsWith("grace")),
+                query -> query.sortBy(Sort.by("id")).all());
+        List<Customer> escaped = customerRepository.findBy(
+                CustomerSpecifications.idGreaterThan(0L).and(CustomerSpecifications.nameLowerStartsWith("grace_")),
+                query -> query.sortBy(Sort.by("id")).all());
+
+        assertEquals(2, result.size());
+        assertEquals(1, escaped.size());
+        assertEquals("Grace_Kelly", escaped.get(0).getName());
+    }
+
+    @Test
+    void updateNonBlankFields_ShouldKeepNormalizedColumnsInSync() {
+        Customer customer = customerRepository.saveAndFlush(Customer.builder()
+                .name("John Doe").email("sync@example.com").phone("111").build());
+
+        customerRepository.updateNonBlankFields(customer.getId(), null, "Johnny", "SYNC2@example.com", "222-333");
+
+        Customer reloaded = customerRepository.findById(customer.getId()).orElseThrow();
+        assertEquals("johnny", reloaded.getNameLower());
+        assertEquals("sync2@example.com", reloaded.getEmailNormalized());
+        assertEquals("222333", reloaded.getPhoneNormalized());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void findTableStamp_ShouldChangeOnInsertUpdateAndDelete() {
+        // last_modified is the database's transaction timestamp, so each write needs its own transaction
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Customer customer = customerRepository.saveAndFlush(Customer.builder()
+                .name("Stamp Doe").email("stamp@example.com").build());
+        CustomerTableStamp afterInsert = customerRepository.findTableStamp();
+
+        transaction.executeWithoutResult(status ->
+                customerRepository.updateNonBlankFields(customer.getId(), null, "Stamped", null, null));
+        CustomerTableStamp afterUpdate = customerRepository.findTableStamp();
+
+        transaction.executeWithoutResult(status -> customerRepository.deleteRowById(customer.getId()));
+        CustomerTableStamp afterDelete = customerRepository.findTableStamp();
+
+        assertNotEquals(afterInsert, afterUpdate);
+        assertEquals(afterInsert.count(), afterUpdate.count());
+        assertTrue(afterUpdate.lastModified().isAfter(afterInsert.lastModified()));
+        assertEquals(afterUpdate.count() - 1, afterDelete.count());
+    }
+}
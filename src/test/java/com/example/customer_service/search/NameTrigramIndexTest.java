@@ -0,0 +1,84 @@
+package com.example.customer_service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameTrigramIndexTest {
+
+    @Test
+    void search_ShouldToleratePartialAndMisspelledNames_AndRankClosestFirst() {
+        NameTrigramIndex index = new NameTrigramIndex();
+        index.put(1, "John Smith");
+        index.put(2, "John Smithson");
+        index.put(3, "Jane Doe");
+
+        assertEquals(List.of(1L, 2L), ids(index.search("jonh smith", 10, 0.5)));
+        assertEquals(List.of(1L, 2L), ids(index.search("SMITH", 10, 0.5)));
+        assertEquals(List.of(3L), ids(index.search("doe jane", 10, 0.5)));
+        assertTrue(index.search("Smyth", 10, 0.3).stream().allMatch(match -> match.id() != 3));
+        assertTrue(index.search("Alice", 10, 0.3).isEmpty());
+    }
+
+    @Test
+    void search_ShouldReturnAtMostLimitMatches_WithScoreOfOneForExactName() {
+        NameTrigramIndex index = new NameTrigramIndex();
+        for (int i = 0; i < 50; i++) {
+            index.put(i, "Customer " + i);
+        }
+
+        List<NameTrigramIndex.Match> matches = index.search("customer 7", 5, 0.3);
+
+        assertEquals(5, matches.size());
+        assertEquals(7L, matches.get(0).id());
+        assertEquals(1.0, matches.get(0).score());
+        assertEquals(1.0, matches.get(0).similarity());
+        // the per-ordinal counts are reused, nothing of the previous query may carry over
+        assertEquals(matches, index.search("customer 7", 5, 0.3));
+    }
+
+    @Test
+    void put_ShouldReplacePreviousName_AndRemoveShouldDropIt() {
+        NameTrigramIndex index = new NameTrigramIndex();
+        index.put(1, "John Smith");
+        index.put(1, "Maria Garcia");
+
+        assertTrue(index.search("John Smith", 10, 0.5).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("Maria Garcia", 10, 0.5)));
+
+        index.remove(1);
+        assertTrue(index.search("Maria Garcia", 10, 0.5).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void compaction_ShouldKeepLiveNamesSearchable() {
+        NameTrigramIndex index = new NameTrigramIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1_000; id++) {
+                index.put(id, "Customer " + id + " Round " + round);
+            }
+        }
+        for (long id = 0; id < 1_000; id += 2) {
+            index.remove(id);
+        }
+
+        assertEquals(500, index.size());
+        assertEquals(501L, index.search("customer 501 round 4", 1, 0.5).get(0).id());
+        assertFalse(ids(index.search("customer 500 round 4", 10, 0.5)).contains(500L));
+    }
+
+    @Test
+    void trigrams_ShouldPadEachWord_AndIgnoreCaseAndPunctuation() {
+        assertArrayEquals(NameTrigramIndex.trigrams("Al"), NameTrigramIndex.trigrams("  al, "));
+        assertEquals(3, NameTrigramIndex.trigrams("al").length);
+        assertEquals(0, NameTrigramIndex.trigrams(" - ").length);
+        assertEquals(0, NameTrigramIndex.trigrams(null).length);
+    }
+
+    private static List<Long> ids(List<NameTrigramIndex.Match> matches) {
+        return matches.stream().map(NameTrigramIndex.Match::id).toList();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.BatchResultDto;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.respository.CustomerRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "customer-service.batch.chunk-size=2")
+class CustomerBatchServiceTest {
+
+    @Autowired
+    private CustomerBatchService customerBatchService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Test
+    void createCustomers_ShouldPersistValidItemsAndReportInvalidOnes_InChunkedMode() {
+        List<CreateCustomerDto> items = List.of(
+                newCustomer("Batch One", "batch.one@example.com"),
+                newCustomer("", "batch.invalid@example.com"),
+                newCustomer("Batch Three", "batch.three@example.com"));
+
+        BatchResultDto result = customerBatchService.createCustomers(items.iterator(), BatchMode.CHUNKED);
+
+        assertEquals(2, result.succeeded());
+        assertEquals(1, result.failed());
+        assertTrue(result.items().get(0).success());
+        assertFalse(result.items().get(1).success());
+        assertTrue(result.items().get(1).error().startsWith("name:"));
+        assertTrue(customerRepository.existsById(result.items().get(2).id()));
+    }
+
+    @Test
+    void createCustomers_ShouldWriteNothing_WhenAnyItemFailsInAtomicMode() {
+        long before = customerRepository.count();
+        List<CreateCustomerDto> items = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            items.add(newCustomer("Atomic " + i, "atomic" + i + "@example.com"));
+        }
+        items.add(newCustomer("Atomic bad", "not-an-email"));
+
+        BatchResultDto result = customerBatchService.createCustomers(items.iterator(), BatchMode.ATOMIC);
+
+        assertEquals(0, result.succeeded());
+        assertEquals(6, result.failed());
+        assertEquals("Rolled back", result.items().get(0).error());
+        assertTrue(result.items().get(5).error().startsWith("email:"));
+        assertEquals(before, customerRepository.count());
+    }
+
+    @Test
+    void updateCustomers_ShouldApplyChangesAndReportMissingIds() {
+        Long id = customerService.saveCustomer(newCustomer("Before Update", "batch.update@example.com")).id();
+        customerService.getCustomerById(id);
+
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(id);
+        update.setName("After Update");
+        update.setEmail("batch.update@example.com");
+        UpdateCustomerDto missing = new UpdateCustomerDto();
+        missing.setId(-1L);
+        missing.setName("Missing");
+        missing.setEmail("missing@example.com");
+
+        BatchResultDto result = customerBatchService.updateCustomers(List.of(update, missing).iterator(), BatchMode.CHUNKED);
+
+        assertEquals(1, result.succeeded());
+        assertEquals("Customer not found with id: -1", result.items().get(1).error());
+        assertEquals("After Update", customerService.getCustomerById(id).name());
+    }
+
+    @Test
+    void deleteCustomers_ShouldDeleteExistingIdsAndReportMissingOnes() {
+        Long id = customerService.saveCustomer(newCustomer("To Delete", "batch.delete@example.com")).id();
+
+        BatchResultDto result = customerBatchService.deleteCustomers(List.of(id, -2L).iterator(), BatchMode.CHUNKED);
+
+        assertEquals(1, result.succeeded());
+        assertEquals(1, result.failed());
+        assertFalse(customerRepository.existsById(id));
+    }
+
+    private CreateCustomerDto newCustomer(String name, String email) {
+        CreateCustomerDto dto = new CreateCustomerDto();
+        dto.setName(name);
+        dto.setEmail(email);
+        return dto;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.BatchMode;
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerChangeDto;
+import com.example.customer_service.dto.CustomerChangesDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.GoneException;
+import com.example.customer_service.model.CustomerChange;
+import com.example.customer_service.model.CustomerChangeType;
+import com.example.customer_service.respository.CustomerChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@TestPropertySource(properties = "customer-service.changes.relay-interval=1h")
+class CustomerChangeServiceTest {
+
+    @Autowired
+    private CustomerChangeService customerChangeService;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerBatchService customerBatchService;
+
+    @Autowired
+    private CustomerChangeRepository customerChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void changes_ShouldBeRecordedForEveryMutation_AndServedInOffsetOrder() {
+        long since = latestOffset();
+        CustomerDto created = customerService.saveCustomer(newCustomer("Change Feed", "change.feed@example.com"));
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(created.id());
+        update.setName("Change Feed Renamed");
+        customerService.updateCustomer(update);
+        customerService.deleteCustomer(created.id());
+
+        customerChangeService.relay();
+
+        List<CustomerChangeDto> changes = customerChangeService.getChanges(since, 100).items().stream()
+                .filter(change -> change.customerId().equals(created.id()))
+                .toList();
+        assertEquals(List.of(CustomerChangeType.CREATED, CustomerChangeType.UPDATED, CustomerChangeType.DELETED),
+                changes.stream().map(CustomerChangeDto::type).toList());
+        assertEquals("Change Feed", changes.get(0).customer().name());
+        assertEquals("Change Feed Renamed", changes.get(1).customer().name());
+        assertEquals(created.version() + 1, changes.get(1).customer().version());
+        assertNull(changes.get(2).customer());
+        assertTrue(changes.get(0).offset() < changes.get(1).offset());
+        assertTrue(changes.get(1).offset() < changes.get(2).offset());
+    }
+
+    @Test
+    void changes_ShouldPageFromTheGivenOffset() {
+        long since = latestOffset();
+        customerBatchService.createCustomers(List.of(
+                newCustomer("Feed Page One", "feed.page.one@example.com"),
+                newCustomer("Feed Page Two", "feed.page.two@example.com"),
+                newCustomer("Feed Page Three", "feed.page.three@example.com")).iterator(), BatchMode.CHUNKED);
+        customerChangeService.relay();
+
+        CustomerChangesDto first = customerChangeService.getChanges(since, 2);
+        CustomerChangesDto second = customerChangeService.getChanges(first.nextOffset(), 2);
+
+        assertEquals(2, first.items().size());
+        assertEquals(first.items().get(1).offset(), first.nextOffset());
+        assertEquals("Feed Page Three", second.items().get(0).customer().name());
+        assertEquals(CustomerChangeType.CREATED, second.items().get(0).type());
+    }
+
+    @Test
+    void changes_ShouldNotBeRecorded_WhenTheMutationRollsBack() {
+        long pending = customerChangeRepository.count();
+
+        customerBatchService.createCustomers(List.of(
+                newCustomer("Feed Rollback", "feed.rollback@example.com"),
+                newCustomer("Feed Rollback", "not-an-email")).iterator(), BatchMode.ATOMIC);
+
+        assertEquals(pending, customerChangeRepository.count());
+    }
+
+    @Test
+    void compact_ShouldDropExpiredAndSupersededChanges_AndRejectReadsFromBelowThem() {
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        Instant expired = Instant.now().minus(Duration.ofDays(30));
+        long base = latestOffset();
+        List<CustomerChange> saved = transactionTemplate.execute(status -> customerChangeRepository.saveAll(List.of(
+                change(900_001L, CustomerChangeType.CREATED, expired),
+                change(900_002L, CustomerChangeType.CREATED, old),
+                change(900_002L, CustomerChangeType.UPDATED, old),
+                change(900_002L, CustomerChangeType.UPDATED, Instant.now()))));
+        customerChangeService.relay();
+
+        customerChangeService.compact();
+
+        List<Long> remaining = customerChangeRepository.findAllById(saved.stream().map(CustomerChange::getId).toList())
+                .stream().map(CustomerChange::getChangeOffset).sorted().toList();
+        assertEquals(List.of(base + 4), remaining);
+        assertThrows(GoneException.class, () -> customerChangeService.getChanges(base, 100));
+        assertThrows(GoneException.class, () -> customerChangeService.subscribe(base));
+        assertEquals(List.of(base + 4), customerChangeService.getChanges(base + 3, 100).items().stream()
+                .map(CustomerChangeDto::offset).filter(offset -> offset <= base + 4).toList());
+    }
+
+    @Test
+    void relay_ShouldNumberEveryChangeOnce_WhenRelaysRunConcurrently() throws Exception {
+        long since = latestOffset();
+        int changes = 200;
+        transactionTemplate.execute(status -> customerChangeRepository.saveAll(IntStream.range(0, changes)
+                .mapToObj(i -> change(910_000L + i, CustomerChangeType.CREATED, Instant.now()))
+                .toList()));
+
+        try (ExecutorService relays = Executors.newFixedThreadPool(4)) {
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                running.add(relays.submit(customerChangeService::relay));
+            }
+            for (Future<?> relay : running) {
+                relay.get(10, TimeUnit.SECONDS);
+            }
+        }
+        customerChangeService.relay();
+
+        List<Long> offsets = customerChangeService.getChanges(since, CustomerChangeService.MAX_PAGE_SIZE).items().stream()
+                .filter(change -> change.customerId() >= 910_000L && change.customerId() < 910_000L + changes)
+                .map(CustomerChangeDto::offset)
+                .toList();
+        assertEquals(changes, offsets.size());
+        assertEquals(offsets.stream().sorted().distinct().toList(), offsets);
+    }
+
+    @Test
+    void awaitChangesAfter_ShouldTimeOut_WhenNothingNewIsRelayed() throws InterruptedException {
+        customerChangeService.relay();
+
+        assertFalse(customerChangeService.awaitChangesAfter(latestOffset(), Duration.ofMillis(50)));
+        assertTrue(customerChangeService.awaitChangesAfter(latestOffset() - 1, Duration.ofMillis(50)));
+    }
+
+    private long latestOffset() {
+        // changes left pending by other test contexts would otherwise be relayed after this offset
+        customerChangeService.relay();
+        return customerChangeRepository.findMaxOffset();
+    }
+
+    private static CustomerChange change(Long customerId, CustomerChangeType type, Instant occurredAt) {
+        return CustomerChange.builder()
+                .customerId(customerId)
+                .type(type)
+                .occurredAt(occurredAt)
+                .build();
+    }
+
+    private static CreateCustomerDto newCustomer(String name, String email) {
+        CreateCustomerDto dto = new CreateCustomerDto();
+        dto.setName(name);
+        dto.setEmail(email);
+        dto.setPhone("0241234567");
+        return dto;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.datasource.ReadYourWritesTracker;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.model.Customer;
+import com.example.customer_service.respository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerLoaderTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ObjectProvider<ReadYourWritesTracker> readYourWritesTracker;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void load_ShouldShareOneQuery_ForConcurrentRequestsOfTheSameId() throws Exception {
+        CustomerLoader loader = new CustomerLoader(customerRepository, meterRegistry, readYourWritesTracker, Duration.ZERO, 100);
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerRepository.findAllById(List.of(7L))).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(customer(7L));
+        });
+
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<CustomerDto> first = CompletableFuture.supplyAsync(() -> loader.load(7L), callers);
+            assertTrue(queryStarted.await(5, TimeUnit.SECONDS));
+            List<CompletableFuture<CustomerDto>> followers = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                followers.add(CompletableFuture.supplyAsync(() -> loader.load(7L), callers));
+            }
+            awaitCount("coalesced", 20);
+            release.countDown();
+
+            assertEquals(7L, first.get(5, TimeUnit.SECONDS).id());
+            for (CompletableFuture<CustomerDto> follower : followers) {
+                assertEquals(7L, follower.get(5, TimeUnit.SECONDS).id());
+            }
+        }
+        verify(customerRepository, times(1)).findAllById(any());
+        assertEquals(1, meterRegistry.get("customer.lookups").tag("result", "executed").counter().count());
+        assertEquals(20, meterRegistry.get("customer.lookups").tag("result", "coalesced").counter().count());
+    }
+
+    @Test
+    void load_ShouldBatchDistinctIdsArrivingWithinTheWindow() throws Exception {
+        CustomerLoader loader = new CustomerLoader(customerRepository, meterRegistry, readYourWritesTracker, Duration.ofMillis(200), 100);
+        when(customerRepository.findAllById(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id != 3L).map(CustomerLoaderTest::customer).toList();
+        });
+
+        List<CompletableFuture<CustomerDto>> loads = new ArrayList<>();
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long id = 1; id <= 5; id++) {
+                long customerId = id;
+                loads.add(CompletableFuture.supplyAsync(() -> loader.load(customerId), callers));
+            }
+            for (int i = 0; i < loads.size(); i++) {
+                CustomerDto customer = loads.get(i).get(5, TimeUnit.SECONDS);
+                if (i == 2) {
+                    assertNull(customer);
+                } else {
+                    assertEquals(i + 1L, customer.id());
+                }
+            }
+        }
+        verify(customerRepository, times(1)).findAllById(any());
+        assertEquals(5, meterRegistry.get("customer.lookup.batch.size").summary().totalAmount());
+        loader.shutdown();
+    }
+
+    @Test
+    void load_ShouldFlushImmediately_WhenTheBatchIsFull() {
+        CustomerLoader loader = new CustomerLoader(customerRepository, meterRegistry, readYourWritesTracker, Duration.ofMinutes(1), 1);
+        when(customerRepository.findAllById(List.of(9L))).thenReturn(List.of(customer(9L)));
+
+        assertEquals(9L, loader.load(9L).id());
+        loader.shutdown();
+    }
+
+    @Test
+    void load_ShouldQueryOnTheCallersThread_WhenTheCallerIsPinnedToThePrimary() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(1));
+        when(readYourWritesTracker.getIfAvailable()).thenReturn(tracker);
+        CustomerLoader loader = new CustomerLoader(customerRepository, meterRegistry, readYourWritesTracker,
+                Duration.ofMinutes(1), 100);
+        Thread caller = Thread.currentThread();
+        when(customerRepository.findAllById(List.of(4L))).thenAnswer(invocation -> {
+            assertSame(caller, Thread.currentThread());
+            return List.of(customer(4L));
+        });
+
+        tracker.bind("writer");
+        try {
+            tracker.recordWrite();
+            assertEquals(4L, loader.load(4L).id());
+        } finally {
+            tracker.clear();
+        }
+        loader.shutdown();
+    }
+
+    @Test
+    void load_ShouldPropagateQueryFailuresToEveryWaiter() {
+        CustomerLoader loader = new CustomerLoader(customerRepository, meterRegistry, readYourWritesTracker, Duration.ZERO, 100);
+        when(customerRepository.findAllById(any())).thenThrow(new IllegalStateException("database down"));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> loader.load(1L));
+        assertEquals("database down", exception.getMessage());
+        doReturn(List.of(customer(1L))).when(customerRepository).findAllById(any());
+        assertEquals(1L, loader.load(1L).id());
+    }
+
+    private void awaitCount(String result, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("customer.lookups").tag("result", result).counter().count() < expected) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + expected + " " + result + " lookups");
+            Thread.sleep(5);
+        }
+    }
+
+    private static Customer customer(Long id) {
+        return Customer.builder().id(id).name("Loader " + id).email("loader" + id + "@example.com").version(0L).build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.customer_service.service;
+
+import com.example.customer_service.dto.CreateCustomerDto;
+import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.NotFoundException;
+import com.example.customer_service.respository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class CustomerServiceCacheTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private CustomerRepository customerRepository;
+
+    @Test
+    void getCustomerById_ShouldHitDatabaseOnce_ForRepeatedReads() {
+        CustomerDto saved = customerService.saveCustomer(newCustomer("cache.read@example.com"));
+
+        customerService.getCustomerById(saved.id());
+        customerService.getCustomerById(saved.id());
+
+        verify(customerRepository, times(1)).findAllById(List.of(saved.id()));
+        assertTrue(meterRegistry.get("cache.gets").tag("cache", CustomerService.CUSTOMER_CACHE)
+                .tag("result", "hit").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void updateCustomer_ShouldRefreshCachedEntry() {
+        CustomerDto saved = customerService.saveCustomer(newCustomer("cache.update@example.com"));
+        customerService.getCustomerById(saved.id());
+
+        UpdateCustomerDto update = new UpdateCustomerDto();
+        update.setId(saved.id());
+        update.setName("Updated Name");
+        customerService.updateCustomer(update);
+        clearInvocations(customerRepository);
+
+        assertEquals("Updated Name", customerService.getCustomerById(saved.id()).name());
+        verify(customerRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void deleteCustomer_ShouldEvictCachedEntry() {
+        CustomerDto saved = customerService.saveCustomer(newCustomer("cache.delete@example.com"));
+        customerService.getCustomerById(saved.id());
+
+        customerService.deleteCustomer(saved.id());
+
+        assertThrows(NotFoundException.class, () -> customerService.getCustomerById(saved.id()));
+    }
+
+    private CreateCustomerDto newCustomer(String email) {
+        CreateCustomerDto dto = new CreateCustomerDto();
+        dto.setName("Cache Doe");
+        dto.setEmail(email);
+        dto.setPhone("1234567890");
+        return dto;
+    }
+}
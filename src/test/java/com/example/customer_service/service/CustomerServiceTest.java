@@ -2,20 +2,32 @@ package com.example.customer_service.service;
 
 import com.example.customer_service.dto.CreateCustomerDto;
 import com.example.customer_service.dto.CustomerDto;
+import com.example.customer_service.dto.CustomerLookupDto;
+import com.example.customer_service.dto.CustomerPageDto;
 import com.example.customer_service.dto.UpdateCustomerDto;
+import com.example.customer_service.exception.BadRequestException;
+import com.example.customer_service.exception.ConflictException;
 import com.example.customer_service.exception.NotFoundException;
 import com.example.customer_service.model.Customer;
+import com.example.customer_service.model.CustomerChangeType;
 import com.example.customer_service.respository.CustomerRepository;
+import com.example.customer_service.respository.CustomerTableStamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +39,12 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerChangeService customerChangeService;
+
+    @Mock
+    private CustomerLoader customerLoader;
+
     @InjectMocks
     private CustomerService customerService;
 
@@ -69,15 +87,21 @@ class CustomerServiceTest {
         assertEquals("john@example.com", result.email());
         assertEquals("1234567890", result.phone());
         verify(customerRepository).save(any(Customer.class));
+        verify(customerChangeService).record(CustomerChangeType.CREATED, 1L, result);
     }
 
 
     @Test
-    void
-
-    updateCustomer_ShouldUpdateAndReturnCustomerDto() {
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        when(customerRepository.save(any(Customer.class))).thenReturn(customer);
+    void updateCustomer_ShouldUpdateAndReturnCustomerDto() {
+        Customer updatedCustomer = Customer.builder()
+                .id(1L)
+                .name("Jane Doe")
+                .email("jane@example.com")
+                .phone("0987654321")
+                .version(1L)
+                .build();
+        when(customerRepository.updateNonBlankFields(1L, null, "Jane Doe", "jane@example.com", "0987654321")).thenReturn(1);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(updatedCustomer));
 
         CustomerDto result = customerService.updateCustomer(updateCustomerDto);
 
@@ -86,33 +110,38 @@ class CustomerServiceTest {
         assertEquals("Jane Doe", result.name());
         assertEquals("jane@example.com", result.email());
         assertEquals("0987654321", result.phone());
-        verify(customerRepository).findById(1L);
-        verify(customerRepository).save(any(Customer.class));
+        verify(customerRepository).updateNonBlankFields(1L, null, "Jane Doe", "jane@example.com", "0987654321");
+        verify(customerRepository, never()).save(any(Customer.class));
+        verify(customerChangeService).record(CustomerChangeType.UPDATED, 1L, result);
     }
 
     @Test
     void updateCustomer_ShouldThrowNotFoundException_WhenCustomerNotFound() {
-        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
+        when(customerRepository.updateNonBlankFields(1L, null, "Jane Doe", "jane@example.com", "0987654321")).thenReturn(0);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             customerService.updateCustomer(updateCustomerDto);
         });
 
         assertEquals("Customer not found with id: 1", exception.getMessage());
-        verify(customerRepository).findById(1L);
+        verify(customerRepository, never()).findById(1L);
         verify(customerRepository, never()).save(any(Customer.class));
     }
 
+    @Test
+    void updateCustomer_ShouldThrowConflictException_WhenVersionIsStale() {
+        updateCustomerDto.setVersion(3L);
+        when(customerRepository.updateNonBlankFields(1L, 3L, "Jane Doe", "jane@example.com", "0987654321")).thenReturn(0);
+        when(customerRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> customerService.updateCustomer(updateCustomerDto));
+
+        verify(customerRepository, never()).findById(1L);
+    }
+
     @Test
     void updateCustomer_ShouldOnlyUpdateProvidedFields() {
         // Arrange
-        Customer existingCustomer = Customer.builder()
-                .id(1L)
-                .name("John Doe")
-                .email("john@example.com")
-                .phone("1234567890")
-                .build();
-
         UpdateCustomerDto partialUpdateDto = new UpdateCustomerDto();
         partialUpdateDto.setId(1L);
         partialUpdateDto.setName("Jane Doe");
@@ -125,8 +154,8 @@ class CustomerServiceTest {
                 .phone("1234567890") // unchanged
                 .build();
 
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(existingCustomer));
-        when(customerRepository.save(any(Customer.class))).thenReturn(expectedSavedCustomer);
+        when(customerRepository.updateNonBlankFields(1L, null, "Jane Doe", null, null)).thenReturn(1);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(expectedSavedCustomer));
 
         // Act
         CustomerDto result = customerService.updateCustomer(partialUpdateDto);
@@ -136,37 +165,63 @@ class CustomerServiceTest {
         assertEquals("Jane Doe", result.name());
         assertEquals("john@example.com", result.email()); // Should remain unchanged
         assertEquals("1234567890", result.phone()); // Should remain unchanged
-        verify(customerRepository).findById(1L);
-        verify(customerRepository).save(any(Customer.class));
+        verify(customerRepository).updateNonBlankFields(1L, null, "Jane Doe", null, null);
     }
 
     @Test
-    void deleteCustomer_ShouldDeleteSuccessfully() {
+    void updateCustomer_ShouldSkipUpdateStatement_WhenNoFieldsProvided() {
+        UpdateCustomerDto emptyUpdateDto = new UpdateCustomerDto();
+        emptyUpdateDto.setId(1L);
         when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
-        doNothing().when(customerRepository).deleteById(1L);
+
+        CustomerDto result = customerService.updateCustomer(emptyUpdateDto);
+
+        assertEquals("John Doe", result.name());
+        verify(customerRepository, never()).updateNonBlankFields(any(), any(), any(), any(), any());
+        verifyNoInteractions(customerChangeService);
+    }
+
+    @Test
+    void updateCustomer_ShouldThrowConflictException_WhenNoFieldsProvidedAndVersionIsStale() {
+        UpdateCustomerDto emptyUpdateDto = new UpdateCustomerDto();
+        emptyUpdateDto.setId(1L);
+        emptyUpdateDto.setVersion(3L);
+        customer.setVersion(4L);
+        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+
+        assertThrows(ConflictException.class, () -> customerService.updateCustomer(emptyUpdateDto));
+
+        emptyUpdateDto.setVersion(4L);
+        assertEquals("John Doe", customerService.updateCustomer(emptyUpdateDto).name());
+    }
+
+    @Test
+    void deleteCustomer_ShouldDeleteSuccessfully() {
+        when(customerRepository.deleteRowById(1L)).thenReturn(1);
 
         customerService.deleteCustomer(1L);
 
-        verify(customerRepository).findById(1L);
-        verify(customerRepository).deleteById(1L);
+        verify(customerRepository).deleteRowById(1L);
+        verify(customerRepository, never()).findById(1L);
+        verify(customerChangeService).record(CustomerChangeType.DELETED, 1L, null);
     }
 
     @Test
     void deleteCustomer_ShouldThrowNotFoundException_WhenCustomerNotFound() {
-        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
+        when(customerRepository.deleteRowById(1L)).thenReturn(0);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             customerService.deleteCustomer(1L);
         });
 
         assertEquals("Customer not found with id: 1", exception.getMessage());
-        verify(customerRepository).findById(1L);
-        verify(customerRepository, never()).deleteById(1L);
+        verify(customerRepository).deleteRowById(1L);
+        verifyNoInteractions(customerChangeService);
     }
 
     @Test
     void getCustomerById_ShouldReturnCustomerDto() {
-        when(customerRepository.findById(1L)).thenReturn(Optional.of(customer));
+        when(customerLoader.load(1L)).thenReturn(CustomerService.toDto(customer));
 
         CustomerDto result = customerService.getCustomerById(1L);
 
@@ -175,28 +230,28 @@ class CustomerServiceTest {
         assertEquals("John Doe", result.name());
         assertEquals("john@example.com", result.email());
         assertEquals("1234567890", result.phone());
-        verify(customerRepository).findById(1L);
+        verify(customerLoader).load(1L);
     }
 
     @Test
     void getCustomerById_ShouldThrowNotFoundException_WhenCustomerNotFound() {
-        when(customerRepository.findById(1L)).thenReturn(Optional.empty());
+        when(customerLoader.load(1L)).thenReturn(null);
 
         NotFoundException exception = assertThrows(NotFoundException.class, () -> {
             customerService.getCustomerById(1L);
         });
 
         assertEquals("Customer not found with id: 1", exception.getMessage());
-        verify(customerRepository).findById(1L);
+        verify(customerLoader).load(1L);
     }
 
     @Test
     void getAllCustomers_ShouldReturnCustomerDtoList() {
-        List<Customer> customers = Arrays.asList(
-                customer,
-                Customer.builder().id(2L).name("Jane Doe").email("jane@example.com").phone("0987654321").build()
+        List<CustomerDto> customers = Arrays.asList(
+                CustomerService.toDto(customer),
+                new CustomerDto(2L, "Jane Doe", "jane@example.com", "0987654321")
         );
-        when(customerRepository.findAll()).thenReturn(customers);
+        when(customerRepository.findAllDtos()).thenReturn(customers);
 
         List<CustomerDto> result = customerService.getAllCustomers();
 
@@ -206,6 +261,119 @@ class CustomerServiceTest {
         assertEquals("John Doe", result.get(0).name());
         assertEquals(2L, result.get(1).id());
         assertEquals("Jane Doe", result.get(1).name());
-        verify(customerRepository).findAll();
+        verify(customerRepository).findAllDtos();
+    }
+
+    @Test
+    void getCustomers_ShouldReturnPageWithNextCursor_WhenMoreRowsExist() {
+        CustomerDto second = new CustomerDto(2L, "Jane Doe", "jane@example.com", null);
+        when(customerRepository.findDtosByIdGreaterThan(0L, Limit.of(2)))
+                .thenReturn(List.of(CustomerService.toDto(customer), second));
+
+        CustomerPageDto result = customerService.getCustomers(null, 1);
+
+        assertEquals(1, result.items().size());
+        assertEquals(1L, result.items().get(0).id());
+        assertEquals(1L, result.nextCursor());
+    }
+
+    @Test
+    void getCustomers_ShouldReturnNullCursor_OnLastPage() {
+        when(customerRepository.findDtosByIdGreaterThan(0L, Limit.of(11)))
+                .thenReturn(List.of(CustomerService.toDto(customer)));
+
+        CustomerPageDto result = customerService.getCustomers(0L, 10);
+
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getCustomers_ShouldClampLimitToMaxPageSize() {
+        when(customerRepository.findDtosByIdGreaterThan(3L, Limit.of(CustomerService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of());
+
+        CustomerPageDto result = customerService.getCustomers(3L, 50_000);
+
+        assertTrue(result.items().isEmpty());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void streamAllCustomers_ShouldEmitProjectedDtos() {
+        when(customerRepository.streamAllDtosOrderById()).thenReturn(Stream.of(CustomerService.toDto(customer)));
+        List<CustomerDto> emitted = new ArrayList<>();
+
+        customerService.streamAllCustomers(emitted::add);
+
+        assertEquals(1, emitted.size());
+        assertEquals("John Doe", emitted.get(0).name());
+    }
+
+    @Test
+    void searchCustomers_ShouldThrowBadRequestException_WhenNoCriteriaProvided() {
+        assertThrows(BadRequestException.class, () -> customerService.searchCustomers(null, " ", null, null, 10));
+
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchCustomers_ShouldReturnPageOfMatches() {
+        when(customerRepository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(customer));
+
+        CustomerPageDto result = customerService.searchCustomers("John@Example.com", null, null, null, 10);
+
+        assertEquals(1, result.items().size());
+        assertEquals("john@example.com", result.items().get(0).email());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getCustomersETag_ShouldCombineRowCountAndLastModified() {
+        when(customerRepository.findTableStamp())
+                .thenReturn(new CustomerTableStamp(3, Instant.ofEpochSecond(1_700_000_000L, 123_456_000)));
+
+        assertEquals("3-1700000000123456", customerService.getCustomersETag());
+    }
+
+    @Test
+    void getCustomersETag_ShouldHandleEmptyTable() {
+        when(customerRepository.findTableStamp()).thenReturn(new CustomerTableStamp(0, null));
+
+        assertEquals("0-0", customerService.getCustomersETag());
+    }
+
+    @Test
+    void lookupCustomers_ShouldReturnCustomersInRequestedOrderAndReportMissingIds() {
+        CustomerDto other = new CustomerDto(3L, "Jane Roe", "jane@example.com", "555");
+        when(customerRepository.findDtosByIdIn(List.of(3L, 2L, 1L))).thenReturn(List.of(CustomerService.toDto(customer), other));
+
+        CustomerLookupDto result = customerService.lookupCustomers(Arrays.asList(3L, 2L, 3L, null, 1L));
+
+        assertEquals(List.of(3L, 1L), result.items().stream().map(CustomerDto::id).toList());
+        assertEquals(List.of(2L), result.missing());
+    }
+
+    @Test
+    void lookupCustomers_ShouldQueryInChunks() {
+        List<Long> ids = LongStream.rangeClosed(1, 1000).boxed().toList();
+        when(customerRepository.findDtosByIdIn(any())).thenReturn(List.of());
+
+        CustomerLookupDto result = customerService.lookupCustomers(ids);
+
+        verify(customerRepository).findDtosByIdIn(ids.subList(0, 500));
+        verify(customerRepository).findDtosByIdIn(ids.subList(500, 1000));
+        assertEquals(1000, result.missing().size());
+    }
+
+    @Test
+    void lookupCustomers_ShouldThrowBadRequestException_WhenTooManyOrNoIdsProvided() {
+        List<Long> ids = LongStream.rangeClosed(1, CustomerService.MAX_LOOKUP_IDS + 1).boxed().toList();
+
+        assertThrows(BadRequestException.class, () -> customerService.lookupCustomers(ids));
+        assertThrows(BadRequestException.class, () -> customerService.lookupCustomers(List.of()));
+        verifyNoInteractions(customerRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.example.customer_service.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerIdGeneratorTest {
+
+    @Test
+    void nextId_ShouldBeUniqueAndIncreasing_WithinAndAcrossMilliseconds() {
+        AtomicLong clock = new AtomicLong(1_750_000_000_000L);
+        CustomerIdGenerator generator = new CustomerIdGenerator(3, clock::get);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (i % 1_000 == 0) {
+                clock.incrementAndGet();
+            }
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void timestampOf_ShouldRecoverWhenTheIdWasIssued() {
+        CustomerIdGenerator generator = new CustomerIdGenerator(1_023, () -> 1_750_000_000_123L);
+
+        assertEquals(1_750_000_000_123L, CustomerIdGenerator.timestampOf(generator.nextId()));
+    }
+
+    @Test
+    void nextId_ShouldNotGoBackwards_WhenTheClockDoes() {
+        AtomicLong clock = new AtomicLong(1_750_000_000_000L);
+        CustomerIdGenerator generator = new CustomerIdGenerator(1, clock::get);
+
+        long first = generator.nextId();
+        clock.addAndGet(-5_000);
+
+        assertTrue(generator.nextId() > first);
+    }
+
+    @Test
+    void nextId_ShouldDifferBetweenNodes() {
+        CustomerIdGenerator first = new CustomerIdGenerator(1, () -> 1_750_000_000_000L);
+        CustomerIdGenerator second = new CustomerIdGenerator(2, () -> 1_750_000_000_000L);
+
+        assertNotEquals(first.nextId(), second.nextId());
+        assertThrows(IllegalArgumentException.class, () -> new CustomerIdGenerator(1024));
+    }
+}
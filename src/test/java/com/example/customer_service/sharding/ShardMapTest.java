@@ -0,0 +1,59 @@
+package com.example.customer_service.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardMapTest {
+
+    @Test
+    void hash_ShouldSpreadSequentialIdsOverEveryShard() {
+        ShardMap map = ShardMap.hash(4);
+
+        Map<Integer, Long> perShard = LongStream.range(0, 40_000)
+                .boxed()
+                .collect(Collectors.groupingBy(map::shardFor, Collectors.counting()));
+
+        assertEquals(4, perShard.size());
+        perShard.values().forEach(count -> assertTrue(count > 9_000 && count < 11_000, "unbalanced: " + perShard));
+    }
+
+    @Test
+    void range_ShouldRouteByIdBoundaries() {
+        ShardMap map = ShardMap.range(3, List.of(100L, 200L));
+
+        assertEquals(0, map.shardFor(99));
+        assertEquals(1, map.shardFor(100));
+        assertEquals(1, map.shardFor(199));
+        assertEquals(2, map.shardFor(200));
+    }
+
+    @Test
+    void reassign_ShouldMoveOnlyTheGivenRange() {
+        ShardMap map = ShardMap.range(3, List.of(100L, 200L));
+
+        ShardMap moved = map.reassign(150, 250, 0);
+
+        assertEquals(1, moved.shardFor(149));
+        assertEquals(0, moved.shardFor(150));
+        assertEquals(0, moved.shardFor(249));
+        assertEquals(2, moved.shardFor(250));
+        assertEquals(new TreeMap<>(Map.of(Long.MIN_VALUE, 0, 100L, 1, 150L, 0, 250L, 2)), moved.ranges());
+        assertEquals(1, map.shardFor(150));
+        assertEquals(map.version() + 1, moved.version());
+    }
+
+    @Test
+    void reassign_ShouldRejectUnknownShardsAndEmptyRanges() {
+        ShardMap map = ShardMap.hash(2);
+
+        assertThrows(IllegalArgumentException.class, () -> map.reassign(0, 10, 2));
+        assertThrows(IllegalArgumentException.class, () -> map.reassign(10, 10, 1));
+    }
+}